@@ -0,0 +1,27 @@
+package com.ecommerce.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+// Runs the benchmarks with the GC profiler so allocation rate (gc.alloc.rate.norm) is reported per operation.
+// Usage: java -cp benchmarks/target/benchmarks.jar com.ecommerce.benchmarks.BenchmarkRunner [include-regex] [result-file]
+public class BenchmarkRunner {
+    
+    public static void main(String[] args) throws RunnerException {
+        String include = args.length > 0 ? args[0] : "com.ecommerce.benchmarks.*";
+        String resultFile = args.length > 1 ? args[1] : "benchmarks/results/latest.json";
+        
+        Options options = new OptionsBuilder()
+                .include(include)
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile)
+                .build();
+        
+        new Runner(options).run();
+    }
+}
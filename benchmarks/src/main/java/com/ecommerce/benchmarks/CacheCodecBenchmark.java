@@ -0,0 +1,71 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.catalog.application.ProductSnapshot;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.config.SnapshotCodec;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+// Encodes and decodes a productsWithSkus cache entry with the Smile snapshot codec and with the same mapping
+// as plain JSON. The entities cached before could not be JDK-serialized at all, so JSON is the comparison.
+// Encoded sizes are printed once per trial.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheCodecBenchmark {
+    
+    @Param({"json", "smile"})
+    private String codec;
+    
+    @Param({"1", "10", "50"})
+    private int skuCount;
+    
+    private ProductSnapshot snapshot;
+    private ObjectWriter writer;
+    private ObjectReader reader;
+    private byte[] encoded;
+    
+    @Setup
+    public void setUp() throws IOException {
+        Product product = new Product("Benchmark product", "Product used by the cache codec benchmarks",
+                EntityId.generate(), Money.of(BigDecimal.valueOf(1999, 2)));
+        for (int i = 0; i < skuCount; i++) {
+            Sku variant = new Sku("BENCH-" + i, "Variant " + i, "Variant " + i + " of the benchmark product",
+                    product, Money.of(BigDecimal.valueOf(1999 + i, 2)));
+            variant.updateStockQuantity(1_000);
+            product.addSku(variant);
+        }
+        snapshot = ProductSnapshot.fromWithSkus(product);
+        
+        ObjectMapper mapper = "smile".equals(codec)
+                ? SnapshotCodec.newObjectMapper()
+                : SnapshotCodec.newObjectMapper(new JsonFactory());
+        writer = mapper.writerFor(ProductSnapshot.class);
+        reader = mapper.readerFor(ProductSnapshot.class);
+        encoded = writer.writeValueAsBytes(snapshot);
+        System.out.printf("%n%s, %d SKUs: %d bytes per entry%n", codec, skuCount, encoded.length);
+    }
+    
+    @Benchmark
+    public byte[] encode() throws IOException {
+        return writer.writeValueAsBytes(snapshot);
+    }
+    
+    @Benchmark
+    public ProductSnapshot decode() throws IOException {
+        return reader.readValue(encoded);
+    }
+}
@@ -0,0 +1,74 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.cart.api.CartDto;
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CartBenchmark {
+    
+    @Param({"1", "10", "100"})
+    private int cartSize;
+    
+    private EntityId customerId;
+    private EntityId[] skuIds;
+    private Money[] unitPrices;
+    private Map<EntityId, Money> repricedUnitPrices;
+    private Cart filledCart;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        customerId = EntityId.generate();
+        skuIds = new EntityId[cartSize];
+        unitPrices = new Money[cartSize];
+        repricedUnitPrices = new HashMap<>();
+        for (int i = 0; i < cartSize; i++) {
+            skuIds[i] = EntityId.generate();
+            unitPrices[i] = Money.of(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+            repricedUnitPrices.put(skuIds[i], Money.of(BigDecimal.valueOf(100 + random.nextInt(100_000), 2)));
+        }
+        filledCart = fill(new Cart(customerId));
+    }
+    
+    @Benchmark
+    public Cart addItems() {
+        return fill(new Cart(customerId));
+    }
+    
+    @Benchmark
+    public Money calculateTotal() {
+        return filledCart.calculateTotal();
+    }
+    
+    @Benchmark
+    public Money reprice() {
+        filledCart.reprice(repricedUnitPrices);
+        return filledCart.calculateTotal();
+    }
+    
+    @Benchmark
+    public CartDto toDto() {
+        return CartDto.from(filledCart);
+    }
+    
+    private Cart fill(Cart cart) {
+        for (int i = 0; i < cartSize; i++) {
+            cart.addItem(skuIds[i], 1 + (i & 3), unitPrices[i]);
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,52 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.catalog.api.ProductDto;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CatalogBenchmark {
+    
+    @Param({"1", "10", "50"})
+    private int skuCount;
+    
+    private Product product;
+    private Sku sku;
+    
+    @Setup
+    public void setUp() {
+        product = new Product("Benchmark product", "Product used by the catalog benchmarks",
+                EntityId.generate(), Money.of(BigDecimal.valueOf(1999, 2)));
+        for (int i = 0; i < skuCount; i++) {
+            Sku variant = new Sku("BENCH-" + i, "Variant " + i, "Variant " + i + " of the benchmark product",
+                    product, Money.of(BigDecimal.valueOf(1999 + i, 2)));
+            variant.updateStockQuantity(1_000);
+            product.addSku(variant);
+        }
+        sku = product.getSkus().get(0);
+        sku.updateStockQuantity(Integer.MAX_VALUE / 2);
+    }
+    
+    @Benchmark
+    public ProductDto productWithSkusToDto() {
+        return ProductDto.fromWithSkus(product);
+    }
+    
+    @Benchmark
+    public int reserveAndReleaseStock() {
+        sku.reserveStock(1);
+        sku.releaseReservedStock(1);
+        return sku.getAvailableQuantity();
+    }
+}
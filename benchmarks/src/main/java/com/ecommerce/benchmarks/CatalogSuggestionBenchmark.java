@@ -0,0 +1,56 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.catalog.application.CatalogSuggestion;
+import com.ecommerce.catalog.application.CatalogSuggestionIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class CatalogSuggestionBenchmark {
+    
+    private static final String[] WORDS = {
+            "apple", "iphone", "pro", "max", "galaxy", "samsung", "macbook", "air", "nike", "adidas",
+            "ultraboost", "running", "shoes", "laptop", "dell", "xps", "clean", "code", "great", "gatsby"
+    };
+    private static final int PREFIX_COUNT = 1_024;
+    
+    @Param({"100000", "1000000"})
+    private int entries;
+    
+    private CatalogSuggestionIndex index;
+    private String[] prefixes;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        List<CatalogSuggestion> suggestions = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            String name = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " " + i;
+            suggestions.add(new CatalogSuggestion(CatalogSuggestion.Type.PRODUCT, "prod-" + i, name, random.nextInt(10_000)));
+        }
+        index = CatalogSuggestionIndex.build(suggestions, 10);
+        
+        prefixes = new String[PREFIX_COUNT];
+        for (int i = 0; i < PREFIX_COUNT; i++) {
+            String word = WORDS[random.nextInt(WORDS.length)];
+            prefixes[i] = word.substring(0, 1 + random.nextInt(word.length()));
+        }
+    }
+    
+    @Benchmark
+    public List<CatalogSuggestion> suggest() {
+        String prefix = prefixes[cursor];
+        cursor = (cursor + 1) & (PREFIX_COUNT - 1);
+        return index.suggest(prefix, 10);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.shared.domain.EntityId;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityIdBenchmark {
+    
+    @Param({"10", "1000"})
+    private int idCount;
+    
+    private String[] rawIds;
+    private Map<EntityId, Integer> index;
+    private EntityId[] probes;
+    private int cursor;
+    
+    @Setup
+    public void setUp() {
+        rawIds = new String[idCount];
+        index = new HashMap<>();
+        probes = new EntityId[idCount];
+        for (int i = 0; i < idCount; i++) {
+            EntityId id = EntityId.generate();
+            rawIds[i] = id.getValue();
+            index.put(id, i);
+            // Distinct instance with the same value, as produced by a request path variable
+            probes[i] = EntityId.of(id.getValue());
+        }
+    }
+    
+    @Benchmark
+    public EntityId generate() {
+        return EntityId.generate();
+    }
+    
+    @Benchmark
+    public EntityId parse() {
+        return EntityId.of(rawIds[next()]);
+    }
+    
+    @Benchmark
+    public Integer mapLookup() {
+        return index.get(probes[next()]);
+    }
+    
+    private int next() {
+        int i = cursor;
+        cursor = i + 1 == idCount ? 0 : i + 1;
+        return i;
+    }
+}
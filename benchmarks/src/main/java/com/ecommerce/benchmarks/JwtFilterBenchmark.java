@@ -0,0 +1,65 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.security.JwtAuthenticationFilter;
+import com.ecommerce.security.JwtTokenProvider;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtFilterBenchmark {
+    
+    private static final String SECRET = "benchmark-secret-benchmark-secret-benchmark-secret-benchmark-secret";
+    
+    // 0 disables the verified-token cache, so every request verifies the signature
+    @Param({"0", "10000"})
+    private long verifiedTokenCacheSize;
+    
+    private JwtTokenProvider tokenProvider;
+    private JwtAuthenticationFilter filter;
+    private String token;
+    private MockHttpServletRequest request;
+    
+    @Setup
+    public void setUp() {
+        tokenProvider = new JwtTokenProvider(SECRET, 3600, verifiedTokenCacheSize);
+        filter = new JwtAuthenticationFilter(tokenProvider);
+        token = tokenProvider.generateTokenFromUsername("benchmark-user");
+        request = new MockHttpServletRequest("GET", "/catalog/products");
+        request.addHeader("Authorization", "Bearer " + token);
+    }
+    
+    @Benchmark
+    public Object filterRequest() throws ServletException, IOException {
+        FilterChain chain = new MockFilterChain();
+        // OncePerRequestFilter marks the request as filtered, so use a fresh attribute set each time
+        request.clearAttributes();
+        filter.doFilter(request, new MockHttpServletResponse(), chain);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+    
+    @Benchmark
+    public String legacyDoubleParse() {
+        // Previous filter path: rebuild the key and parse/verify the token twice
+        Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8))).parseClaimsJws(token);
+        return Jwts.parser().setSigningKey(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+                .parseClaimsJws(token).getBody().getSubject();
+    }
+}
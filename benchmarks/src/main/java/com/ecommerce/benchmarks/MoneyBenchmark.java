@@ -0,0 +1,79 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.shared.domain.Money;
+import com.ecommerce.shared.domain.MoneyAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoneyBenchmark {
+    
+    private static final String[] CURRENCIES = {"USD", "EUR", "KRW"};
+    
+    @Param({"1", "10", "100"})
+    private int lines;
+    
+    // Number of distinct currencies across the lines; each currency is totalled separately
+    @Param({"1", "3"})
+    private int currencies;
+    
+    private BigDecimal[] unitAmounts;
+    private int[] quantities;
+    private int[] currencyIndexes;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        unitAmounts = new BigDecimal[lines];
+        quantities = new int[lines];
+        currencyIndexes = new int[lines];
+        for (int i = 0; i < lines; i++) {
+            currencyIndexes[i] = i % currencies;
+            unitAmounts[i] = BigDecimal.valueOf(random.nextInt(100_000), 2);
+            quantities[i] = 1 + random.nextInt(5);
+        }
+    }
+    
+    @Benchmark
+    public Money[] bigDecimalTotal() {
+        Money[] totals = new Money[currencies];
+        for (int c = 0; c < currencies; c++) {
+            totals[c] = Money.zero(CURRENCIES[c]);
+        }
+        for (int i = 0; i < lines; i++) {
+            int c = currencyIndexes[i];
+            totals[c] = totals[c].add(unitPrice(i).multiply(quantities[i]));
+        }
+        return totals;
+    }
+    
+    @Benchmark
+    public Money[] accumulatorTotal() {
+        MoneyAccumulator[] accumulators = new MoneyAccumulator[currencies];
+        for (int c = 0; c < currencies; c++) {
+            accumulators[c] = new MoneyAccumulator(CURRENCIES[c]);
+        }
+        for (int i = 0; i < lines; i++) {
+            accumulators[currencyIndexes[i]].addLine(unitPrice(i), quantities[i]);
+        }
+        Money[] totals = new Money[currencies];
+        for (int c = 0; c < currencies; c++) {
+            totals[c] = accumulators[c].toMoney();
+        }
+        return totals;
+    }
+    
+    // A fresh Money per line, like prices on freshly loaded entities: the accumulator pays the minor-unit
+    // conversion on every line instead of reading a value derived during setup
+    private Money unitPrice(int line) {
+        return Money.of(unitAmounts[line], CURRENCIES[currencyIndexes[line]]);
+    }
+}
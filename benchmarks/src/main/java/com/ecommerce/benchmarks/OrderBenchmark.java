@@ -0,0 +1,67 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.order.api.OrderDto;
+import com.ecommerce.order.domain.Order;
+import com.ecommerce.order.domain.OrderItem;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import com.ecommerce.shared.domain.MoneyAccumulator;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderBenchmark {
+    
+    @Param({"1", "10", "100"})
+    private int lineCount;
+    
+    private EntityId customerId;
+    private EntityId[] skuIds;
+    private Money[] unitPrices;
+    private Order order;
+    
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        customerId = EntityId.generate();
+        skuIds = new EntityId[lineCount];
+        unitPrices = new Money[lineCount];
+        for (int i = 0; i < lineCount; i++) {
+            skuIds[i] = EntityId.generate();
+            unitPrices[i] = Money.of(BigDecimal.valueOf(100 + random.nextInt(100_000), 2));
+        }
+        order = createOrder();
+    }
+    
+    @Benchmark
+    public Order construct() {
+        return createOrder();
+    }
+    
+    @Benchmark
+    public OrderDto toDto() {
+        return OrderDto.from(order);
+    }
+    
+    private Order createOrder() {
+        List<OrderItem> items = new ArrayList<>(lineCount);
+        MoneyAccumulator subtotal = new MoneyAccumulator();
+        for (int i = 0; i < lineCount; i++) {
+            int quantity = 1 + (i & 3);
+            items.add(new OrderItem(skuIds[i], "SKU-" + i, "Product " + i, "Variant " + i, quantity, unitPrices[i]));
+            subtotal.addLine(unitPrices[i], quantity);
+        }
+        return new Order(customerId, items, subtotal.toMoney(), Money.zero(), Money.zero(),
+                "1 Main St", "1 Main St", null);
+    }
+}
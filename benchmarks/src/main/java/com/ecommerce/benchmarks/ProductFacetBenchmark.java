@@ -0,0 +1,78 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.catalog.application.CategoryTree;
+import com.ecommerce.catalog.application.ProductFacetIndex;
+import com.ecommerce.catalog.application.ProductFacetQuery;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductFacetBenchmark {
+    
+    // 10 top-level categories with 10 children each
+    private static final int ROOT_CATEGORIES = 10;
+    private static final int CHILD_CATEGORIES = 10;
+    
+    @Param({"100000", "1000000"})
+    private int products;
+    
+    private ProductFacetIndex index;
+    private CategoryTree categories;
+    private ProductFacetQuery unfiltered;
+    private ProductFacetQuery categoryOnly;
+    private ProductFacetQuery combined;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        index = new ProductFacetIndex();
+        
+        List<CategoryTree.Row> rows = new ArrayList<>();
+        for (int root = 0; root < ROOT_CATEGORIES; root++) {
+            rows.add(new CategoryTree.Row("cat-" + root, "Category " + root, null, null, root));
+            for (int child = 0; child < CHILD_CATEGORIES; child++) {
+                rows.add(new CategoryTree.Row("cat-" + root + "-" + child, "Category " + root + "-" + child,
+                        null, "cat-" + root, child));
+            }
+        }
+        categories = CategoryTree.build(rows);
+        
+        for (int p = 0; p < products; p++) {
+            String category = "cat-" + random.nextInt(ROOT_CATEGORIES) + "-" + random.nextInt(CHILD_CATEGORIES);
+            Money price = Money.ofMinor(100 + (long) (200_000 * Math.pow(random.nextDouble(), 3)), "USD");
+            index.put("prod-" + p, category, price, random.nextInt(10) == 0, random.nextInt(5) != 0);
+        }
+        
+        unfiltered = new ProductFacetQuery(null, null, null, "USD", null, null, null);
+        categoryOnly = new ProductFacetQuery(EntityId.of("cat-3"), null, null, "USD", null, null, null);
+        combined = new ProductFacetQuery(EntityId.of("cat-3"), new BigDecimal("15"), new BigDecimal("120"),
+                "USD", false, true, null);
+    }
+    
+    @Benchmark
+    public ProductFacetIndex.Result unfiltered() {
+        return index.query(unfiltered, categories, null, 0, 20);
+    }
+    
+    @Benchmark
+    public ProductFacetIndex.Result categorySubtree() {
+        return index.query(categoryOnly, categories, null, 0, 20);
+    }
+    
+    @Benchmark
+    public ProductFacetIndex.Result categoryPriceStockDigital() {
+        return index.query(combined, categories, null, 0, 20);
+    }
+}
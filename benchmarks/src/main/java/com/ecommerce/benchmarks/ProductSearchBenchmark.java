@@ -0,0 +1,67 @@
+package com.ecommerce.benchmarks;
+
+import com.ecommerce.catalog.application.ProductSearchIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+public class ProductSearchBenchmark {
+    
+    private static final int VOCABULARY_SIZE = 50_000;
+    private static final int QUERY_COUNT = 1_024;
+    
+    @Param({"100000", "1000000"})
+    private int products;
+    
+    @Param({"1", "3"})
+    private int queryTerms;
+    
+    private ProductSearchIndex index;
+    private String[] vocabulary;
+    private String[] queries;
+    private int cursor;
+    
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        vocabulary = new String[VOCABULARY_SIZE];
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary[i] = "w" + Integer.toString(i, 36);
+        }
+        
+        index = new ProductSearchIndex();
+        for (int p = 0; p < products; p++) {
+            index.index("prod-" + p, text(random, 4), text(random, 20), List.of(text(random, 3), "SKU-" + p));
+        }
+        
+        queries = new String[QUERY_COUNT];
+        for (int q = 0; q < QUERY_COUNT; q++) {
+            queries[q] = text(random, queryTerms);
+        }
+    }
+    
+    @Benchmark
+    public ProductSearchIndex.Hits searchFirstPage() {
+        String query = queries[cursor];
+        cursor = (cursor + 1) & (QUERY_COUNT - 1);
+        return index.search(query, 0, 20);
+    }
+    
+    // Skewed word choice so a few terms are very common and most are rare, like real catalog text
+    private String text(Random random, int words) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            double r = random.nextDouble();
+            text.append(vocabulary[(int) (VOCABULARY_SIZE * r * r * r)]).append(' ');
+        }
+        return text.toString();
+    }
+}
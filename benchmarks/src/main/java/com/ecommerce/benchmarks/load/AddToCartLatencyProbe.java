@@ -0,0 +1,107 @@
+package com.ecommerce.benchmarks.load;
+
+import com.ecommerce.cart.application.CartService;
+import com.ecommerce.catalog.application.CatalogService;
+import com.ecommerce.catalog.domain.Category;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.HdrHistogram.Histogram;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Measures CartService.addItemToCart against carts that already hold size - 1 lines, for each size in
+// probe.sizes. Each add is timed twice: on a cart with current prices (only the added line is priced) and on a
+// cart flagged stale by a price change, which re-prices every line through CatalogService.getSkus.
+// Prints latency percentiles and Hibernate statements per add for each size.
+// Usage: mvn -f benchmarks/pom.xml -Pload compile exec:java
+//            -Dload.mainClass=com.ecommerce.benchmarks.load.AddToCartLatencyProbe -Dprobe.sizes=1,10,30,100
+public class AddToCartLatencyProbe {
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    
+    private final int[] sizes = Arrays.stream(System.getProperty("probe.sizes", "1,5,10,30,60,100").split(","))
+            .map(String::trim)
+            .mapToInt(Integer::parseInt)
+            .toArray();
+    private final int samples = Integer.getInteger("probe.samples", 50);
+    private final int warmup = Integer.getInteger("probe.warmup", 10);
+    
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = LoadHarness.application(
+                "spring.jpa.properties.hibernate.generate_statistics=true").run(args);
+        try {
+            new AddToCartLatencyProbe().run(context);
+        } finally {
+            context.close();
+        }
+    }
+    
+    public void run(ConfigurableApplicationContext context) {
+        CatalogService catalogService = context.getBean(CatalogService.class);
+        CartService cartService = context.getBean(CartService.class);
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        int maxSize = Arrays.stream(sizes).max().orElse(1);
+        List<Sku> skus = seed(catalogService, maxSize);
+        
+        System.out.printf("%n%6s %-6s %10s %10s %10s %12s%n", "lines", "prices", "p50 ms", "p99 ms", "max ms", "stmts/add");
+        for (int size : sizes) {
+            for (boolean stale : new boolean[] {false, true}) {
+                Histogram latency = new Histogram(HIGHEST_TRACKABLE_MICROS, 3);
+                long statements = 0;
+                for (int sample = 0; sample < warmup + samples; sample++) {
+                    EntityId customerId = EntityId.of("add-latency-" + size + "-" + stale + "-" + sample);
+                    for (int line = 0; line < size - 1; line++) {
+                        cartService.addItemToCart(customerId, skus.get(line).getSkuId(), 1);
+                    }
+                    if (stale) {
+                        // A price change on a line already in the cart flags it for re-pricing on the next add
+                        repriceFirstSku(catalogService, skus, sample);
+                    }
+                    
+                    long statementsBefore = statistics.getPrepareStatementCount();
+                    long begin = System.nanoTime();
+                    cartService.addItemToCart(customerId, skus.get(size - 1).getSkuId(), 1);
+                    long micros = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin);
+                    if (sample >= warmup) {
+                        latency.recordValue(Math.min(micros, HIGHEST_TRACKABLE_MICROS));
+                        statements += statistics.getPrepareStatementCount() - statementsBefore;
+                    }
+                }
+                System.out.printf("%6d %-6s %10.2f %10.2f %10.2f %12.1f%n", size, stale ? "stale" : "fresh",
+                        latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                        latency.getMaxValue() / 1000.0, (double) statements / samples);
+            }
+        }
+    }
+    
+    private void repriceFirstSku(CatalogService catalogService, List<Sku> skus, int sample) {
+        Sku sku = skus.get(0);
+        Money price = Money.of(new BigDecimal(sample % 2 == 0 ? "10.99" : "9.99"));
+        catalogService.updateSku(sku.getSkuId(), sku.getName(), sku.getDescription(), price);
+    }
+    
+    private List<Sku> seed(CatalogService catalogService, int count) {
+        Category category = catalogService.createRootCategory("Probe category", "Seeded by the add-to-cart probe");
+        Money price = Money.of(new BigDecimal("9.99"));
+        Product product = catalogService.createProduct("Probe product", "Seeded by the add-to-cart probe",
+                category.getCategoryId(), price);
+        List<Sku> skus = new ArrayList<>();
+        for (int s = 0; s < count; s++) {
+            Sku sku = catalogService.createSku("ADD-LATENCY-" + s, "Variant " + s, "Seeded by the add-to-cart probe",
+                    product.getProductId(), price);
+            catalogService.updateStock(sku.getSkuId(), 1_000_000);
+            skus.add(sku);
+        }
+        return skus;
+    }
+}
@@ -0,0 +1,118 @@
+package com.ecommerce.benchmarks.load;
+
+import com.ecommerce.catalog.application.CatalogService;
+import com.ecommerce.catalog.domain.Category;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.shared.domain.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+
+// Runs add-to-cart / view-cart cycles one request at a time against the "local" profile and reports the cart
+// cache hit ratio and the SQL statements Hibernate prepared per add and per view (JdbcTemplate queries are not counted).
+// Usage: mvn -f benchmarks/pom.xml -Pload compile exec:java
+//            -Dload.mainClass=com.ecommerce.benchmarks.load.CartCacheProbe -Dprobe.cycles=500 -Dprobe.viewsPerAdd=3
+public class CartCacheProbe {
+    
+    private final int customers = Integer.getInteger("probe.customers", 50);
+    private final int skus = Integer.getInteger("probe.skus", 20);
+    private final int cycles = Integer.getInteger("probe.cycles", 500);
+    private final int viewsPerAdd = Integer.getInteger("probe.viewsPerAdd", 3);
+    
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+    
+    public static void main(String[] args) throws Exception {
+        ConfigurableApplicationContext context = LoadHarness.application(
+                "spring.jpa.properties.hibernate.generate_statistics=true").run(args);
+        try {
+            new CartCacheProbe().run(context);
+        } finally {
+            context.close();
+        }
+    }
+    
+    public void run(ConfigurableApplicationContext context) throws IOException, InterruptedException {
+        String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+        List<String> skuIds = seed(context.getBean(CatalogService.class));
+        Statistics statistics = context.getBean(EntityManagerFactory.class).unwrap(SessionFactory.class).getStatistics();
+        MeterRegistry meterRegistry = context.getBean(MeterRegistry.class);
+        
+        long addStatements = 0;
+        long viewStatements = 0;
+        long views = 0;
+        double hitsBefore = cacheGets(meterRegistry, "hit");
+        double missesBefore = cacheGets(meterRegistry, "miss");
+        
+        for (int cycle = 0; cycle < cycles; cycle++) {
+            String customerId = "probe-customer-" + (cycle % customers);
+            String body = "{\"skuId\":\"" + skuIds.get(cycle % skuIds.size()) + "\",\"quantity\":1}";
+            
+            long before = statistics.getPrepareStatementCount();
+            send(HttpRequest.newBuilder(URI.create(baseUrl + "/cart/" + customerId + "/items"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build());
+            addStatements += statistics.getPrepareStatementCount() - before;
+            
+            for (int view = 0; view < viewsPerAdd; view++) {
+                before = statistics.getPrepareStatementCount();
+                send(HttpRequest.newBuilder(URI.create(baseUrl + "/cart/" + customerId)).GET().build());
+                viewStatements += statistics.getPrepareStatementCount() - before;
+                views++;
+            }
+        }
+        
+        double hits = cacheGets(meterRegistry, "hit") - hitsBefore;
+        double misses = cacheGets(meterRegistry, "miss") - missesBefore;
+        System.out.printf("%ncycles: %d (1 add + %d views each, %d customers, %d SKUs)%n",
+                cycles, viewsPerAdd, customers, skus);
+        System.out.printf("cart cache: %.0f hits, %.0f misses, hit ratio %.1f%%%n",
+                hits, misses, hits + misses > 0 ? 100.0 * hits / (hits + misses) : 0.0);
+        System.out.printf("Hibernate statements per add: %.2f%n", (double) addStatements / cycles);
+        System.out.printf("Hibernate statements per view: %.2f%n", views > 0 ? (double) viewStatements / views : 0.0);
+        System.out.printf("Hibernate statements per cycle: %.2f%n", (double) (addStatements + viewStatements) / cycles);
+    }
+    
+    private List<String> seed(CatalogService catalogService) {
+        Category category = catalogService.createRootCategory("Probe category", "Seeded by the cart cache probe");
+        Money price = Money.of(new BigDecimal("9.99"));
+        Product product = catalogService.createProduct("Probe product", "Seeded by the cart cache probe",
+                category.getCategoryId(), price);
+        List<String> skuIds = new ArrayList<>();
+        for (int s = 0; s < skus; s++) {
+            Sku sku = catalogService.createSku("PROBE-" + s, "Variant " + s, "Seeded by the cart cache probe",
+                    product.getProductId(), price);
+            catalogService.updateStock(sku.getSkuId(), 1_000_000);
+            skuIds.add(sku.getSkuId().getValue());
+        }
+        return skuIds;
+    }
+    
+    private void send(HttpRequest request) throws IOException, InterruptedException {
+        HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() < 200 || response.statusCode() >= 300) {
+            throw new IllegalStateException(request.uri() + " returned " + response.statusCode() + ": " + response.body());
+        }
+    }
+    
+    private static double cacheGets(MeterRegistry meterRegistry, String result) {
+        Counter counter = meterRegistry.find("cart.cache.gets").tag("result", result).counter();
+        return counter != null ? counter.count() : 0.0;
+    }
+}
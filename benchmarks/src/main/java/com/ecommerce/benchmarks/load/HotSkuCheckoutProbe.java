@@ -0,0 +1,130 @@
+package com.ecommerce.benchmarks.load;
+
+import com.ecommerce.cart.application.CartService;
+import com.ecommerce.catalog.application.CatalogService;
+import com.ecommerce.catalog.domain.Category;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.order.application.OrderService;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+// Fires probe.checkouts concurrent checkouts whose carts all hold the same SKU, once per round, and reports
+// checkout throughput, latency and how the failures split by exception type. Compare the reservation modes by
+// running it once per app.catalog.stock-reservation-mode: ENTITY loses the @Version race on the hot row,
+// ATOMIC should complete every checkout while stock lasts.
+// Usage: mvn -f benchmarks/pom.xml -Pload compile exec:java
+//            -Dload.mainClass=com.ecommerce.benchmarks.load.HotSkuCheckoutProbe -Dprobe.mode=ATOMIC -Dprobe.checkouts=200
+public class HotSkuCheckoutProbe {
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    
+    private final String mode = System.getProperty("probe.mode", "ATOMIC");
+    private final int checkouts = Integer.getInteger("probe.checkouts", 200);
+    private final int rounds = Integer.getInteger("probe.rounds", 5);
+    private final int stock = Integer.getInteger("probe.stock", 1_000_000);
+    
+    public static void main(String[] args) throws Exception {
+        HotSkuCheckoutProbe probe = new HotSkuCheckoutProbe();
+        ConfigurableApplicationContext context = LoadHarness.application(
+                "app.catalog.stock-reservation-mode=" + probe.mode).run(args);
+        try {
+            probe.run(context);
+        } finally {
+            context.close();
+        }
+    }
+    
+    public void run(ConfigurableApplicationContext context) throws Exception {
+        CatalogService catalogService = context.getBean(CatalogService.class);
+        CartService cartService = context.getBean(CartService.class);
+        OrderService orderService = context.getBean(OrderService.class);
+        EntityId skuId = seed(catalogService);
+        ExecutorService pool = Executors.newFixedThreadPool(checkouts);
+        
+        Histogram latency = new ConcurrentHistogram(HIGHEST_TRACKABLE_MICROS, 3);
+        Map<String, Integer> failures = new TreeMap<>();
+        long succeeded = 0;
+        long elapsedNanos = 0;
+        try {
+            for (int round = 0; round < rounds; round++) {
+                List<EntityId> customers = new ArrayList<>();
+                for (int c = 0; c < checkouts; c++) {
+                    EntityId customerId = EntityId.of("hot-sku-" + round + "-" + c);
+                    cartService.addItemToCart(customerId, skuId, 1);
+                    customers.add(customerId);
+                }
+                
+                CountDownLatch start = new CountDownLatch(1);
+                List<Future<String>> results = new ArrayList<>();
+                for (EntityId customerId : customers) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        long begin = System.nanoTime();
+                        try {
+                            orderService.createOrderFromCart(customerId, "Probe street 1", "Probe street 1", null);
+                            return null;
+                        } catch (RuntimeException ex) {
+                            return ex.getClass().getSimpleName();
+                        } finally {
+                            latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - begin),
+                                    HIGHEST_TRACKABLE_MICROS));
+                        }
+                    }));
+                }
+                long roundStart = System.nanoTime();
+                start.countDown();
+                int roundSucceeded = 0;
+                for (Future<String> result : results) {
+                    String failure = result.get();
+                    if (failure == null) {
+                        roundSucceeded++;
+                    } else {
+                        failures.merge(failure, 1, Integer::sum);
+                    }
+                }
+                long roundNanos = System.nanoTime() - roundStart;
+                elapsedNanos += roundNanos;
+                succeeded += roundSucceeded;
+                System.out.printf("round %d: %d/%d checkouts in %d ms%n", round + 1, roundSucceeded, checkouts,
+                        TimeUnit.NANOSECONDS.toMillis(roundNanos));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        
+        double seconds = elapsedNanos / 1_000_000_000.0;
+        System.out.printf("%nmode %s: %d rounds of %d concurrent checkouts on one SKU%n", mode, rounds, checkouts);
+        System.out.printf("succeeded: %d of %d, %.1f checkouts/s%n", succeeded, (long) rounds * checkouts,
+                seconds > 0 ? succeeded / seconds : 0.0);
+        System.out.printf("latency ms: p50 %.1f, p99 %.1f, max %.1f%n",
+                latency.getValueAtPercentile(50) / 1000.0, latency.getValueAtPercentile(99) / 1000.0,
+                latency.getMaxValue() / 1000.0);
+        failures.forEach((type, count) -> System.out.printf("failed with %s: %d%n", type, count));
+    }
+    
+    private EntityId seed(CatalogService catalogService) {
+        Category category = catalogService.createRootCategory("Probe category", "Seeded by the hot SKU probe");
+        Money price = Money.of(new BigDecimal("9.99"));
+        Product product = catalogService.createProduct("Probe product", "Seeded by the hot SKU probe",
+                category.getCategoryId(), price);
+        Sku sku = catalogService.createSku("HOT-SKU", "Hot variant", "Seeded by the hot SKU probe",
+                product.getProductId(), price);
+        catalogService.updateStock(sku.getSkuId(), stock);
+        return sku.getSkuId();
+    }
+}
@@ -0,0 +1,312 @@
+package com.ecommerce.benchmarks.load;
+
+import com.ecommerce.EcommerceApplication;
+import com.ecommerce.catalog.application.CatalogService;
+import com.ecommerce.catalog.domain.Category;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Boots the application with the "local" profile (H2, simple cache), seeds a catalog and drives a mix of
+// browse, cart and checkout calls over HTTP. Latency is recorded per endpoint with HdrHistogram.
+public class LoadHarness {
+    
+    private static final String BROWSE_PRODUCTS = "GET /catalog/products";
+    private static final String PRODUCT_DETAIL = "GET /catalog/products/{productId}";
+    private static final String BROWSE_CATEGORIES = "GET /catalog/categories";
+    private static final String ADD_TO_CART = "POST /cart/{customerId}/items";
+    private static final String UPDATE_CART_ITEM = "PUT /cart/{customerId}/items";
+    private static final String CHECKOUT = "POST /orders/customer/{customerId}";
+    
+    private static final long HIGHEST_TRACKABLE_MICROS = TimeUnit.MINUTES.toMicros(1);
+    
+    private final LoadSettings settings;
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+    private final Map<String, EndpointStats> stats = new LinkedHashMap<>();
+    
+    private String baseUrl;
+    private List<String> productIds;
+    private List<String> skuIds;
+    private volatile boolean running = true;
+    
+    public LoadHarness(LoadSettings settings) {
+        this.settings = settings;
+        for (String endpoint : List.of(BROWSE_PRODUCTS, PRODUCT_DETAIL, BROWSE_CATEGORIES,
+                ADD_TO_CART, UPDATE_CART_ITEM, CHECKOUT)) {
+            stats.put(endpoint, new EndpointStats());
+        }
+    }
+    
+    public static void main(String[] args) throws Exception {
+        LoadSettings settings = new LoadSettings();
+        System.out.println("Load settings: " + settings);
+        
+        ConfigurableApplicationContext context = application().run(args);
+        try {
+            new LoadHarness(settings).run(context);
+        } finally {
+            context.close();
+        }
+    }
+    
+    // The "local" profile logs every statement and bind parameter at DEBUG/TRACE; those loggers are turned down
+    // here so the measured calls do not pay for log output. Shared by the probes in this package.
+    static SpringApplicationBuilder application(String... properties) {
+        List<String> all = new ArrayList<>(List.of("server.port=0", "spring.jpa.show-sql=false",
+                "logging.level.root=WARN",
+                "logging.level.com.ecommerce=WARN",
+                "logging.level.org.springframework.security=WARN",
+                "logging.level.org.hibernate.SQL=WARN",
+                "logging.level.org.hibernate.type.descriptor.sql.BasicBinder=WARN",
+                "logging.level.org.hibernate.orm.jdbc.bind=WARN"));
+        all.addAll(List.of(properties));
+        return new SpringApplicationBuilder(EcommerceApplication.class)
+                .profiles("local")
+                .properties(all.toArray(new String[0]));
+    }
+    
+    public void run(ConfigurableApplicationContext context) throws Exception {
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        
+        seed(context.getBean(CatalogService.class));
+        System.out.println("Seeded " + productIds.size() + " products and " + skuIds.size() + " SKUs");
+        
+        ExecutorService workers = Executors.newFixedThreadPool(settings.getConcurrency());
+        for (int i = 0; i < settings.getConcurrency(); i++) {
+            int workerIndex = i;
+            workers.submit(() -> drive(workerIndex));
+        }
+        
+        TimeUnit.SECONDS.sleep(settings.getWarmupSeconds());
+        stats.values().forEach(EndpointStats::reset);
+        long measurementStart = System.nanoTime();
+        
+        TimeUnit.SECONDS.sleep(settings.getDurationSeconds());
+        running = false;
+        double elapsedSeconds = (System.nanoTime() - measurementStart) / 1_000_000_000.0;
+        Map<String, Histogram> histograms = new LinkedHashMap<>();
+        stats.forEach((endpoint, endpointStats) -> histograms.put(endpoint, endpointStats.recorder.getIntervalHistogram()));
+        
+        workers.shutdown();
+        workers.awaitTermination(30, TimeUnit.SECONDS);
+        
+        report(histograms, elapsedSeconds);
+    }
+    
+    private void seed(CatalogService catalogService) {
+        List<EntityId> categoryIds = new ArrayList<>();
+        for (int i = 0; i < settings.getCategories(); i++) {
+            Category category = catalogService.createRootCategory("Load category " + i, "Seeded by the load harness");
+            categoryIds.add(category.getCategoryId());
+        }
+        
+        productIds = new ArrayList<>();
+        skuIds = new ArrayList<>();
+        for (int p = 0; p < settings.getProducts(); p++) {
+            Money basePrice = Money.of(BigDecimal.valueOf(500 + (p % 200) * 100L, 2));
+            Product product = catalogService.createProduct("Load product " + p, "Seeded by the load harness",
+                    categoryIds.get(p % categoryIds.size()), basePrice);
+            productIds.add(product.getProductId().getValue());
+            
+            for (int s = 0; s < settings.getSkusPerProduct(); s++) {
+                Sku sku = catalogService.createSku("LOAD-" + p + "-" + s, "Variant " + s, "Seeded by the load harness",
+                        product.getProductId(), basePrice);
+                catalogService.updateStock(sku.getSkuId(), settings.getStockPerSku());
+                skuIds.add(sku.getSkuId().getValue());
+            }
+        }
+    }
+    
+    private void drive(int workerIndex) {
+        // Customers are partitioned across workers so one cart is not mutated by two workers at once
+        List<CustomerState> customers = new ArrayList<>();
+        for (int c = workerIndex; c < settings.getCustomers(); c += settings.getConcurrency()) {
+            customers.add(new CustomerState("load-customer-" + c));
+        }
+        if (customers.isEmpty()) {
+            customers.add(new CustomerState("load-customer-" + (workerIndex % settings.getCustomers())));
+        }
+        
+        int totalWeight = settings.getBrowseWeight() + settings.getAddWeight()
+                + settings.getUpdateWeight() + settings.getCheckoutWeight();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        
+        while (running) {
+            CustomerState customer = customers.get(random.nextInt(customers.size()));
+            int roll = random.nextInt(totalWeight);
+            try {
+                if ((roll -= settings.getBrowseWeight()) < 0) {
+                    browse(random);
+                } else if ((roll -= settings.getAddWeight()) < 0 || customer.cartSkuIds.isEmpty()) {
+                    addToCart(customer, random);
+                } else if (roll - settings.getUpdateWeight() < 0) {
+                    updateCartItem(customer, random);
+                } else {
+                    checkout(customer);
+                }
+            } catch (IOException e) {
+                // Counted as an error on the endpoint; keep driving
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+    
+    private void browse(ThreadLocalRandom random) throws IOException, InterruptedException {
+        int pick = random.nextInt(10);
+        if (pick < 5) {
+            int pages = Math.max(1, settings.getProducts() / 20);
+            send(BROWSE_PRODUCTS, get("/catalog/products?page=" + random.nextInt(pages) + "&size=20"));
+        } else if (pick < 9) {
+            send(PRODUCT_DETAIL, get("/catalog/products/" + productIds.get(random.nextInt(productIds.size()))));
+        } else {
+            send(BROWSE_CATEGORIES, get("/catalog/categories"));
+        }
+    }
+    
+    private void addToCart(CustomerState customer, ThreadLocalRandom random) throws IOException, InterruptedException {
+        String skuId = random.nextDouble() < settings.getHotSkuRatio()
+                ? skuIds.get(0)
+                : skuIds.get(random.nextInt(skuIds.size()));
+        int quantity = 1 + random.nextInt(3);
+        String body = "{\"skuId\":\"" + skuId + "\",\"quantity\":" + quantity + "}";
+        if (send(ADD_TO_CART, post("/cart/" + customer.customerId + "/items", body))) {
+            customer.cartSkuIds.put(skuId, customer.cartSkuIds.getOrDefault(skuId, 0) + quantity);
+        }
+    }
+    
+    private void updateCartItem(CustomerState customer, ThreadLocalRandom random) throws IOException, InterruptedException {
+        List<String> inCart = new ArrayList<>(customer.cartSkuIds.keySet());
+        String skuId = inCart.get(random.nextInt(inCart.size()));
+        int quantity = 1 + random.nextInt(5);
+        String body = "{\"skuId\":\"" + skuId + "\",\"quantity\":" + quantity + "}";
+        HttpRequest request = json("/cart/" + customer.customerId + "/items")
+                .PUT(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        if (send(UPDATE_CART_ITEM, request)) {
+            customer.cartSkuIds.put(skuId, quantity);
+        }
+    }
+    
+    private void checkout(CustomerState customer) throws IOException, InterruptedException {
+        String body = "{\"shippingAddress\":\"1 Load Test Way\",\"billingAddress\":\"1 Load Test Way\"}";
+        // The cart is deactivated on checkout whether or not the caller sees the response in time
+        customer.cartSkuIds.clear();
+        send(CHECKOUT, post("/orders/customer/" + customer.customerId, body));
+    }
+    
+    private boolean send(String endpoint, HttpRequest request) throws IOException, InterruptedException {
+        EndpointStats endpointStats = stats.get(endpoint);
+        long start = System.nanoTime();
+        try {
+            HttpResponse<Void> response = httpClient.send(request, HttpResponse.BodyHandlers.discarding());
+            long micros = Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start), HIGHEST_TRACKABLE_MICROS);
+            if (response.statusCode() >= 200 && response.statusCode() < 300) {
+                endpointStats.recorder.recordValue(micros);
+                return true;
+            }
+            endpointStats.errors.incrementAndGet();
+            return false;
+        } catch (IOException e) {
+            endpointStats.errors.incrementAndGet();
+            throw e;
+        }
+    }
+    
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build();
+    }
+    
+    private HttpRequest post(String path, String body) {
+        return json(path).POST(HttpRequest.BodyPublishers.ofString(body)).build();
+    }
+    
+    private HttpRequest.Builder json(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .header("Content-Type", "application/json");
+    }
+    
+    private void report(Map<String, Histogram> histograms, double elapsedSeconds) throws IOException {
+        Path outputDirectory = Path.of(settings.getOutputDirectory());
+        Files.createDirectories(outputDirectory);
+        
+        System.out.printf("%n%-36s %10s %8s %10s %9s %9s %9s %9s%n",
+                "endpoint", "count", "errors", "req/s", "p50 ms", "p95 ms", "p99 ms", "max ms");
+        long totalCount = 0;
+        for (Map.Entry<String, Histogram> entry : histograms.entrySet()) {
+            Histogram histogram = entry.getValue();
+            long count = histogram.getTotalCount();
+            totalCount += count;
+            System.out.printf("%-36s %10d %8d %10.1f %9.2f %9.2f %9.2f %9.2f%n",
+                    entry.getKey(), count, stats.get(entry.getKey()).errors.get(), count / elapsedSeconds,
+                    millis(histogram.getValueAtPercentile(50)), millis(histogram.getValueAtPercentile(95)),
+                    millis(histogram.getValueAtPercentile(99)), millis(histogram.getMaxValue()));
+            
+            Path file = outputDirectory.resolve(fileName(entry.getKey()) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file))) {
+                histogram.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+        System.out.printf("%-36s %10d %8s %10.1f%n", "total", totalCount, "", totalCount / elapsedSeconds);
+        System.out.println("Percentile distributions (ms) written to " + outputDirectory.toAbsolutePath());
+    }
+    
+    private static double millis(long micros) {
+        return micros / 1000.0;
+    }
+    
+    private static String fileName(String endpoint) {
+        return endpoint.toLowerCase().replaceAll("[^a-z0-9]+", "-").replaceAll("(^-|-$)", "");
+    }
+    
+    private static class EndpointStats {
+        private final Recorder recorder = new Recorder(HIGHEST_TRACKABLE_MICROS, 3);
+        private final AtomicLong errors = new AtomicLong();
+        
+        private void reset() {
+            recorder.reset();
+            errors.set(0);
+        }
+    }
+    
+    private static class CustomerState {
+        private final String customerId;
+        private final Map<String, Integer> cartSkuIds = new HashMap<>();
+        
+        private CustomerState(String customerId) {
+            this.customerId = customerId;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package com.ecommerce.benchmarks.load;
+
+// Harness settings, read from system properties (-Dload.<name>=value)
+public class LoadSettings {
+    
+    private final int categories = intProperty("categories", 5);
+    private final int products = intProperty("products", 200);
+    private final int skusPerProduct = intProperty("skusPerProduct", 3);
+    private final int stockPerSku = intProperty("stockPerSku", 1_000_000);
+    private final int customers = intProperty("customers", 100);
+    private final int concurrency = intProperty("concurrency", 16);
+    private final int warmupSeconds = intProperty("warmupSeconds", 10);
+    private final int durationSeconds = intProperty("durationSeconds", 60);
+    // Share of cart additions that target the first SKU, to reproduce hot-SKU contention
+    private final double hotSkuRatio = doubleProperty("hotSkuRatio", 0.0);
+    // Relative weights of the request mix
+    private final int browseWeight = intProperty("browseWeight", 60);
+    private final int addWeight = intProperty("addWeight", 20);
+    private final int updateWeight = intProperty("updateWeight", 10);
+    private final int checkoutWeight = intProperty("checkoutWeight", 10);
+    private final String outputDirectory = System.getProperty("load.outputDirectory", "benchmarks/results/load");
+    
+    public LoadSettings() {
+        if (categories <= 0 || products <= 0 || skusPerProduct <= 0 || customers <= 0 || concurrency <= 0) {
+            throw new IllegalArgumentException("Seed sizes and concurrency must be positive");
+        }
+        if (hotSkuRatio < 0.0 || hotSkuRatio > 1.0) {
+            throw new IllegalArgumentException("hotSkuRatio must be between 0 and 1");
+        }
+        if (browseWeight + addWeight + updateWeight + checkoutWeight <= 0) {
+            throw new IllegalArgumentException("At least one request weight must be positive");
+        }
+    }
+    
+    private static int intProperty(String name, int defaultValue) {
+        return Integer.parseInt(System.getProperty("load." + name, String.valueOf(defaultValue)));
+    }
+    
+    private static double doubleProperty(String name, double defaultValue) {
+        return Double.parseDouble(System.getProperty("load." + name, String.valueOf(defaultValue)));
+    }
+    
+    public int getCategories() {
+        return categories;
+    }
+    
+    public int getProducts() {
+        return products;
+    }
+    
+    public int getSkusPerProduct() {
+        return skusPerProduct;
+    }
+    
+    public int getStockPerSku() {
+        return stockPerSku;
+    }
+    
+    public int getCustomers() {
+        return customers;
+    }
+    
+    public int getConcurrency() {
+        return concurrency;
+    }
+    
+    public int getWarmupSeconds() {
+        return warmupSeconds;
+    }
+    
+    public int getDurationSeconds() {
+        return durationSeconds;
+    }
+    
+    public double getHotSkuRatio() {
+        return hotSkuRatio;
+    }
+    
+    public int getBrowseWeight() {
+        return browseWeight;
+    }
+    
+    public int getAddWeight() {
+        return addWeight;
+    }
+    
+    public int getUpdateWeight() {
+        return updateWeight;
+    }
+    
+    public int getCheckoutWeight() {
+        return checkoutWeight;
+    }
+    
+    public String getOutputDirectory() {
+        return outputDirectory;
+    }
+    
+    @Override
+    public String toString() {
+        return "categories=" + categories + ", products=" + products + ", skusPerProduct=" + skusPerProduct +
+               ", customers=" + customers + ", concurrency=" + concurrency + ", warmup=" + warmupSeconds +
+               "s, duration=" + durationSeconds + "s, hotSkuRatio=" + hotSkuRatio +
+               ", mix(browse/add/update/checkout)=" + browseWeight + "/" + addWeight + "/" +
+               updateWeight + "/" + checkoutWeight;
+    }
+}
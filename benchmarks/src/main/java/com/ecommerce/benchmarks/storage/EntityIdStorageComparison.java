@@ -0,0 +1,125 @@
+package com.ecommerce.benchmarks.storage;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Compares insert throughput and index size of orders/order_items shaped tables on PostgreSQL for
+// random UUID strings (previous EntityId.generate), time-ordered UUID strings, and native uuid columns.
+// Usage: java -cp benchmarks/target/benchmarks.jar com.ecommerce.benchmarks.storage.EntityIdStorageComparison
+//        -Dstorage.url=jdbc:postgresql://localhost:5432/ecommerce -Dstorage.rows=200000
+public class EntityIdStorageComparison {
+    
+    private static final int BATCH_SIZE = 1_000;
+    private static final int ITEMS_PER_ORDER = 3;
+    
+    private enum Variant {
+        RANDOM_VARCHAR("VARCHAR(255)"),
+        TIME_ORDERED_VARCHAR("VARCHAR(255)"),
+        TIME_ORDERED_UUID("UUID");
+        
+        private final String columnType;
+        
+        Variant(String columnType) {
+            this.columnType = columnType;
+        }
+    }
+    
+    public static void main(String[] args) throws SQLException {
+        String url = System.getProperty("storage.url", "jdbc:postgresql://localhost:5432/ecommerce");
+        String username = System.getProperty("storage.username", "ecommerce");
+        String password = System.getProperty("storage.password", "password");
+        int rows = Integer.parseInt(System.getProperty("storage.rows", "200000"));
+        
+        try (Connection connection = DriverManager.getConnection(url, username, password)) {
+            System.out.printf("%-22s %12s %16s %16s %16s%n",
+                    "variant", "orders/s", "order_id index", "orders table", "order_items idx");
+            for (Variant variant : Variant.values()) {
+                run(connection, variant, rows);
+            }
+        }
+    }
+    
+    private static void run(Connection connection, Variant variant, int rows) throws SQLException {
+        String orders = "idbench_orders_" + variant.name().toLowerCase();
+        String items = "idbench_order_items_" + variant.name().toLowerCase();
+        
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("DROP TABLE IF EXISTS " + items);
+            statement.execute("DROP TABLE IF EXISTS " + orders);
+            statement.execute("CREATE TABLE " + orders + " (id BIGSERIAL PRIMARY KEY, order_id " + variant.columnType +
+                    " UNIQUE NOT NULL, customer_id VARCHAR(255) NOT NULL, created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP)");
+            statement.execute("CREATE TABLE " + items + " (id BIGSERIAL PRIMARY KEY, order_id BIGINT NOT NULL REFERENCES " +
+                    orders + "(id), sku_id VARCHAR(255) NOT NULL, quantity INTEGER NOT NULL)");
+            statement.execute("CREATE INDEX " + items + "_order_id ON " + items + "(order_id)");
+        }
+        
+        boolean autoCommit = connection.getAutoCommit();
+        connection.setAutoCommit(false);
+        long start = System.nanoTime();
+        try (PreparedStatement insertOrder = connection.prepareStatement(
+                     "INSERT INTO " + orders + " (order_id, customer_id) VALUES (?, ?)", Statement.RETURN_GENERATED_KEYS);
+             PreparedStatement insertItem = connection.prepareStatement(
+                     "INSERT INTO " + items + " (order_id, sku_id, quantity) VALUES (?, ?, ?)")) {
+            for (int i = 0; i < rows; i++) {
+                UUID id = variant == Variant.RANDOM_VARCHAR ? UUID.randomUUID() : timeOrderedUuid();
+                if (variant == Variant.TIME_ORDERED_UUID) {
+                    insertOrder.setObject(1, id);
+                } else {
+                    insertOrder.setString(1, id.toString());
+                }
+                insertOrder.setString(2, "customer-" + (i % 10_000));
+                insertOrder.executeUpdate();
+                
+                long orderPk;
+                try (ResultSet keys = insertOrder.getGeneratedKeys()) {
+                    keys.next();
+                    orderPk = keys.getLong(1);
+                }
+                for (int item = 0; item < ITEMS_PER_ORDER; item++) {
+                    insertItem.setLong(1, orderPk);
+                    insertItem.setString(2, "sku-" + ThreadLocalRandom.current().nextInt(1_000));
+                    insertItem.setInt(3, 1);
+                    insertItem.addBatch();
+                }
+                if ((i + 1) % BATCH_SIZE == 0) {
+                    insertItem.executeBatch();
+                    connection.commit();
+                }
+            }
+            insertItem.executeBatch();
+            connection.commit();
+        } finally {
+            connection.setAutoCommit(autoCommit);
+        }
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        
+        System.out.printf("%-22s %12.0f %16s %16s %16s%n", variant, rows / seconds,
+                relationSize(connection, orders + "_order_id_key"),
+                relationSize(connection, orders),
+                relationSize(connection, items + "_order_id"));
+    }
+    
+    private static String relationSize(Connection connection, String relation) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_size_pretty(pg_relation_size(?::regclass))")) {
+            statement.setString(1, relation);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                resultSet.next();
+                return resultSet.getString(1);
+            }
+        }
+    }
+    
+    // Same layout as EntityId.generate()
+    private static UUID timeOrderedUuid() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (System.currentTimeMillis() << 16) | 0x7000L | random.nextInt(1 << 12);
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
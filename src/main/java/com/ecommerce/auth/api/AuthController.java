@@ -2,6 +2,7 @@ package com.ecommerce.auth.api;
 
 import com.ecommerce.security.JwtTokenProvider;
 import com.ecommerce.shared.api.ApiResponse;
+import io.jsonwebtoken.Claims;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
@@ -14,6 +15,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
 
 @RestController
 @RequestMapping("/auth")
@@ -48,15 +50,11 @@ public class AuthController {
     @PostMapping("/token/validate")
     @Operation(summary = "토큰 검증", description = "JWT 토큰의 유효성을 검증합니다.")
     public ResponseEntity<ApiResponse<Map<String, Object>>> validateToken(@RequestBody TokenValidationRequest request) {
-        boolean isValid = tokenProvider.validateToken(request.getToken());
+        Optional<Claims> claims = tokenProvider.getVerifiedClaims(request.getToken());
         
         Map<String, Object> response = new HashMap<>();
-        response.put("valid", isValid);
-        
-        if (isValid) {
-            String username = tokenProvider.getUsernameFromToken(request.getToken());
-            response.put("username", username);
-        }
+        response.put("valid", claims.isPresent());
+        claims.ifPresent(verified -> response.put("username", verified.getSubject()));
         
         return ResponseEntity.ok(ApiResponse.success("토큰 검증 완료", response));
     }
@@ -27,8 +27,8 @@ public class CartController {
     public ResponseEntity<ApiResponse<CartDto>> getCart(
             @Parameter(description = "고객 ID") @PathVariable String customerId) {
         
-        return cartService.getCart(EntityId.of(customerId))
-                .map(cart -> ResponseEntity.ok(ApiResponse.success(CartDto.from(cart))))
+        return cartService.getCartSnapshot(EntityId.of(customerId))
+                .map(snapshot -> ResponseEntity.ok(ApiResponse.success(CartDto.from(snapshot))))
                 .orElse(ResponseEntity.ok(ApiResponse.success("장바구니가 비어있습니다.", null)));
     }
     
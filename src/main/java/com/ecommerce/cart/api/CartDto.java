@@ -1,5 +1,6 @@
 package com.ecommerce.cart.api;
 
+import com.ecommerce.cart.application.CartSnapshot;
 import com.ecommerce.cart.domain.Cart;
 import com.ecommerce.cart.domain.CartItem;
 import com.ecommerce.shared.domain.Money;
@@ -61,6 +62,26 @@ public class CartDto {
         );
     }
     
+    public static CartDto from(CartSnapshot snapshot) {
+        List<CartItemDto> itemDtos = snapshot.getLines().stream()
+                .map(CartItemDto::from)
+                .collect(Collectors.toList());
+        
+        Money total = snapshot.getTotal();
+        
+        return new CartDto(
+                snapshot.getCartId(),
+                snapshot.getCustomerId(),
+                itemDtos,
+                total.getAmount(),
+                total.getCurrency(),
+                snapshot.getTotalItemCount(),
+                true,
+                snapshot.getCreatedAt(),
+                snapshot.getUpdatedAt()
+        );
+    }
+    
     public String getCartId() {
         return cartId;
     }
@@ -1,5 +1,6 @@
 package com.ecommerce.cart.api;
 
+import com.ecommerce.cart.application.CartSnapshot;
 import com.ecommerce.cart.domain.CartItem;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
@@ -44,6 +45,19 @@ public class CartItemDto {
         );
     }
     
+    // Snapshots keep no per-line timestamps, so those fields are omitted from the JSON
+    public static CartItemDto from(CartSnapshot.Line line) {
+        return new CartItemDto(
+                line.getSkuId(),
+                line.getQuantity(),
+                line.getUnitPrice().getAmount(),
+                line.getUnitPrice().getCurrency(),
+                line.getSubtotal().getAmount(),
+                null,
+                null
+        );
+    }
+    
     public String getSkuId() {
         return skuId;
     }
@@ -0,0 +1,102 @@
+package com.ecommerce.cart.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+// Moves carts that were deactivated (checked out or abandoned) longer than the retention window ago into
+// carts_archive / cart_items_archive, one batch per transaction, so the carts table and its indexes only
+// hold carts that can still be read or changed.
+@Component
+public class CartArchiver {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CartArchiver.class);
+    
+    // SKIP LOCKED lets several instances archive side by side without waiting on each other's batches
+    private static final String SELECT_ARCHIVABLE_CARTS =
+            "SELECT id FROM carts WHERE active = false AND updated_at < ? " +
+            "ORDER BY updated_at LIMIT ? FOR UPDATE SKIP LOCKED";
+    
+    // Each statement re-checks active = false, so a cart is only ever moved while it is inactive
+    private static final String ARCHIVE_CARTS =
+            "INSERT INTO carts_archive (id, cart_id, customer_id, subtotal, currency, total_item_count, " +
+            "created_at, deactivated_at) " +
+            "SELECT id, cart_id, customer_id, subtotal, currency, total_item_count, created_at, updated_at " +
+            "FROM carts WHERE active = false AND id IN (%s)";
+    
+    private static final String ARCHIVE_CART_ITEMS =
+            "INSERT INTO cart_items_archive (id, cart_id, sku_id, quantity, unit_price, currency, created_at) " +
+            "SELECT ci.id, ci.cart_id, ci.sku_id, ci.quantity, ci.unit_price, ci.currency, ci.created_at " +
+            "FROM cart_items ci JOIN carts c ON c.id = ci.cart_id WHERE c.active = false AND ci.cart_id IN (%s)";
+    
+    private static final String DELETE_CART_ITEMS =
+            "DELETE FROM cart_items WHERE cart_id IN (SELECT id FROM carts WHERE active = false AND id IN (%s))";
+    
+    private static final String DELETE_CARTS =
+            "DELETE FROM carts WHERE active = false AND id IN (%s)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int retentionDays;
+    private final int batchSize;
+    
+    public CartArchiver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                        @Value("${app.cart.archive.enabled:true}") boolean enabled,
+                        @Value("${app.cart.archive.retention-days:30}") int retentionDays,
+                        @Value("${app.cart.archive.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.retentionDays = retentionDays;
+        this.batchSize = batchSize;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.cart.archive.interval-ms:3600000}")
+    public void archiveDeactivatedCarts() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            long start = System.currentTimeMillis();
+            Timestamp cutoff = Timestamp.valueOf(LocalDateTime.now().minusDays(retentionDays));
+            int archived = 0;
+            int moved;
+            do {
+                Integer batch = transactionTemplate.execute(status -> archiveBatch(cutoff));
+                moved = batch != null ? batch : 0;
+                archived += moved;
+            } while (moved == batchSize);
+            if (archived > 0) {
+                logger.info("Archived {} deactivated carts in {} ms", archived, System.currentTimeMillis() - start);
+            }
+        } catch (RuntimeException e) {
+            logger.error("Failed to archive deactivated carts", e);
+        }
+    }
+    
+    private int archiveBatch(Timestamp cutoff) {
+        List<Long> cartIds = jdbcTemplate.queryForList(SELECT_ARCHIVABLE_CARTS, Long.class, cutoff, batchSize);
+        if (cartIds.isEmpty()) {
+            return 0;
+        }
+        Object[] args = cartIds.toArray();
+        String placeholders = String.join(", ", Collections.nCopies(cartIds.size(), "?"));
+        
+        // Parents are archived before their items and deleted after them; both table pairs have foreign keys
+        jdbcTemplate.update(String.format(ARCHIVE_CARTS, placeholders), args);
+        jdbcTemplate.update(String.format(ARCHIVE_CART_ITEMS, placeholders), args);
+        jdbcTemplate.update(String.format(DELETE_CART_ITEMS, placeholders), args);
+        return jdbcTemplate.update(String.format(DELETE_CARTS, placeholders), args);
+    }
+}
@@ -0,0 +1,75 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+// Field layout of a cart kept as a flat hash (Redis, or the in-memory stand-in): the cart id, a stale flag, a
+// revision counter raised by every change and two fields per line, "q:<skuId>" holding the quantity and
+// "p:<skuId>" holding "<currency>:<minor units>"
+final class CartHash {
+    
+    static final String CART_ID = "cartId";
+    static final String PRICES_STALE = "stale";
+    static final String REVISION = "rev";
+    
+    static final String QUANTITY_PREFIX = "q:";
+    private static final String PRICE_PREFIX = "p:";
+    
+    private CartHash() {
+    }
+    
+    static String quantityField(EntityId skuId) {
+        return QUANTITY_PREFIX + skuId.getValue();
+    }
+    
+    static String priceField(EntityId skuId) {
+        return PRICE_PREFIX + skuId.getValue();
+    }
+    
+    static String encodePrice(Money unitPrice) {
+        return unitPrice.getCurrency() + ":" + unitPrice.toMinorUnits();
+    }
+    
+    // HGETALL replies come back as alternating field/value entries
+    static Map<String, String> fromReply(List<?> reply) {
+        Map<String, String> fields = new HashMap<>();
+        for (int i = 0; i + 1 < reply.size(); i += 2) {
+            fields.put(String.valueOf(reply.get(i)), String.valueOf(reply.get(i + 1)));
+        }
+        return fields;
+    }
+    
+    // Lines are rebuilt in SKU id order; null when the hash holds no cart
+    static Cart toCart(EntityId customerId, Map<String, String> fields) {
+        String cartId = fields.get(CART_ID);
+        if (cartId == null) {
+            return null;
+        }
+        String revision = fields.get(REVISION);
+        Cart cart = Cart.restore(EntityId.of(cartId), customerId, revision != null ? Long.parseLong(revision) : 0L);
+        for (Map.Entry<String, String> field : new TreeMap<>(fields).entrySet()) {
+            if (!field.getKey().startsWith(QUANTITY_PREFIX)) {
+                continue;
+            }
+            String skuId = field.getKey().substring(QUANTITY_PREFIX.length());
+            String price = fields.get(PRICE_PREFIX + skuId);
+            int quantity = Integer.parseInt(field.getValue());
+            if (price == null || quantity <= 0) {
+                continue;
+            }
+            int separator = price.indexOf(':');
+            cart.addItem(EntityId.of(skuId), quantity,
+                    Money.ofMinor(Long.parseLong(price.substring(separator + 1)), price.substring(0, separator)));
+        }
+        if (fields.containsKey(PRICES_STALE)) {
+            cart.markPricesStale();
+        }
+        return cart;
+    }
+}
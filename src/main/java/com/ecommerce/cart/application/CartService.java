@@ -3,73 +3,97 @@ package com.ecommerce.cart.application;
 import com.ecommerce.cart.domain.Cart;
 import com.ecommerce.cart.domain.CartItem;
 import com.ecommerce.cart.domain.CartRepository;
+import com.ecommerce.cart.domain.CartStore;
 import com.ecommerce.catalog.application.CatalogService;
-import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.catalog.application.SkuSnapshot;
+import com.ecommerce.catalog.domain.SkuPriceChangedEvent;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
-import org.springframework.cache.annotation.CacheEvict;
-import org.springframework.cache.annotation.Cacheable;
+import com.ecommerce.shared.domain.UuidStringConverter;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class CartService {
     
+    private final CartStore cartStore;
     private final CartRepository cartRepository;
     private final CatalogService catalogService;
+    private final CartSnapshotCache cartSnapshotCache;
+    private final TransactionTemplate readOnlyTransaction;
     
-    public CartService(CartRepository cartRepository, CatalogService catalogService) {
+    public CartService(CartStore cartStore, CartRepository cartRepository, CatalogService catalogService,
+                       CartSnapshotCache cartSnapshotCache, PlatformTransactionManager transactionManager) {
+        this.cartStore = cartStore;
         this.cartRepository = cartRepository;
         this.catalogService = catalogService;
+        this.cartSnapshotCache = cartSnapshotCache;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
+    // Always read from the cart store; checkout must not act on a cached copy. On its own this is a read-only
+    // transaction: a stale cart is re-priced for the caller, and the JPA store writes the new prices with the
+    // next mutation or with the checkout transaction this joins.
     @Transactional(readOnly = true)
-    @Cacheable(value = "carts", key = "#customerId.value")
     public Optional<Cart> getCart(EntityId customerId) {
-        return cartRepository.findByCustomerIdWithItems(customerId);
+        return cartStore.findActiveCart(customerId)
+                .map(this::reconcilePrices);
     }
     
+    // A hit takes no transaction and no connection; only a miss loads (and possibly re-prices) the cart
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<CartSnapshot> getCartSnapshot(EntityId customerId) {
+        Optional<CartSnapshot> cached = cartSnapshotCache.get(customerId);
+        if (cached.isPresent()) {
+            return cached;
+        }
+        return readOnlyTransaction.execute(status -> getCart(customerId).map(cart -> {
+            CartSnapshot snapshot = CartSnapshot.from(cart);
+            cartSnapshotCache.fillAfterCommit(snapshot, cart.getRevision());
+            return snapshot;
+        }));
+    }
+    
+    // Checked-out carts only; active carts may not be in the carts table depending on the cart store
     @Transactional(readOnly = true)
     public Optional<Cart> getCartByCartId(EntityId cartId) {
+        if (!UuidStringConverter.isUuid(cartId.getValue())) {
+            return Optional.empty();
+        }
         return cartRepository.findByCartId(cartId);
     }
     
-    @CacheEvict(value = "carts", key = "#customerId.value")
     public Cart addItemToCart(EntityId customerId, EntityId skuId, int quantity) {
         // Validate SKU exists and is available
-        Sku sku = catalogService.getSku(skuId)
+        SkuSnapshot sku = catalogService.getSku(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
         if (!sku.isActive()) {
             throw new IllegalArgumentException("SKU is not active");
         }
         
-        if (!sku.canFulfillQuantity(quantity)) {
+        if (!catalogService.canFulfillQuantity(sku, quantity)) {
             throw new IllegalArgumentException("Insufficient stock available");
         }
         
-        // Get or create cart
-        Cart cart = cartRepository.findByCustomerIdAndActiveTrue(customerId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart(customerId);
-                    return cartRepository.save(newCart);
-                });
-        
-        // Add item to cart
-        cart.addItem(skuId, quantity);
-        
-        // Update cart item prices
-        updateCartItemPrices(cart);
-        
-        return cartRepository.save(cart);
+        // Add item to cart, pricing only the touched line
+        Cart cart = cartStore.addItem(customerId, skuId, quantity, sku.getPrice());
+        return writeThrough(reconcilePrices(cart));
     }
     
-    @CacheEvict(value = "carts", key = "#customerId.value")
     public Cart updateCartItemQuantity(EntityId customerId, EntityId skuId, int quantity) {
-        Cart cart = cartRepository.findByCustomerIdWithItems(customerId)
+        Cart cart = cartStore.findActiveCart(customerId)
                 .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
         
         // Validate SKU availability if increasing quantity
@@ -78,60 +102,60 @@ public class CartService {
                 .findFirst()
                 .orElseThrow(() -> new IllegalArgumentException("Item not found in cart"));
         
+        SkuSnapshot sku = catalogService.getSku(skuId)
+                .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
+        
         if (quantity > existingItem.getQuantity()) {
-            Sku sku = catalogService.getSku(skuId)
-                    .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
-            
             int additionalQuantity = quantity - existingItem.getQuantity();
-            if (!sku.canFulfillQuantity(additionalQuantity)) {
+            if (!catalogService.canFulfillQuantity(sku, additionalQuantity)) {
                 throw new IllegalArgumentException("Insufficient stock available");
             }
         }
         
-        cart.updateItemQuantity(skuId, quantity);
-        updateCartItemPrices(cart);
-        
-        return cartRepository.save(cart);
+        return writeThrough(reconcilePrices(cartStore.updateItemQuantity(customerId, skuId, quantity, sku.getPrice())));
     }
     
-    @CacheEvict(value = "carts", key = "#customerId.value")
     public Cart removeItemFromCart(EntityId customerId, EntityId skuId) {
-        Cart cart = cartRepository.findByCustomerIdWithItems(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
-        
-        cart.removeItem(skuId);
-        
-        return cartRepository.save(cart);
+        return writeThrough(reconcilePrices(cartStore.removeItem(customerId, skuId)));
     }
     
-    @CacheEvict(value = "carts", key = "#customerId.value")
     public Cart clearCart(EntityId customerId) {
-        Cart cart = cartRepository.findByCustomerIdWithItems(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
-        
-        cart.clear();
-        
-        return cartRepository.save(cart);
+        return writeThrough(cartStore.clear(customerId));
     }
     
-    @CacheEvict(value = "carts", key = "#customerId.value")
-    public void deactivateCart(EntityId customerId) {
-        Cart cart = cartRepository.findByCustomerIdAndActiveTrue(customerId)
-                .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
-        
-        cart.deactivate();
-        cartRepository.save(cart);
+    public void deactivateCart(Cart cart) {
+        cartStore.checkout(cart);
+        cartSnapshotCache.checkedOutAfterCommit(cart);
     }
     
-    private void updateCartItemPrices(Cart cart) {
-        for (CartItem item : cart.getItems()) {
-            Sku sku = catalogService.getSku(item.getSkuId())
-                    .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
-            
-            item.updateUnitPrice(sku.getPrice());
+    @EventListener
+    public void onSkuPriceChanged(SkuPriceChangedEvent event) {
+        // Only flag the affected carts here; each one is re-priced the next time it is read or changed
+        cartStore.markPricesStale(event.getSkuId()).forEach(cartSnapshotCache::markStaleAfterCommit);
+    }
+    
+    private Cart writeThrough(Cart cart) {
+        cartSnapshotCache.putAfterCommit(cart);
+        return cart;
+    }
+    
+    private Cart reconcilePrices(Cart cart) {
+        if (cart.isPricesStale()) {
+            updateCartItemPrices(cart);
+            cartStore.saveRepricedCart(cart);
         }
+        return cart;
+    }
+    
+    private void updateCartItemPrices(Cart cart) {
+        List<EntityId> skuIds = cart.getItems().stream()
+                .map(CartItem::getSkuId)
+                .toList();
+        Map<EntityId, SkuSnapshot> skus = catalogService.getSkus(skuIds);
+        
+        Map<EntityId, Money> unitPrices = new HashMap<>();
+        skus.forEach((skuId, sku) -> unitPrices.put(skuId, sku.getPrice()));
+        
+        cart.reprice(unitPrices);
     }
 }
-
-
-
@@ -0,0 +1,119 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.cart.domain.CartItem;
+import com.ecommerce.shared.domain.Money;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+// Immutable, entity-free copy of a priced cart as cached for reads: ids as strings and amounts in minor units,
+// so it serializes small and never drags a persistence context or lazy collection into the cache
+public final class CartSnapshot {
+    
+    private final String cartId;
+    private final String customerId;
+    private final List<Line> lines;
+    private final long subtotalMinor;
+    private final String currency;
+    private final int totalItemCount;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    
+    @JsonCreator
+    private CartSnapshot(@JsonProperty("cartId") String cartId,
+                         @JsonProperty("customerId") String customerId,
+                         @JsonProperty("lines") List<Line> lines,
+                         @JsonProperty("subtotalMinor") long subtotalMinor,
+                         @JsonProperty("currency") String currency,
+                         @JsonProperty("totalItemCount") int totalItemCount,
+                         @JsonProperty("createdAt") LocalDateTime createdAt,
+                         @JsonProperty("updatedAt") LocalDateTime updatedAt) {
+        this.cartId = cartId;
+        this.customerId = customerId;
+        this.lines = List.copyOf(lines);
+        this.subtotalMinor = subtotalMinor;
+        this.currency = currency;
+        this.totalItemCount = totalItemCount;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+    
+    public static CartSnapshot from(Cart cart) {
+        List<Line> lines = new ArrayList<>(cart.getItems().size());
+        for (CartItem item : cart.getItems()) {
+            lines.add(new Line(item.getSkuId().getValue(), item.getQuantity(),
+                    item.getUnitPrice().toMinorUnits(), item.getUnitPrice().getCurrency()));
+        }
+        Money total = cart.calculateTotal();
+        return new CartSnapshot(cart.getCartId().getValue(), cart.getCustomerId().getValue(),
+                lines, total.toMinorUnits(), total.getCurrency(),
+                cart.getTotalItemCount(), cart.getCreatedAt(), cart.getUpdatedAt());
+    }
+    
+    public String getCartId() {
+        return cartId;
+    }
+    
+    public String getCustomerId() {
+        return customerId;
+    }
+    
+    public List<Line> getLines() {
+        return lines;
+    }
+    
+    public Money getTotal() {
+        return Money.ofMinor(subtotalMinor, currency);
+    }
+    
+    public int getTotalItemCount() {
+        return totalItemCount;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public static final class Line {
+        
+        private final String skuId;
+        private final int quantity;
+        private final long unitPriceMinor;
+        private final String currency;
+        
+        @JsonCreator
+        private Line(@JsonProperty("skuId") String skuId,
+                     @JsonProperty("quantity") int quantity,
+                     @JsonProperty("unitPriceMinor") long unitPriceMinor,
+                     @JsonProperty("currency") String currency) {
+            this.skuId = skuId;
+            this.quantity = quantity;
+            this.unitPriceMinor = unitPriceMinor;
+            this.currency = currency;
+        }
+        
+        public String getSkuId() {
+            return skuId;
+        }
+        
+        public int getQuantity() {
+            return quantity;
+        }
+        
+        public Money getUnitPrice() {
+            return Money.ofMinor(unitPriceMinor, currency);
+        }
+        
+        public Money getSubtotal() {
+            return Money.ofMinor(unitPriceMinor * quantity, currency);
+        }
+    }
+}
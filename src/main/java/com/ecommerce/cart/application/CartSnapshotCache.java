@@ -0,0 +1,219 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.cart.domain.CartRevision;
+import com.ecommerce.config.SnapshotCodec;
+import com.ecommerce.shared.domain.EntityId;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+// Cart snapshots served to reads, one entry per customer holding the cart id, the cart's revision and the
+// snapshot. Every write is a compare-and-set on the revision, made after commit so a rolled-back change never
+// becomes visible:
+// - a mutation writes its cart through, replacing an older revision of the same cart or a checked-out cart
+// - a read fills only an empty entry or an older revision of the same cart, so a cart loaded before a mutation
+//   never replaces what the mutation wrote
+// - a price change and checkout leave a marker without a snapshot: reads miss, and a fill of an older revision
+//   is refused
+// With the redis cache type an entry is a Redis hash changed by one script; otherwise a bounded local map.
+// Hits and misses are counted as cart.cache.gets.
+@Component
+public class CartSnapshotCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CartSnapshotCache.class);
+    
+    private static final String KEY_PREFIX = "cart-snapshot:";
+    
+    // KEYS: entry; ARGV: write, cart id, revision, snapshot ('' for a marker), time to live. Same rules as
+    // Entry.replaces
+    private static final RedisScript<Long> WRITE = new DefaultRedisScript<>(
+            "local cartId = redis.call('HGET', KEYS[1], 'cartId') " +
+            "if cartId then " +
+            "  local revision = tonumber(redis.call('HGET', KEYS[1], 'rev')) " +
+            "  local incoming = tonumber(ARGV[3]) " +
+            "  local checkedOut = redis.call('HEXISTS', KEYS[1], 'checkedOut') == 1 " +
+            "  local replace " +
+            "  if cartId ~= ARGV[2] then replace = ARGV[1] == 'put' and checkedOut " +
+            "  elseif checkedOut then replace = false " +
+            "  elseif ARGV[1] == 'checkout' then replace = true " +
+            "  elseif ARGV[1] == 'fill' then " +
+            "    replace = incoming > revision or " +
+            "        (incoming == revision and redis.call('HEXISTS', KEYS[1], 'snapshot') == 0) " +
+            "  else replace = incoming > revision end " +
+            "  if not replace then return 0 end " +
+            "end " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'cartId', ARGV[2], 'rev', ARGV[3]) " +
+            "if ARGV[1] == 'checkout' then redis.call('HSET', KEYS[1], 'checkedOut', '1') " +
+            "elseif ARGV[4] ~= '' then redis.call('HSET', KEYS[1], 'snapshot', ARGV[4]) end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[5]) " +
+            "return 1", Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final Cache<String, Entry> localEntries;
+    private final ObjectMapper snapshotMapper = SnapshotCodec.newObjectMapper(new JsonFactory());
+    private final long timeToLiveMs;
+    private final Counter hits;
+    private final Counter misses;
+    
+    public CartSnapshotCache(ObjectProvider<StringRedisTemplate> redisTemplate,
+                             @Value("${spring.cache.type:simple}") String cacheType,
+                             @Value("${app.cart.snapshot-cache.time-to-live-ms:21600000}") long timeToLiveMs,
+                             @Value("${app.cart.snapshot-cache.maximum-size:100000}") long maximumSize,
+                             MeterRegistry meterRegistry) {
+        this.redisTemplate = "redis".equalsIgnoreCase(cacheType) ? redisTemplate.getIfAvailable() : null;
+        this.timeToLiveMs = timeToLiveMs;
+        this.localEntries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(timeToLiveMs))
+                .build();
+        this.hits = Counter.builder("cart.cache.gets").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("cart.cache.gets").tag("result", "miss").register(meterRegistry);
+    }
+    
+    public Optional<CartSnapshot> get(EntityId customerId) {
+        CartSnapshot snapshot = null;
+        try {
+            snapshot = read(customerId.getValue());
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to read the cart snapshot of {}", customerId.getValue(), ex);
+        }
+        (snapshot != null ? hits : misses).increment();
+        return Optional.ofNullable(snapshot);
+    }
+    
+    // Read side: the snapshot of a cart loaded at the given revision
+    public void fillAfterCommit(CartSnapshot snapshot, long revision) {
+        afterCommit(() -> write(Write.FILL, snapshot.getCustomerId(), snapshot.getCartId(), revision, snapshot));
+    }
+    
+    // Write side: the snapshot is taken once the change has committed, when a carts row carries its new version
+    public void putAfterCommit(Cart cart) {
+        afterCommit(() -> write(Write.PUT, cart.getCustomerId().getValue(), cart.getCartId().getValue(),
+                cart.getRevision(), CartSnapshot.from(cart)));
+    }
+    
+    public void markStaleAfterCommit(CartRevision cart) {
+        afterCommit(() -> write(Write.MARK, cart.getCustomerId().getValue(), cart.getCartId().getValue(),
+                cart.getRevision(), null));
+    }
+    
+    public void checkedOutAfterCommit(Cart cart) {
+        afterCommit(() -> write(Write.CHECKOUT, cart.getCustomerId().getValue(), cart.getCartId().getValue(),
+                cart.getRevision(), null));
+    }
+    
+    private CartSnapshot read(String customerId) {
+        if (redisTemplate == null) {
+            Entry entry = localEntries.getIfPresent(customerId);
+            return entry != null ? entry.snapshot : null;
+        }
+        Object encoded = redisTemplate.opsForHash().get(KEY_PREFIX + customerId, "snapshot");
+        if (encoded == null) {
+            return null;
+        }
+        try {
+            return snapshotMapper.readValue(encoded.toString(), CartSnapshot.class);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Unreadable cart snapshot of " + customerId, ex);
+        }
+    }
+    
+    private void write(Write write, String customerId, String cartId, long revision, CartSnapshot snapshot) {
+        try {
+            if (redisTemplate == null) {
+                Entry incoming = new Entry(cartId, revision, snapshot, write == Write.CHECKOUT);
+                localEntries.asMap().compute(customerId,
+                        (key, existing) -> incoming.replaces(existing, write) ? incoming : existing);
+                return;
+            }
+            redisTemplate.execute(WRITE, List.of(KEY_PREFIX + customerId), write.name().toLowerCase(Locale.ROOT),
+                    cartId, String.valueOf(revision), snapshot != null ? encode(snapshot) : "",
+                    String.valueOf(timeToLiveMs));
+        } catch (RuntimeException ex) {
+            // The entry is left as it was: at worst the next reads miss or wait for the next change to the cart
+            logger.warn("Failed to update the cart snapshot of {}", customerId, ex);
+        }
+    }
+    
+    private String encode(CartSnapshot snapshot) {
+        try {
+            return snapshotMapper.writeValueAsString(snapshot);
+        } catch (JsonProcessingException ex) {
+            throw new IllegalStateException("Failed to encode the cart snapshot of " + snapshot.getCustomerId(), ex);
+        }
+    }
+    
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+    
+    private enum Write {
+        PUT, FILL, MARK, CHECKOUT
+    }
+    
+    private static final class Entry {
+        
+        private final String cartId;
+        private final long revision;
+        private final CartSnapshot snapshot;
+        private final boolean checkedOut;
+        
+        private Entry(String cartId, long revision, CartSnapshot snapshot, boolean checkedOut) {
+            this.cartId = cartId;
+            this.revision = revision;
+            this.snapshot = snapshot;
+            this.checkedOut = checkedOut;
+        }
+        
+        // A customer has one active cart at a time, so another cart's entry gives way only to a mutation of the
+        // cart that followed its checkout; a checked-out cart's entry is final
+        private boolean replaces(Entry existing, Write write) {
+            if (existing == null) {
+                return true;
+            }
+            if (!existing.cartId.equals(cartId)) {
+                return write == Write.PUT && existing.checkedOut;
+            }
+            if (existing.checkedOut) {
+                return false;
+            }
+            if (write == Write.CHECKOUT) {
+                return true;
+            }
+            if (write == Write.FILL) {
+                return revision > existing.revision || (revision == existing.revision && existing.snapshot == null);
+            }
+            return revision > existing.revision;
+        }
+    }
+}
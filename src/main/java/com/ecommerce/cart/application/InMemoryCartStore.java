@@ -0,0 +1,275 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.cart.domain.CartItem;
+import com.ecommerce.cart.domain.CartRepository;
+import com.ecommerce.cart.domain.CartRevision;
+import com.ecommerce.cart.domain.CartStore;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Single-process stand-in for RedisCartStore with the same hash layout and semantics (summed quantities,
+// sliding expiry, write to the carts tables only at checkout), for local runs and tests without a Redis server.
+// Each operation runs atomically per customer inside ConcurrentHashMap.compute, as the scripts do in Redis.
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+    
+    private final CartRepository cartRepository;
+    private final long timeToLiveMs;
+    private final ConcurrentHashMap<String, StoredCart> carts = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> customerIdsBySku = new ConcurrentHashMap<>();
+    
+    public InMemoryCartStore(CartRepository cartRepository,
+                             @Value("${app.cart.redis.time-to-live-ms:604800000}") long timeToLiveMs) {
+        this.cartRepository = cartRepository;
+        this.timeToLiveMs = timeToLiveMs;
+    }
+    
+    @Override
+    public Optional<Cart> findActiveCart(EntityId customerId) {
+        Map<String, String> fields = new HashMap<>();
+        carts.computeIfPresent(customerId.getValue(), (key, stored) -> {
+            if (stored.isExpired()) {
+                return null;
+            }
+            fields.putAll(stored.fields);
+            return stored;
+        });
+        return Optional.ofNullable(CartHash.toCart(customerId, fields));
+    }
+    
+    @Override
+    public Cart addItem(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        Map<String, String> fields = new HashMap<>();
+        carts.compute(customerId.getValue(), (key, stored) -> {
+            StoredCart cart = stored == null || stored.isExpired() ? new StoredCart() : stored;
+            cart.fields.putIfAbsent(CartHash.CART_ID, EntityId.generate().getValue());
+            cart.fields.merge(CartHash.quantityField(skuId), String.valueOf(quantity),
+                    (current, added) -> String.valueOf(Integer.parseInt(current) + Integer.parseInt(added)));
+            cart.fields.put(CartHash.priceField(skuId), CartHash.encodePrice(unitPrice));
+            bumpRevision(cart.fields);
+            cart.touch(timeToLiveMs);
+            fields.putAll(cart.fields);
+            return cart;
+        });
+        customerIdsBySku.computeIfAbsent(skuId.getValue(), key -> ConcurrentHashMap.newKeySet())
+                .add(customerId.getValue());
+        return CartHash.toCart(customerId, fields);
+    }
+    
+    @Override
+    public Cart updateItemQuantity(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        return mutate(customerId, "Item not found in cart", fields -> {
+            if (!fields.containsKey(CartHash.quantityField(skuId))) {
+                return false;
+            }
+            fields.put(CartHash.quantityField(skuId), String.valueOf(quantity));
+            fields.put(CartHash.priceField(skuId), CartHash.encodePrice(unitPrice));
+            return true;
+        });
+    }
+    
+    @Override
+    public Cart removeItem(EntityId customerId, EntityId skuId) {
+        return mutate(customerId, "Cart not found", fields -> {
+            fields.remove(CartHash.quantityField(skuId));
+            fields.remove(CartHash.priceField(skuId));
+            return true;
+        });
+    }
+    
+    @Override
+    public Cart clear(EntityId customerId) {
+        return mutate(customerId, "Cart not found", fields -> {
+            fields.keySet().removeIf(field -> !field.equals(CartHash.CART_ID) && !field.equals(CartHash.REVISION));
+            return true;
+        });
+    }
+    
+    @Override
+    public void saveRepricedCart(Cart cart) {
+        carts.computeIfPresent(cart.getCustomerId().getValue(), (key, stored) -> {
+            if (!cart.getCartId().getValue().equals(stored.fields.get(CartHash.CART_ID))) {
+                return stored;
+            }
+            for (CartItem item : cart.getItems()) {
+                if (stored.fields.containsKey(CartHash.quantityField(item.getSkuId()))) {
+                    stored.fields.put(CartHash.priceField(item.getSkuId()), CartHash.encodePrice(item.getUnitPrice()));
+                }
+            }
+            stored.fields.remove(CartHash.PRICES_STALE);
+            bumpRevision(stored.fields);
+            return stored;
+        });
+    }
+    
+    @Override
+    public List<CartRevision> markPricesStale(EntityId skuId) {
+        Set<String> customerIds = customerIdsBySku.get(skuId.getValue());
+        if (customerIds == null) {
+            return List.of();
+        }
+        List<CartRevision> affected = new ArrayList<>();
+        for (String customerId : customerIds) {
+            CartRevision[] marked = new CartRevision[1];
+            carts.computeIfPresent(customerId, (key, stored) -> {
+                if (stored.isExpired()) {
+                    return null;
+                }
+                if (stored.fields.containsKey(CartHash.quantityField(skuId))) {
+                    stored.fields.put(CartHash.PRICES_STALE, "1");
+                    bumpRevision(stored.fields);
+                    marked[0] = new CartRevision(EntityId.of(customerId),
+                            EntityId.of(stored.fields.get(CartHash.CART_ID)),
+                            Long.parseLong(stored.fields.get(CartHash.REVISION)));
+                }
+                return stored;
+            });
+            if (marked[0] != null) {
+                affected.add(marked[0]);
+            } else {
+                customerIds.remove(customerId);
+            }
+        }
+        return affected;
+    }
+    
+    // Same protocol as RedisCartStore: the cart is taken out only if its lines are unchanged, dropped once the
+    // checkout commits and put back (merged with a cart started meanwhile) if it rolls back
+    @Override
+    public void checkout(Cart cart) {
+        String customerId = cart.getCustomerId().getValue();
+        StoredCart[] taken = new StoredCart[1];
+        carts.computeIfPresent(customerId, (key, stored) -> {
+            if (stored.isExpired() || !holdsLines(stored, cart)) {
+                return stored;
+            }
+            taken[0] = stored;
+            return null;
+        });
+        if (taken[0] == null) {
+            throw new IllegalStateException("Cart changed during checkout");
+        }
+        
+        cart.deactivate();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                cartRepository.save(cart);
+            } catch (RuntimeException e) {
+                restore(customerId, taken[0]);
+                throw e;
+            }
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    restore(customerId, taken[0]);
+                }
+            }
+        });
+        cartRepository.save(cart);
+    }
+    
+    private static boolean holdsLines(StoredCart stored, Cart cart) {
+        if (!cart.getCartId().getValue().equals(stored.fields.get(CartHash.CART_ID))) {
+            return false;
+        }
+        long lines = stored.fields.keySet().stream()
+                .filter(field -> field.startsWith(CartHash.QUANTITY_PREFIX))
+                .count();
+        if (lines != cart.getItems().size()) {
+            return false;
+        }
+        for (CartItem item : cart.getItems()) {
+            if (!String.valueOf(item.getQuantity()).equals(stored.fields.get(CartHash.quantityField(item.getSkuId())))) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private void restore(String customerId, StoredCart taken) {
+        carts.compute(customerId, (key, stored) -> {
+            if (stored == null || stored.isExpired()) {
+                bumpRevision(taken.fields);
+                taken.touch(timeToLiveMs);
+                return taken;
+            }
+            taken.fields.forEach((field, value) -> {
+                if (field.startsWith(CartHash.QUANTITY_PREFIX)) {
+                    stored.fields.merge(field, value,
+                            (current, added) -> String.valueOf(Integer.parseInt(current) + Integer.parseInt(added)));
+                } else if (!field.equals(CartHash.CART_ID)) {
+                    stored.fields.putIfAbsent(field, value);
+                }
+            });
+            bumpRevision(stored.fields);
+            stored.touch(timeToLiveMs);
+            return stored;
+        });
+    }
+    
+    private Cart mutate(EntityId customerId, String missingMessage, FieldsMutation mutation) {
+        Map<String, String> fields = new HashMap<>();
+        carts.computeIfPresent(customerId.getValue(), (key, stored) -> {
+            if (stored.isExpired()) {
+                return null;
+            }
+            if (mutation.apply(stored.fields)) {
+                bumpRevision(stored.fields);
+                stored.touch(timeToLiveMs);
+                fields.putAll(stored.fields);
+            }
+            return stored;
+        });
+        Cart cart = CartHash.toCart(customerId, fields);
+        if (cart == null) {
+            throw new IllegalArgumentException(missingMessage);
+        }
+        return cart;
+    }
+    
+    private static void bumpRevision(Map<String, String> fields) {
+        fields.merge(CartHash.REVISION, "1", (current, one) -> String.valueOf(Long.parseLong(current) + 1));
+    }
+    
+    private interface FieldsMutation {
+        boolean apply(Map<String, String> fields);
+    }
+    
+    private static final class StoredCart {
+        
+        private final Map<String, String> fields = new HashMap<>();
+        private long expiresAt;
+        
+        private void touch(long timeToLiveMs) {
+            expiresAt = System.currentTimeMillis() + timeToLiveMs;
+        }
+        
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.cart.domain.CartRepository;
+import com.ecommerce.cart.domain.CartRevision;
+import com.ecommerce.cart.domain.CartStore;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.List;
+import java.util.Optional;
+
+// Active carts as carts/cart_items rows: every mutation is a versioned entity update in the caller's transaction
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+    
+    private final CartRepository cartRepository;
+    // Only the Flyway schema on PostgreSQL has the partial unique index on active carts
+    private final boolean conflictTolerantInsert;
+    
+    public JpaCartStore(CartRepository cartRepository, DataSource dataSource) {
+        this.cartRepository = cartRepository;
+        try {
+            this.conflictTolerantInsert = "PostgreSQL".equals(
+                    JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName));
+        } catch (MetaDataAccessException e) {
+            throw new IllegalStateException("Failed to read the database product name", e);
+        }
+    }
+    
+    @Override
+    public Optional<Cart> findActiveCart(EntityId customerId) {
+        return cartRepository.findByCustomerIdWithItems(customerId);
+    }
+    
+    @Override
+    public Cart addItem(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        Cart cart = cartRepository.findByCustomerIdAndActiveTrue(customerId)
+                .orElseGet(() -> createActiveCart(customerId));
+        cart.addItem(skuId, quantity, unitPrice);
+        return cartRepository.save(cart);
+    }
+    
+    @Override
+    public Cart updateItemQuantity(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        Cart cart = findRequiredCart(customerId);
+        cart.updateItemQuantity(skuId, quantity, unitPrice);
+        return cartRepository.save(cart);
+    }
+    
+    @Override
+    public Cart removeItem(EntityId customerId, EntityId skuId) {
+        Cart cart = findRequiredCart(customerId);
+        cart.removeItem(skuId);
+        return cartRepository.save(cart);
+    }
+    
+    @Override
+    public Cart clear(EntityId customerId) {
+        Cart cart = findRequiredCart(customerId);
+        cart.clear();
+        return cartRepository.save(cart);
+    }
+    
+    @Override
+    public void saveRepricedCart(Cart cart) {
+        // Managed carts are flushed when a read-write transaction commits; a read-only read leaves the row
+        // flagged stale and the next mutation re-prices and writes it
+    }
+    
+    @Override
+    public List<CartRevision> markPricesStale(EntityId skuId) {
+        if (cartRepository.markPricesStaleBySkuId(skuId) == 0) {
+            return List.of();
+        }
+        return cartRepository.findActiveRevisionsBySkuId(skuId);
+    }
+    
+    // A mutation committed since the cart was read bumped its version, so the save fails its optimistic check
+    @Override
+    public void checkout(Cart cart) {
+        cart.deactivate();
+        cartRepository.save(cart);
+    }
+    
+    private Cart findRequiredCart(EntityId customerId) {
+        return cartRepository.findByCustomerIdWithItems(customerId)
+                .orElseThrow(() -> new IllegalArgumentException("Cart not found"));
+    }
+    
+    // The unique (customer_id) WHERE active index decides concurrent first adds. The insert runs in the caller's
+    // transaction and skips on conflict, so whoever loses the race reads the winner's cart instead of creating
+    // a second one, and a failed add rolls its new cart back with it
+    private Cart createActiveCart(EntityId customerId) {
+        if (!conflictTolerantInsert) {
+            // Schemas generated from the entities (H2) have no such index and nothing to conflict with
+            return cartRepository.save(new Cart(customerId));
+        }
+        cartRepository.insertActiveCartIfAbsent(EntityId.generate().getValue(), customerId.getValue(),
+                Money.zero().getCurrency());
+        return cartRepository.findByCustomerIdAndActiveTrue(customerId)
+                .orElseThrow(() -> new IllegalStateException("Active cart was deactivated concurrently"));
+    }
+}
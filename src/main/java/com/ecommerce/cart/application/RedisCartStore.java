@@ -0,0 +1,273 @@
+package com.ecommerce.cart.application;
+
+import com.ecommerce.cart.domain.Cart;
+import com.ecommerce.cart.domain.CartItem;
+import com.ecommerce.cart.domain.CartRepository;
+import com.ecommerce.cart.domain.CartRevision;
+import com.ecommerce.cart.domain.CartStore;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+// Active carts as one Redis hash per customer (see CartHash for the layout). Mutations are single scripts, so
+// concurrent adds of the same SKU are summed by HINCRBY instead of racing on a versioned row, and every
+// mutation pushes the expiry forward so abandoned carts simply disappear. A set per SKU lists the customers
+// whose carts hold it, for re-pricing. Nothing reaches the carts tables until checkout.
+@Component
+@ConditionalOnProperty(name = "app.cart.store", havingValue = "redis")
+public class RedisCartStore implements CartStore {
+    
+    private static final String CART_KEY_PREFIX = "cart:";
+    private static final String SKU_CARTS_KEY_PREFIX = "cart-sku:";
+    private static final String CHECKOUT_KEY_PREFIX = "cart-checkout:";
+    
+    // Scripts return the cart's fields after the change, or an empty reply when the cart (or line) is missing
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADD_ITEM = new DefaultRedisScript<>(
+            "redis.call('HSETNX', KEYS[1], 'cartId', ARGV[1]) " +
+            "redis.call('HINCRBY', KEYS[1], ARGV[2], ARGV[3]) " +
+            "redis.call('HSET', KEYS[1], ARGV[4], ARGV[5]) " +
+            "redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[6]) " +
+            "return redis.call('HGETALL', KEYS[1])", List.class);
+    
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> UPDATE_ITEM = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return {} end " +
+            "redis.call('HSET', KEYS[1], ARGV[1], ARGV[2], ARGV[3], ARGV[4]) " +
+            "redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[5]) " +
+            "return redis.call('HGETALL', KEYS[1])", List.class);
+    
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> REMOVE_ITEM = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return {} end " +
+            "redis.call('HDEL', KEYS[1], ARGV[1], ARGV[2]) " +
+            "redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[3]) " +
+            "return redis.call('HGETALL', KEYS[1])", List.class);
+    
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> CLEAR = new DefaultRedisScript<>(
+            "local cartId = redis.call('HGET', KEYS[1], 'cartId') " +
+            "if not cartId then return {} end " +
+            "local rev = tostring(tonumber(redis.call('HGET', KEYS[1], 'rev') or '0') + 1) " +
+            "redis.call('DEL', KEYS[1]) " +
+            "redis.call('HSET', KEYS[1], 'cartId', cartId, 'rev', rev) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return {'cartId', cartId, 'rev', rev}", List.class);
+    
+    // ARGV: cart id, then (quantity field, price field, price) per line; lines removed meanwhile stay removed
+    private static final RedisScript<Long> SAVE_PRICES = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'cartId') ~= ARGV[1] then return 0 end " +
+            "for i = 2, #ARGV, 3 do " +
+            "  if redis.call('HEXISTS', KEYS[1], ARGV[i]) == 1 then redis.call('HSET', KEYS[1], ARGV[i + 1], ARGV[i + 2]) end " +
+            "end " +
+            "redis.call('HDEL', KEYS[1], 'stale') " +
+            "redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "return 1", Long.class);
+    
+    // Returns the cart id and the revision after the flag, or an empty reply when the cart does not hold the line
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> MARK_STALE = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], ARGV[1]) == 0 then return {} end " +
+            "redis.call('HSET', KEYS[1], 'stale', '1') " +
+            "local rev = redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "return {redis.call('HGET', KEYS[1], 'cartId'), tostring(rev)}", List.class);
+    
+    // KEYS: cart, checkout key; ARGV: cart id, then (quantity field, quantity) per line. Moves the hash aside only
+    // if it still holds exactly these lines, so an add that lands first fails the checkout instead of being lost
+    private static final RedisScript<Long> TAKE_FOR_CHECKOUT = new DefaultRedisScript<>(
+            "if redis.call('HGET', KEYS[1], 'cartId') ~= ARGV[1] then return 0 end " +
+            "local lines = 0 " +
+            "for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do " +
+            "  if string.sub(field, 1, 2) == 'q:' then lines = lines + 1 end " +
+            "end " +
+            "if lines ~= (#ARGV - 1) / 2 then return 0 end " +
+            "for i = 2, #ARGV, 2 do " +
+            "  if redis.call('HGET', KEYS[1], ARGV[i]) ~= ARGV[i + 1] then return 0 end " +
+            "end " +
+            "redis.call('RENAME', KEYS[1], KEYS[2]) " +
+            "return 1", Long.class);
+    
+    // KEYS: cart, checkout key. Puts a taken cart back after a failed checkout; lines added to a new cart in the
+    // meantime are kept and quantities of the same SKU are added up
+    private static final RedisScript<Long> RESTORE_AFTER_CHECKOUT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[2]) == 0 then return 0 end " +
+            "if redis.call('EXISTS', KEYS[1]) == 0 then " +
+            "  redis.call('RENAME', KEYS[2], KEYS[1]) " +
+            "else " +
+            "  local fields = redis.call('HGETALL', KEYS[2]) " +
+            "  for i = 1, #fields, 2 do " +
+            "    if string.sub(fields[i], 1, 2) == 'q:' then redis.call('HINCRBY', KEYS[1], fields[i], fields[i + 1]) " +
+            "    elseif fields[i] ~= 'cartId' then redis.call('HSETNX', KEYS[1], fields[i], fields[i + 1]) end " +
+            "  end " +
+            "  redis.call('DEL', KEYS[2]) " +
+            "end " +
+            "redis.call('HINCRBY', KEYS[1], 'rev', 1) " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[1]) " +
+            "return 1", Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final CartRepository cartRepository;
+    private final long timeToLiveMs;
+    
+    public RedisCartStore(StringRedisTemplate redisTemplate, CartRepository cartRepository,
+                          @Value("${app.cart.redis.time-to-live-ms:604800000}") long timeToLiveMs) {
+        this.redisTemplate = redisTemplate;
+        this.cartRepository = cartRepository;
+        this.timeToLiveMs = timeToLiveMs;
+    }
+    
+    @Override
+    public Optional<Cart> findActiveCart(EntityId customerId) {
+        Map<String, String> fields = redisTemplate.<String, String>opsForHash().entries(cartKey(customerId));
+        return Optional.ofNullable(CartHash.toCart(customerId, fields));
+    }
+    
+    @Override
+    public Cart addItem(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        List<?> reply = redisTemplate.execute(ADD_ITEM, List.of(cartKey(customerId)),
+                EntityId.generate().getValue(), CartHash.quantityField(skuId), String.valueOf(quantity),
+                CartHash.priceField(skuId), CartHash.encodePrice(unitPrice), String.valueOf(timeToLiveMs));
+        
+        String skuCartsKey = SKU_CARTS_KEY_PREFIX + skuId.getValue();
+        redisTemplate.opsForSet().add(skuCartsKey, customerId.getValue());
+        redisTemplate.expire(skuCartsKey, timeToLiveMs, TimeUnit.MILLISECONDS);
+        return toCart(customerId, reply, "Cart not found");
+    }
+    
+    @Override
+    public Cart updateItemQuantity(EntityId customerId, EntityId skuId, int quantity, Money unitPrice) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException("Quantity must be positive");
+        }
+        List<?> reply = redisTemplate.execute(UPDATE_ITEM, List.of(cartKey(customerId)),
+                CartHash.quantityField(skuId), String.valueOf(quantity),
+                CartHash.priceField(skuId), CartHash.encodePrice(unitPrice), String.valueOf(timeToLiveMs));
+        return toCart(customerId, reply, "Item not found in cart");
+    }
+    
+    @Override
+    public Cart removeItem(EntityId customerId, EntityId skuId) {
+        List<?> reply = redisTemplate.execute(REMOVE_ITEM, List.of(cartKey(customerId)),
+                CartHash.quantityField(skuId), CartHash.priceField(skuId), String.valueOf(timeToLiveMs));
+        return toCart(customerId, reply, "Cart not found");
+    }
+    
+    @Override
+    public Cart clear(EntityId customerId) {
+        List<?> reply = redisTemplate.execute(CLEAR, List.of(cartKey(customerId)), String.valueOf(timeToLiveMs));
+        return toCart(customerId, reply, "Cart not found");
+    }
+    
+    @Override
+    public void saveRepricedCart(Cart cart) {
+        List<String> args = new ArrayList<>(1 + cart.getItems().size() * 3);
+        args.add(cart.getCartId().getValue());
+        for (CartItem item : cart.getItems()) {
+            args.add(CartHash.quantityField(item.getSkuId()));
+            args.add(CartHash.priceField(item.getSkuId()));
+            args.add(CartHash.encodePrice(item.getUnitPrice()));
+        }
+        redisTemplate.execute(SAVE_PRICES, List.of(cartKey(cart.getCustomerId())), args.toArray());
+    }
+    
+    @Override
+    public List<CartRevision> markPricesStale(EntityId skuId) {
+        String skuCartsKey = SKU_CARTS_KEY_PREFIX + skuId.getValue();
+        Set<String> customerIds = redisTemplate.opsForSet().members(skuCartsKey);
+        if (customerIds == null || customerIds.isEmpty()) {
+            return List.of();
+        }
+        List<CartRevision> affected = new ArrayList<>();
+        for (String customerId : customerIds) {
+            EntityId customer = EntityId.of(customerId);
+            List<?> marked = redisTemplate.execute(MARK_STALE, List.of(cartKey(customer)),
+                    CartHash.quantityField(skuId));
+            if (marked != null && marked.size() == 2) {
+                affected.add(new CartRevision(customer, EntityId.of(String.valueOf(marked.get(0))),
+                        Long.parseLong(String.valueOf(marked.get(1)))));
+            } else {
+                // The line was removed, checked out or expired since it was added
+                redisTemplate.opsForSet().remove(skuCartsKey, customerId);
+            }
+        }
+        return affected;
+    }
+    
+    // Moves the hash to a checkout key and writes the given cart to the carts tables as a deactivated row in the
+    // checkout transaction. The checkout key is dropped once that commits and put back if it rolls back, so a
+    // failed checkout leaves the cart in place and adds made during checkout go to a new cart.
+    @Override
+    public void checkout(Cart cart) {
+        String cartKey = cartKey(cart.getCustomerId());
+        String checkoutKey = CHECKOUT_KEY_PREFIX + cart.getCustomerId().getValue();
+        List<String> args = new ArrayList<>(1 + cart.getItems().size() * 2);
+        args.add(cart.getCartId().getValue());
+        for (CartItem item : cart.getItems()) {
+            args.add(CartHash.quantityField(item.getSkuId()));
+            args.add(String.valueOf(item.getQuantity()));
+        }
+        Long taken = redisTemplate.execute(TAKE_FOR_CHECKOUT, List.of(cartKey, checkoutKey), args.toArray());
+        if (taken == null || taken != 1) {
+            throw new IllegalStateException("Cart changed during checkout");
+        }
+        
+        cart.deactivate();
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            try {
+                cartRepository.save(cart);
+            } catch (RuntimeException e) {
+                restore(cartKey, checkoutKey);
+                throw e;
+            }
+            redisTemplate.delete(checkoutKey);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    redisTemplate.delete(checkoutKey);
+                } else {
+                    restore(cartKey, checkoutKey);
+                }
+            }
+        });
+        cartRepository.save(cart);
+    }
+    
+    private void restore(String cartKey, String checkoutKey) {
+        redisTemplate.execute(RESTORE_AFTER_CHECKOUT, List.of(cartKey, checkoutKey), String.valueOf(timeToLiveMs));
+    }
+    
+    private Cart toCart(EntityId customerId, List<?> reply, String missingMessage) {
+        Cart cart = reply != null ? CartHash.toCart(customerId, CartHash.fromReply(reply)) : null;
+        if (cart == null) {
+            throw new IllegalArgumentException(missingMessage);
+        }
+        return cart;
+    }
+    
+    private static String cartKey(EntityId customerId) {
+        return CART_KEY_PREFIX + customerId.getValue();
+    }
+}
@@ -3,12 +3,15 @@ package com.ecommerce.cart.domain;
 import com.ecommerce.shared.domain.BaseEntity;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
+import com.ecommerce.shared.domain.MoneyAccumulator;
+import com.ecommerce.shared.domain.UuidStringConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Entity
@@ -17,6 +20,7 @@ public class Cart extends BaseEntity {
     
     @Embedded
     @AttributeOverride(name = "value", column = @Column(name = "cart_id", unique = true, nullable = false))
+    @Convert(converter = UuidStringConverter.class, attributeName = "value")
     private EntityId cartId;
     
     @Embedded
@@ -29,6 +33,23 @@ public class Cart extends BaseEntity {
     @Column(nullable = false)
     private boolean active = true;
     
+    // Running totals, maintained by every mutation so reads never re-sum the lines
+    @Embedded
+    @AttributeOverride(name = "amount", column = @Column(name = "subtotal", nullable = false))
+    @AttributeOverride(name = "currency", column = @Column(name = "currency", nullable = false))
+    private Money subtotal = Money.zero();
+    
+    @Column(nullable = false)
+    private int totalItemCount = 0;
+    
+    // Set when a catalog price changed after the lines were priced; the next access re-prices everything
+    @Column(nullable = false)
+    private boolean pricesStale = false;
+    
+    // Mutation counter of a cart kept outside the carts table, which has no entity version
+    @Transient
+    private Long storeRevision;
+    
     protected Cart() {
         // JPA
     }
@@ -38,28 +59,46 @@ public class Cart extends BaseEntity {
         this.customerId = customerId;
     }
     
-    public void addItem(EntityId skuId, int quantity) {
+    // Rebuilds a cart kept outside the carts table under its original id and revision; lines are re-added by
+    // the caller
+    public static Cart restore(EntityId cartId, EntityId customerId, long revision) {
+        Cart cart = new Cart(customerId);
+        cart.cartId = cartId;
+        cart.storeRevision = revision;
+        return cart;
+    }
+    
+    public void addItem(EntityId skuId, int quantity, Money unitPrice) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
         
         Optional<CartItem> existingItem = findItemBySkuId(skuId);
         if (existingItem.isPresent()) {
-            existingItem.get().updateQuantity(existingItem.get().getQuantity() + quantity);
+            CartItem item = existingItem.get();
+            subtractLine(item);
+            item.updateQuantity(item.getQuantity() + quantity);
+            item.updateUnitPrice(unitPrice);
+            addLine(item);
         } else {
-            CartItem newItem = new CartItem(this, skuId, quantity);
+            CartItem newItem = new CartItem(this, skuId, quantity, unitPrice);
             this.items.add(newItem);
+            addLine(newItem);
         }
     }
     
-    public void updateItemQuantity(EntityId skuId, int quantity) {
+    public void updateItemQuantity(EntityId skuId, int quantity, Money unitPrice) {
         if (quantity <= 0) {
             throw new IllegalArgumentException("Quantity must be positive");
         }
         
         Optional<CartItem> existingItem = findItemBySkuId(skuId);
         if (existingItem.isPresent()) {
-            existingItem.get().updateQuantity(quantity);
+            CartItem item = existingItem.get();
+            subtractLine(item);
+            item.updateQuantity(quantity);
+            item.updateUnitPrice(unitPrice);
+            addLine(item);
         } else {
             throw new IllegalArgumentException("Item not found in cart");
         }
@@ -68,34 +107,65 @@ public class Cart extends BaseEntity {
     public void removeItem(EntityId skuId) {
         Optional<CartItem> item = findItemBySkuId(skuId);
         if (item.isPresent()) {
+            subtractLine(item.get());
             this.items.remove(item.get());
         }
     }
     
     public void clear() {
         this.items.clear();
+        this.subtotal = Money.zero();
+        this.totalItemCount = 0;
+        this.pricesStale = false;
     }
     
     public void deactivate() {
         this.active = false;
     }
     
+    public void markPricesStale() {
+        this.pricesStale = true;
+    }
+    
+    public void reprice(Map<EntityId, Money> unitPrices) {
+        MoneyAccumulator total = new MoneyAccumulator(subtotal.getCurrency());
+        int itemCount = 0;
+        for (CartItem item : items) {
+            Money unitPrice = unitPrices.get(item.getSkuId());
+            if (unitPrice == null) {
+                throw new IllegalArgumentException("SKU not found");
+            }
+            item.updateUnitPrice(unitPrice);
+            total.addLine(unitPrice, item.getQuantity());
+            itemCount += item.getQuantity();
+        }
+        this.subtotal = total.toMoney();
+        this.totalItemCount = itemCount;
+        this.pricesStale = false;
+    }
+    
     public Money calculateTotal() {
-        return items.stream()
-                .map(CartItem::calculateSubtotal)
-                .reduce(Money.zero(), Money::add);
+        return subtotal;
     }
     
     public int getTotalItemCount() {
-        return items.stream()
-                .mapToInt(CartItem::getQuantity)
-                .sum();
+        return totalItemCount;
     }
     
     public boolean isEmpty() {
         return items.isEmpty();
     }
     
+    private void addLine(CartItem item) {
+        this.subtotal = this.subtotal.add(item.calculateSubtotal());
+        this.totalItemCount += item.getQuantity();
+    }
+    
+    private void subtractLine(CartItem item) {
+        this.subtotal = this.subtotal.subtract(item.calculateSubtotal());
+        this.totalItemCount -= item.getQuantity();
+    }
+    
     private Optional<CartItem> findItemBySkuId(EntityId skuId) {
         return items.stream()
                 .filter(item -> item.getSkuId().equals(skuId))
@@ -117,5 +187,18 @@ public class Cart extends BaseEntity {
     public boolean isActive() {
         return active;
     }
+    
+    public boolean isPricesStale() {
+        return pricesStale;
+    }
+    
+    // Grows with every committed change to this cart: the entity version for carts rows, the store's counter
+    // for restored carts
+    public long getRevision() {
+        if (storeRevision != null) {
+            return storeRevision;
+        }
+        return getVersion() != null ? getVersion() : 0L;
+    }
 }
 
@@ -32,11 +32,11 @@ public class CartItem extends BaseEntity {
         // JPA
     }
     
-    public CartItem(Cart cart, EntityId skuId, int quantity) {
+    public CartItem(Cart cart, EntityId skuId, int quantity, Money unitPrice) {
         this.cart = cart;
         this.skuId = skuId;
         this.quantity = quantity;
-        this.unitPrice = Money.zero(); // Will be set by service layer
+        this.unitPrice = unitPrice;
     }
     
     public void updateQuantity(int quantity) {
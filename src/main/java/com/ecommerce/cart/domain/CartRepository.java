@@ -2,10 +2,12 @@ package com.ecommerce.cart.domain;
 
 import com.ecommerce.shared.domain.EntityId;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -19,6 +21,27 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
     @Query("SELECT c FROM Cart c WHERE c.customerId = :customerId AND c.active = true")
     Optional<Cart> findByCustomerIdAndActiveTrue(@Param("customerId") EntityId customerId);
     
+    // Read after markPricesStaleBySkuId in the same transaction, so the revisions are the ones it left
+    @Query("SELECT new com.ecommerce.cart.domain.CartRevision(c.customerId, c.cartId, c.version) FROM Cart c " +
+           "WHERE c.active = true AND c.id IN (SELECT ci.cart.id FROM CartItem ci WHERE ci.skuId = :skuId)")
+    List<CartRevision> findActiveRevisionsBySkuId(@Param("skuId") EntityId skuId);
+    
+    // Bumps the version so a mutation that loaded the cart before the price change fails its optimistic
+    // check instead of writing the cart back with pricesStale = false and the old totals
+    @Modifying
+    @Query("UPDATE Cart c SET c.pricesStale = true, c.version = c.version + 1 WHERE c.active = true AND c.id IN " +
+           "(SELECT ci.cart.id FROM CartItem ci WHERE ci.skuId = :skuId)")
+    int markPricesStaleBySkuId(@Param("skuId") EntityId skuId);
+    
+    // PostgreSQL only: skips the insert when uq_carts_customer_active already holds an active cart for the
+    // customer, waiting for a concurrent uncommitted insert first, instead of failing the transaction
+    @Modifying
+    @Query(value = "INSERT INTO carts (cart_id, customer_id, active, subtotal, currency, total_item_count, prices_stale) " +
+                   "VALUES (CAST(:cartId AS uuid), :customerId, true, 0, :currency, 0, false) " +
+                   "ON CONFLICT (customer_id) WHERE active = true DO NOTHING", nativeQuery = true)
+    int insertActiveCartIfAbsent(@Param("cartId") String cartId, @Param("customerId") String customerId,
+                                 @Param("currency") String currency);
+    
     boolean existsByCartId(EntityId cartId);
     
     boolean existsByCustomerIdAndActiveTrue(EntityId customerId);
@@ -0,0 +1,29 @@
+package com.ecommerce.cart.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+// Identity and revision of an active cart changed without being loaded, such as by a bulk price-stale update
+public final class CartRevision {
+    
+    private final EntityId customerId;
+    private final EntityId cartId;
+    private final long revision;
+    
+    public CartRevision(EntityId customerId, EntityId cartId, Long revision) {
+        this.customerId = customerId;
+        this.cartId = cartId;
+        this.revision = revision != null ? revision : 0L;
+    }
+    
+    public EntityId getCustomerId() {
+        return customerId;
+    }
+    
+    public EntityId getCartId() {
+        return cartId;
+    }
+    
+    public long getRevision() {
+        return revision;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ecommerce.cart.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+
+import java.util.List;
+import java.util.Optional;
+
+// Where active carts live between the first add and checkout. Every mutation addresses the customer's
+// active cart; checkout is the only point where a cart must reach the relational carts/cart_items tables.
+public interface CartStore {
+    
+    Optional<Cart> findActiveCart(EntityId customerId);
+    
+    // Creates the active cart when the customer has none; quantities of an existing line are added up
+    Cart addItem(EntityId customerId, EntityId skuId, int quantity, Money unitPrice);
+    
+    Cart updateItemQuantity(EntityId customerId, EntityId skuId, int quantity, Money unitPrice);
+    
+    Cart removeItem(EntityId customerId, EntityId skuId);
+    
+    Cart clear(EntityId customerId);
+    
+    // Persists line prices after a stale cart was re-priced; quantities are left as stored
+    void saveRepricedCart(Cart cart);
+    
+    // Flags every active cart holding the SKU for re-pricing and returns each one's revision after the flag
+    List<CartRevision> markPricesStale(EntityId skuId);
+    
+    // Ends the active cart the order was built from as part of the checkout transaction, leaving exactly that
+    // cart deactivated in the carts table. Fails when the cart's lines changed since it was read.
+    void checkout(Cart cart);
+}
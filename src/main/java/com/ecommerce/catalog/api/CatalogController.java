@@ -1,18 +1,26 @@
 package com.ecommerce.catalog.api;
 
 import com.ecommerce.catalog.application.CatalogService;
+import com.ecommerce.catalog.application.CategorySnapshot;
+import com.ecommerce.catalog.application.ProductFacetQuery;
+import com.ecommerce.catalog.application.ProductSnapshot;
+import com.ecommerce.catalog.application.ProductSearchMode;
+import com.ecommerce.catalog.application.SkuSnapshot;
 import com.ecommerce.catalog.domain.Category;
 import com.ecommerce.catalog.domain.Product;
 import com.ecommerce.catalog.domain.Sku;
 import com.ecommerce.shared.api.ApiResponse;
+import com.ecommerce.shared.api.CursorPage;
+import com.ecommerce.shared.api.KeysetCursor;
+import com.ecommerce.shared.application.CountMode;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.CacheControl;
 import org.springframework.http.ResponseEntity;
@@ -21,6 +29,7 @@ import org.springframework.web.bind.annotation.*;
 import java.math.BigDecimal;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/catalog")
@@ -37,7 +46,7 @@ public class CatalogController {
     @GetMapping("/categories")
     @Operation(summary = "카테고리 목록 조회", description = "활성화된 카테고리 목록을 조회합니다.")
     public ResponseEntity<ApiResponse<List<CategoryDto>>> getRootCategories() {
-        List<Category> categories = catalogService.getRootCategories();
+        List<CategorySnapshot> categories = catalogService.getRootCategories();
         List<CategoryDto> categoryDtos = categories.stream()
                 .map(CategoryDto::from)
                 .toList();
@@ -47,6 +56,18 @@ public class CatalogController {
                 .body(ApiResponse.success(categoryDtos));
     }
     
+    @GetMapping("/categories/tree")
+    @Operation(summary = "카테고리 트리 조회", description = "활성화된 전체 카테고리 계층을 한 번에 조회합니다.")
+    public ResponseEntity<ApiResponse<List<CategoryDto>>> getCategoryTree() {
+        List<CategoryDto> tree = catalogService.getCategoryTree().getRoots().stream()
+                .map(CategoryDto::fromWithChildren)
+                .toList();
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                .body(ApiResponse.success(tree));
+    }
+    
     @GetMapping("/categories/{categoryId}")
     @Operation(summary = "카테고리 상세 조회", description = "특정 카테고리의 상세 정보를 조회합니다.")
     public ResponseEntity<ApiResponse<CategoryDto>> getCategory(
@@ -64,7 +85,7 @@ public class CatalogController {
     public ResponseEntity<ApiResponse<List<CategoryDto>>> getChildCategories(
             @Parameter(description = "부모 카테고리 ID") @PathVariable String categoryId) {
         
-        List<Category> categories = catalogService.getChildCategories(EntityId.of(categoryId));
+        List<CategorySnapshot> categories = catalogService.getChildCategories(EntityId.of(categoryId));
         List<CategoryDto> categoryDtos = categories.stream()
                 .map(CategoryDto::from)
                 .toList();
@@ -74,6 +95,23 @@ public class CatalogController {
                 .body(ApiResponse.success(categoryDtos));
     }
     
+    @GetMapping("/categories/{categoryId}/path")
+    @Operation(summary = "카테고리 경로 조회", description = "최상위 카테고리부터 해당 카테고리까지의 경로(브레드크럼)를 조회합니다.")
+    public ResponseEntity<ApiResponse<List<CategoryDto>>> getCategoryPath(
+            @Parameter(description = "카테고리 ID") @PathVariable String categoryId) {
+        
+        List<CategoryDto> path = catalogService.getCategoryPath(EntityId.of(categoryId)).stream()
+                .map(CategoryDto::from)
+                .toList();
+        if (path.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.HOURS))
+                .body(ApiResponse.success(path));
+    }
+    
     @PostMapping("/categories")
     @Operation(summary = "카테고리 생성", description = "새로운 카테고리를 생성합니다.")
     public ResponseEntity<ApiResponse<CategoryDto>> createCategory(@Valid @RequestBody CreateCategoryRequest request) {
@@ -95,31 +133,101 @@ public class CatalogController {
         return ResponseEntity.ok(ApiResponse.success("카테고리가 생성되었습니다.", CategoryDto.from(category)));
     }
     
+    // Suggest endpoint
+    @GetMapping("/suggest")
+    @Operation(summary = "검색어 자동완성", description = "상품명, SKU 코드, 카테고리명을 접두어로 찾아 인기순으로 반환합니다.")
+    public ResponseEntity<ApiResponse<List<SuggestionDto>>> suggest(
+            @Parameter(description = "검색어 접두어") @RequestParam String prefix,
+            @Parameter(description = "최대 결과 수") @RequestParam(defaultValue = "10") int limit) {
+        
+        List<SuggestionDto> suggestions = catalogService.suggest(prefix, limit).stream()
+                .map(SuggestionDto::from)
+                .collect(Collectors.toList());
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(ApiResponse.success(suggestions));
+    }
+    
     // Product endpoints
     @GetMapping("/products")
     @Operation(summary = "상품 목록 조회", description = "상품 목록을 페이지네이션으로 조회합니다.")
-    public ResponseEntity<ApiResponse<Page<ProductDto>>> getProducts(
+    public ResponseEntity<ApiResponse<Slice<ProductDto>>> getProducts(
             @Parameter(description = "카테고리 ID") @RequestParam(required = false) String categoryId,
+            @Parameter(description = "하위 카테고리 상품 포함 여부") @RequestParam(defaultValue = "false") boolean includeDescendants,
             @Parameter(description = "검색 키워드") @RequestParam(required = false) String keyword,
+            @Parameter(description = "검색 방식 (LIKE: 부분 문자열, FULL_TEXT: 전문 검색 인덱스)")
+            @RequestParam(defaultValue = "LIKE") ProductSearchMode searchMode,
+            @Parameter(description = "전체 개수 계산 방식 (EXACT: COUNT 쿼리, NONE: 다음 페이지 여부만, APPROXIMATE: 캐시된 근사치)")
+            @RequestParam(defaultValue = "EXACT") CountMode countMode,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Product> products;
+        Slice<Product> products;
         
-        if (categoryId != null) {
-            products = catalogService.getProductsByCategory(EntityId.of(categoryId), pageable);
+        if (categoryId != null && includeDescendants) {
+            products = catalogService.getProductsInCategoryTree(EntityId.of(categoryId), pageable, countMode);
+        } else if (categoryId != null) {
+            products = catalogService.getProductsByCategory(EntityId.of(categoryId), pageable, countMode);
         } else if (keyword != null && !keyword.trim().isEmpty()) {
-            products = catalogService.searchProducts(keyword, pageable);
+            products = catalogService.searchProducts(keyword, searchMode, pageable, countMode);
         } else {
-            products = catalogService.getAllActiveProducts(pageable);
+            products = catalogService.getAllActiveProducts(pageable, countMode);
         }
         
-        Page<ProductDto> productDtos = products.map(ProductDto::from);
+        Slice<ProductDto> productDtos = products.map(ProductDto::from);
         
         return ResponseEntity.ok()
                 .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
                 .body(ApiResponse.success(productDtos));
     }
     
+    @GetMapping("/products/scroll")
+    @Operation(summary = "상품 목록 커서 조회", description = "전체 개수 없이 커서 기반으로 상품을 조회합니다. 응답의 nextCursor를 다음 요청의 cursor로 전달합니다.")
+    public ResponseEntity<ApiResponse<CursorPage<ProductDto>>> scrollProducts(
+            @Parameter(description = "카테고리 ID") @RequestParam(required = false) String categoryId,
+            @Parameter(description = "이전 응답의 nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 크기") @RequestParam(defaultValue = "20") int size) {
+        
+        long afterId = 0;
+        if (cursor != null) {
+            try {
+                afterId = Long.parseLong(KeysetCursor.decode(cursor, 1).get(0));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+        
+        CursorPage<ProductDto> products = CursorPage.of(
+                catalogService.getActiveProductsAfter(categoryId != null ? EntityId.of(categoryId) : null, afterId, size),
+                ProductDto::from,
+                product -> KeysetCursor.encode(product.getId()));
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
+                .body(ApiResponse.success(products));
+    }
+    
+    @GetMapping("/products/facets")
+    @Operation(summary = "상품 패싯 조회", description = "카테고리(하위 포함), 가격대, 디지털 여부, 재고 여부, 키워드로 상품을 필터링하고 패싯별 개수를 함께 반환합니다.")
+    public ResponseEntity<ApiResponse<ProductFacetsDto>> getProductFacets(
+            @Parameter(description = "카테고리 ID (하위 카테고리 포함)") @RequestParam(required = false) String categoryId,
+            @Parameter(description = "최소 가격") @RequestParam(required = false) BigDecimal minPrice,
+            @Parameter(description = "최대 가격") @RequestParam(required = false) BigDecimal maxPrice,
+            @Parameter(description = "통화") @RequestParam(defaultValue = "USD") String currency,
+            @Parameter(description = "디지털 상품 여부") @RequestParam(required = false) Boolean digital,
+            @Parameter(description = "재고 보유 여부") @RequestParam(required = false) Boolean inStock,
+            @Parameter(description = "검색 키워드") @RequestParam(required = false) String keyword,
+            @PageableDefault(size = 20) Pageable pageable) {
+        
+        ProductFacetQuery query = new ProductFacetQuery(
+                categoryId != null ? EntityId.of(categoryId) : null,
+                minPrice, maxPrice, currency, digital, inStock, keyword);
+        
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(1, TimeUnit.MINUTES))
+                .body(ApiResponse.success(ProductFacetsDto.from(catalogService.browseProducts(query, pageable))));
+    }
+    
     @GetMapping("/products/{productId}")
     @Operation(summary = "상품 상세 조회", description = "특정 상품의 상세 정보와 SKU 목록을 조회합니다.")
     public ResponseEntity<ApiResponse<ProductDto>> getProduct(
@@ -128,7 +236,7 @@ public class CatalogController {
         return catalogService.getProductWithSkus(EntityId.of(productId))
                 .map(product -> ResponseEntity.ok()
                         .cacheControl(CacheControl.maxAge(5, TimeUnit.MINUTES))
-                        .body(ApiResponse.success(ProductDto.fromWithSkus(product))))
+                        .body(ApiResponse.success(withStockLevels(product))))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -154,7 +262,8 @@ public class CatalogController {
         return catalogService.getSku(EntityId.of(skuId))
                 .map(sku -> ResponseEntity.ok()
                         .cacheControl(CacheControl.maxAge(2, TimeUnit.MINUTES))
-                        .body(ApiResponse.success(SkuDto.from(sku))))
+                        .body(ApiResponse.success(SkuDto.from(sku,
+                                catalogService.getStockLevel(EntityId.of(skuId)).orElse(null)))))
                 .orElse(ResponseEntity.notFound().build());
     }
     
@@ -183,6 +292,14 @@ public class CatalogController {
         
         return ResponseEntity.ok(ApiResponse.success("SKU가 생성되었습니다.", SkuDto.from(sku)));
     }
+    
+    // The cached product carries no stock; levels for all its SKUs are read in one go
+    private ProductDto withStockLevels(ProductSnapshot product) {
+        List<String> skuIds = product.getSkus().stream()
+                .map(SkuSnapshot::getSkuId)
+                .toList();
+        return ProductDto.fromWithSkus(product, catalogService.getStockLevels(skuIds));
+    }
 }
 
 
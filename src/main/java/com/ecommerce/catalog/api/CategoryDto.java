@@ -1,5 +1,7 @@
 package com.ecommerce.catalog.api;
 
+import com.ecommerce.catalog.application.CategorySnapshot;
+import com.ecommerce.catalog.application.CategoryTree;
 import com.ecommerce.catalog.domain.Category;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import jakarta.validation.constraints.NotBlank;
@@ -56,6 +58,32 @@ public class CategoryDto {
         );
     }
     
+    public static CategoryDto from(CategorySnapshot category) {
+        return new CategoryDto(
+                category.getCategoryId(),
+                category.getName(),
+                category.getDescription(),
+                category.getParentCategoryId(),
+                category.isActive(),
+                category.getSortOrder(),
+                category.getCreatedAt(),
+                category.getUpdatedAt()
+        );
+    }
+    
+    public static CategoryDto from(CategoryTree.Node node) {
+        return new CategoryDto(node.getCategoryId(), node.getName(), node.getDescription(),
+                node.getParentCategoryId(), true, node.getSortOrder(), null, null);
+    }
+    
+    public static CategoryDto fromWithChildren(CategoryTree.Node node) {
+        CategoryDto dto = from(node);
+        dto.setChildren(node.getChildren().stream()
+                .map(CategoryDto::fromWithChildren)
+                .toList());
+        return dto;
+    }
+    
     public String getCategoryId() {
         return categoryId;
     }
@@ -1,5 +1,7 @@
 package com.ecommerce.catalog.api;
 
+import com.ecommerce.catalog.application.ProductSnapshot;
+import com.ecommerce.catalog.application.StockLevel;
 import com.ecommerce.catalog.domain.Product;
 import com.ecommerce.catalog.domain.Sku;
 import com.fasterxml.jackson.annotation.JsonInclude;
@@ -7,6 +9,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 @JsonInclude(JsonInclude.Include.NON_NULL)
@@ -71,6 +74,32 @@ public class ProductDto {
         return dto;
     }
     
+    public static ProductDto from(ProductSnapshot product) {
+        return new ProductDto(
+                product.getProductId(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategoryId(),
+                product.getBasePrice().getAmount(),
+                product.getBasePrice().getCurrency(),
+                product.isActive(),
+                product.isDigital(),
+                product.getImageUrl(),
+                product.getCreatedAt(),
+                product.getUpdatedAt()
+        );
+    }
+    
+    public static ProductDto fromWithSkus(ProductSnapshot product, Map<String, StockLevel> stockLevels) {
+        ProductDto dto = from(product);
+        if (product.getSkus() != null && !product.getSkus().isEmpty()) {
+            dto.skus = product.getSkus().stream()
+                    .map(sku -> SkuDto.from(sku, stockLevels.get(sku.getSkuId())))
+                    .collect(Collectors.toList());
+        }
+        return dto;
+    }
+    
     public String getProductId() {
         return productId;
     }
@@ -0,0 +1,33 @@
+package com.ecommerce.catalog.api;
+
+import com.ecommerce.catalog.application.ProductFacetPage;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+public class ProductFacetsDto {
+    
+    private Page<ProductDto> products;
+    private Map<String, Map<String, Long>> facets;
+    
+    protected ProductFacetsDto() {
+        // JSON deserialization
+    }
+    
+    public ProductFacetsDto(Page<ProductDto> products, Map<String, Map<String, Long>> facets) {
+        this.products = products;
+        this.facets = facets;
+    }
+    
+    public static ProductFacetsDto from(ProductFacetPage page) {
+        return new ProductFacetsDto(page.getProducts().map(ProductDto::from), page.getFacets());
+    }
+    
+    public Page<ProductDto> getProducts() {
+        return products;
+    }
+    
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+}
@@ -1,5 +1,7 @@
 package com.ecommerce.catalog.api;
 
+import com.ecommerce.catalog.application.SkuSnapshot;
+import com.ecommerce.catalog.application.StockLevel;
 import com.ecommerce.catalog.domain.Sku;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
@@ -73,6 +75,28 @@ public class SkuDto {
         );
     }
     
+    // stock is read separately from the cached snapshot; null (SKU gone meanwhile) reports no stock
+    public static SkuDto from(SkuSnapshot sku, StockLevel stock) {
+        return new SkuDto(
+                sku.getSkuId(),
+                sku.getSkuCode(),
+                sku.getName(),
+                sku.getDescription(),
+                sku.getProductId(),
+                sku.getPrice().getAmount(),
+                sku.getPrice().getCurrency(),
+                stock != null ? stock.getStockQuantity() : 0,
+                stock != null ? stock.getReservedQuantity() : 0,
+                stock != null ? stock.getAvailableQuantity() : 0,
+                sku.isActive(),
+                sku.isTrackInventory(),
+                sku.getMinOrderQuantity(),
+                sku.getMaxOrderQuantity(),
+                sku.getCreatedAt(),
+                sku.getUpdatedAt()
+        );
+    }
+    
     public String getSkuId() {
         return skuId;
     }
@@ -0,0 +1,36 @@
+package com.ecommerce.catalog.api;
+
+import com.ecommerce.catalog.application.CatalogSuggestion;
+
+public class SuggestionDto {
+    
+    private String type;
+    private String id;
+    private String text;
+    
+    protected SuggestionDto() {
+        // JSON deserialization
+    }
+    
+    public SuggestionDto(String type, String id, String text) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+    }
+    
+    public static SuggestionDto from(CatalogSuggestion suggestion) {
+        return new SuggestionDto(suggestion.getType().name(), suggestion.getId(), suggestion.getText());
+    }
+    
+    public String getType() {
+        return type;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getText() {
+        return text;
+    }
+}
@@ -0,0 +1,129 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.CategoryChangedEvent;
+import com.ecommerce.catalog.domain.ProductChangedEvent;
+import com.ecommerce.catalog.domain.SkuChangedEvent;
+import com.ecommerce.config.CacheGenerations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Invalidates catalog cache entries once the write that made them stale has committed, so the caches can keep
+// a long TTL. Every entry key carries a per-entity generation (see entryKey); a commit advances it, so a read
+// that loaded the row just before the commit stores its old copy under a key nobody reads any more. The entry
+// under the previous generation is evicted right away; other nodes move to the new generation within
+// app.cache.generations.refresh-interval-ms. Category lists share one generation, advanced on any category change.
+@Component
+public class CatalogCacheInvalidator {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogCacheInvalidator.class);
+    
+    private static final String CATEGORY_LISTS = "categoryLists";
+    
+    private static final String SELECT_SKU_PRODUCT =
+            "SELECT p.product_id FROM skus s JOIN products p ON p.id = s.product_id WHERE s.sku_id = ?";
+    
+    private final CacheManager cacheManager;
+    private final CacheGenerations cacheGenerations;
+    private final JdbcTemplate jdbcTemplate;
+    
+    public CatalogCacheInvalidator(CacheManager cacheManager,
+                                   CacheGenerations cacheGenerations,
+                                   JdbcTemplate jdbcTemplate) {
+        this.cacheManager = cacheManager;
+        this.cacheGenerations = cacheGenerations;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    // Part of the rootCategories and childCategories keys (see CatalogService)
+    public long categoryListGeneration() {
+        return cacheGenerations.current(CATEGORY_LISTS);
+    }
+    
+    // Key of an entity's entry in the categories, products, productsWithSkus and skus caches. Callers must take
+    // the key before loading the row, so a load that races a commit lands under the generation it started with.
+    public String entryKey(String cacheName, String id) {
+        return cacheGenerations.current(generationName(cacheName, id)) + ":" + id;
+    }
+    
+    // entryKey for many ids of one cache, keyed by id
+    public Map<String, String> entryKeys(String cacheName, Collection<String> ids) {
+        Map<String, String> names = new HashMap<>();
+        for (String id : ids) {
+            names.put(id, generationName(cacheName, id));
+        }
+        Map<String, Long> generations = cacheGenerations.current(names.values());
+        Map<String, String> keys = new HashMap<>();
+        names.forEach((id, name) -> keys.put(id, generations.get(name) + ":" + id));
+        return keys;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        invalidate("categories", event.getCategoryId().getValue());
+        try {
+            cacheGenerations.advance(CATEGORY_LISTS);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to advance the category list cache generation", ex);
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String productId = event.getProductId().getValue();
+        invalidate("products", productId);
+        invalidate("productsWithSkus", productId);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onSkuChanged(SkuChangedEvent event) {
+        String skuId = event.getSkuId().getValue();
+        String productId = productIdOf(skuId);
+        invalidate("skus", skuId);
+        if (productId != null) {
+            invalidate("productsWithSkus", productId);
+        }
+    }
+    
+    private void invalidate(String cacheName, String id) {
+        try {
+            long previous = cacheGenerations.advance(generationName(cacheName, id));
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                // Unreachable now; dropped so it does not sit in the cache until the TTL
+                cache.evict(previous + ":" + id);
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to invalidate {} in cache {}", id, cacheName, ex);
+        }
+    }
+    
+    private String productIdOf(String skuId) {
+        // The cached SKU usually knows its product, which saves the lookup
+        Cache skus = cacheManager.getCache("skus");
+        try {
+            SkuSnapshot cached = skus != null ? skus.get(entryKey("skus", skuId), SkuSnapshot.class) : null;
+            if (cached != null) {
+                return cached.getProductId();
+            }
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to read SKU {} from cache", skuId, ex);
+        }
+        List<String> productIds = jdbcTemplate.queryForList(SELECT_SKU_PRODUCT, String.class, skuId);
+        return productIds.isEmpty() ? null : productIds.get(0);
+    }
+    
+    private static String generationName(String cacheName, String id) {
+        return cacheName + ":" + id;
+    }
+}
@@ -1,50 +1,124 @@
 package com.ecommerce.catalog.application;
 
 import com.ecommerce.catalog.domain.*;
+import com.ecommerce.config.SingleFlightCache;
+import com.ecommerce.config.SingleFlightCaches;
+import com.ecommerce.config.TwoLevelCache;
+import com.ecommerce.shared.application.CountMode;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
-import org.springframework.cache.annotation.Cacheable;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class CatalogService {
     
+    private static final int MAX_SCROLL_SIZE = 100;
+    
     private final CategoryRepository categoryRepository;
     private final ProductRepository productRepository;
     private final SkuRepository skuRepository;
+    private final StockReservationMode reservationMode;
+    private final InventoryLedger inventoryLedger;
+    private final CacheManager cacheManager;
+    private final CatalogCacheInvalidator catalogCacheInvalidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ProductSearchIndexer productSearchIndexer;
+    private final CatalogSuggester catalogSuggester;
+    private final ProductFacetIndexer productFacetIndexer;
+    private final CategoryTreeHolder categoryTreeHolder;
+    private final ProductCounter productCounter;
+    private final SkuStockLevels skuStockLevels;
+    private final SingleFlightCache<ProductSnapshot> productsWithSkus;
+    private final TransactionTemplate readOnlyTransaction;
     
     public CatalogService(CategoryRepository categoryRepository, 
                          ProductRepository productRepository, 
-                         SkuRepository skuRepository) {
+                         SkuRepository skuRepository,
+                         @Value("${app.catalog.stock-reservation-mode:ENTITY}") StockReservationMode reservationMode,
+                         ObjectProvider<InventoryLedger> inventoryLedger,
+                         CacheManager cacheManager,
+                         CatalogCacheInvalidator catalogCacheInvalidator,
+                         ApplicationEventPublisher eventPublisher,
+                         ProductSearchIndexer productSearchIndexer,
+                         CatalogSuggester catalogSuggester,
+                         ProductFacetIndexer productFacetIndexer,
+                         CategoryTreeHolder categoryTreeHolder,
+                         ProductCounter productCounter,
+                         SkuStockLevels skuStockLevels,
+                         SingleFlightCaches singleFlightCaches,
+                         PlatformTransactionManager transactionManager) {
         this.categoryRepository = categoryRepository;
         this.productRepository = productRepository;
         this.skuRepository = skuRepository;
+        this.reservationMode = reservationMode;
+        this.inventoryLedger = inventoryLedger.getIfAvailable();
+        this.cacheManager = cacheManager;
+        this.catalogCacheInvalidator = catalogCacheInvalidator;
+        this.eventPublisher = eventPublisher;
+        this.productSearchIndexer = productSearchIndexer;
+        this.catalogSuggester = catalogSuggester;
+        this.productFacetIndexer = productFacetIndexer;
+        this.categoryTreeHolder = categoryTreeHolder;
+        this.productCounter = productCounter;
+        this.skuStockLevels = skuStockLevels;
+        this.productsWithSkus = singleFlightCaches.forCache("productsWithSkus");
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
     }
     
     // Category operations
-    @Transactional(readOnly = true)
-    @Cacheable(value = "categories", key = "#categoryId.value")
-    public Optional<Category> getCategory(EntityId categoryId) {
-        return categoryRepository.findByCategoryId(categoryId);
+    // Cached reads join the caller's transaction; on their own only a miss opens a read-only one
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<CategorySnapshot> getCategory(EntityId categoryId) {
+        return Optional.ofNullable(cacheAside("categories",
+                catalogCacheInvalidator.entryKey("categories", categoryId.getValue()),
+                () -> categoryRepository.findByCategoryId(categoryId).map(CategorySnapshot::from).orElse(null)));
     }
     
-    @Transactional(readOnly = true)
-    @Cacheable(value = "rootCategories")
-    public List<Category> getRootCategories() {
-        return categoryRepository.findByParentCategoryIdIsNullAndActiveTrueOrderBySortOrder();
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategorySnapshot> getRootCategories() {
+        return cacheAside("rootCategories", String.valueOf(catalogCacheInvalidator.categoryListGeneration()),
+                () -> categoryRepository.findByParentCategoryIdIsNullAndActiveTrueOrderBySortOrder().stream()
+                        .map(CategorySnapshot::from)
+                        .toList());
     }
     
-    @Transactional(readOnly = true)
-    @Cacheable(value = "childCategories", key = "#parentCategoryId.value")
-    public List<Category> getChildCategories(EntityId parentCategoryId) {
-        return categoryRepository.findByParentCategoryIdAndActiveTrueOrderBySortOrder(parentCategoryId);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public List<CategorySnapshot> getChildCategories(EntityId parentCategoryId) {
+        return cacheAside("childCategories",
+                catalogCacheInvalidator.categoryListGeneration() + ":" + parentCategoryId.getValue(),
+                () -> categoryRepository.findByParentCategoryIdAndActiveTrueOrderBySortOrder(parentCategoryId).stream()
+                        .map(CategorySnapshot::from)
+                        .toList());
     }
     
     @Transactional(readOnly = true)
@@ -53,16 +127,18 @@ public class CatalogService {
     }
     
     public Category createRootCategory(String name, String description) {
-        Category category = Category.createRoot(name, description);
-        return categoryRepository.save(category);
+        Category category = categoryRepository.save(Category.createRoot(name, description));
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId(), category.getVersion()));
+        return category;
     }
     
     public Category createChildCategory(String name, String description, EntityId parentCategoryId) {
         if (!categoryRepository.existsByCategoryId(parentCategoryId)) {
             throw new IllegalArgumentException("Parent category not found");
         }
-        Category category = Category.createChild(name, description, parentCategoryId);
-        return categoryRepository.save(category);
+        Category category = categoryRepository.save(Category.createChild(name, description, parentCategoryId));
+        eventPublisher.publishEvent(new CategoryChangedEvent(category.getCategoryId(), category.getVersion()));
+        return category;
     }
     
     public Category updateCategory(EntityId categoryId, String name, String description) {
@@ -72,7 +148,10 @@ public class CatalogService {
         category.updateName(name);
         category.updateDescription(description);
         
-        return categoryRepository.save(category);
+        // Flushed here so the event can carry the version the row is written at
+        Category savedCategory = categoryRepository.saveAndFlush(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId, savedCategory.getVersion()));
+        return savedCategory;
     }
     
     public void deactivateCategory(EntityId categoryId) {
@@ -80,20 +159,44 @@ public class CatalogService {
                 .orElseThrow(() -> new IllegalArgumentException("Category not found"));
         
         category.deactivate();
-        categoryRepository.save(category);
+        Category savedCategory = categoryRepository.saveAndFlush(category);
+        eventPublisher.publishEvent(new CategoryChangedEvent(categoryId, savedCategory.getVersion()));
+    }
+    
+    // Whole hierarchy, breadcrumbs and subtrees are answered from the in-memory snapshot
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CategoryTree getCategoryTree() {
+        return categoryTreeHolder.current();
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CategoryTree.Node> getCategoryPath(EntityId categoryId) {
+        return categoryTreeHolder.current().pathTo(categoryId.getValue());
+    }
+    
+    // Typeahead over product names, SKU codes and category names; served from memory without a transaction
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<CatalogSuggestion> suggest(String prefix, int limit) {
+        return catalogSuggester.suggest(prefix, limit);
     }
     
     // Product operations
-    @Transactional(readOnly = true)
-    @Cacheable(value = "products", key = "#productId.value")
-    public Optional<Product> getProduct(EntityId productId) {
-        return productRepository.findByProductId(productId);
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<ProductSnapshot> getProduct(EntityId productId) {
+        return Optional.ofNullable(cacheAside("products",
+                catalogCacheInvalidator.entryKey("products", productId.getValue()),
+                () -> productRepository.findByProductId(productId).map(ProductSnapshot::from).orElse(null)));
     }
     
-    @Transactional(readOnly = true)
-    @Cacheable(value = "productsWithSkus", key = "#productId.value")
-    public Optional<Product> getProductWithSkus(EntityId productId) {
-        return productRepository.findByProductIdWithSkus(productId);
+    // Product pages are the hottest keys: concurrent misses share one query (per node, and across nodes
+    // through a Redis lease), and entries are refreshed in the background instead of expiring under load
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<ProductSnapshot> getProductWithSkus(EntityId productId) {
+        return Optional.ofNullable(productsWithSkus.get(
+                catalogCacheInvalidator.entryKey("productsWithSkus", productId.getValue()),
+                () -> readOnlyTransaction.execute(status -> productRepository.findByProductIdWithSkus(productId)
+                        .map(ProductSnapshot::fromWithSkus)
+                        .orElse(null))));
     }
     
     @Transactional(readOnly = true)
@@ -101,23 +204,137 @@ public class CatalogService {
         return productRepository.findByCategoryIdAndActiveTrue(categoryId, pageable);
     }
     
+    @Transactional(readOnly = true)
+    public Slice<Product> getProductsByCategory(EntityId categoryId, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return getProductsByCategory(categoryId, pageable);
+        }
+        Slice<Product> products = productRepository.findSliceByCategoryIdAndActiveTrue(categoryId, pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            return CountMode.withApproximateTotal(products, productCounter.activeProducts(categoryId.getValue()));
+        }
+        return products;
+    }
+    
+    // Keyset page in id order; afterId 0 starts from the beginning. categoryId may be null for all products
+    @Transactional(readOnly = true)
+    public Slice<Product> getActiveProductsAfter(EntityId categoryId, long afterId, int size) {
+        if (size <= 0 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        PageRequest firstRows = PageRequest.of(0, size);
+        if (categoryId != null) {
+            return productRepository.findByCategoryIdAndActiveTrueAfter(categoryId, afterId, firstRows);
+        }
+        return productRepository.findActiveProductsAfter(afterId, firstRows);
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<Product> getProductsInCategoryTree(EntityId categoryId, Pageable pageable) {
+        Set<String> categoryIds = categoryTreeHolder.current().descendantIds(categoryId.getValue());
+        if (categoryIds.isEmpty()) {
+            // Not in the active tree: fall back to the products filed directly under it
+            return getProductsByCategory(categoryId, pageable);
+        }
+        return productRepository.findByCategoryIdInAndActiveTrue(categoryIds, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public Slice<Product> getProductsInCategoryTree(EntityId categoryId, Pageable pageable, CountMode countMode) {
+        Set<String> categoryIds = categoryTreeHolder.current().descendantIds(categoryId.getValue());
+        if (categoryIds.isEmpty()) {
+            return getProductsByCategory(categoryId, pageable, countMode);
+        }
+        if (countMode == CountMode.EXACT) {
+            return productRepository.findByCategoryIdInAndActiveTrue(categoryIds, pageable);
+        }
+        Slice<Product> products = productRepository.findSliceByCategoryIdInAndActiveTrue(categoryIds, pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            return CountMode.withApproximateTotal(products, productCounter.activeProducts(categoryIds));
+        }
+        return products;
+    }
+    
     @Transactional(readOnly = true)
     public Page<Product> searchProducts(String keyword, Pageable pageable) {
         return productRepository.findByKeywordAndActiveTrue(keyword, pageable);
     }
     
+    // LIKE search has no counter to approximate from, so APPROXIMATE behaves like NONE there;
+    // FULL_TEXT always reports the index's exact hit count, which costs no query
+    @Transactional(readOnly = true)
+    public Slice<Product> searchProducts(String keyword, ProductSearchMode searchMode, Pageable pageable,
+                                         CountMode countMode) {
+        boolean indexed = searchMode == ProductSearchMode.FULL_TEXT && productSearchIndexer.isReady();
+        if (countMode == CountMode.EXACT || indexed) {
+            return searchProducts(keyword, searchMode, pageable);
+        }
+        return productRepository.findSliceByKeywordAndActiveTrue(keyword, pageable);
+    }
+    
+    @Transactional(readOnly = true)
+    public Page<Product> searchProducts(String keyword, ProductSearchMode searchMode, Pageable pageable) {
+        // Until the index has been built the database search keeps serving requests
+        if (searchMode != ProductSearchMode.FULL_TEXT || !productSearchIndexer.isReady()) {
+            return searchProducts(keyword, pageable);
+        }
+        
+        ProductSearchIndex.Hits hits = productSearchIndexer.search(
+                keyword, (int) pageable.getOffset(), pageable.getPageSize());
+        return new PageImpl<>(findActiveInOrder(hits.getProductIds()), pageable, hits.getTotalHits());
+    }
+    
+    @Transactional(readOnly = true)
+    public ProductFacetPage browseProducts(ProductFacetQuery query, Pageable pageable) {
+        // The keyword is an unranked filter here; FULL_TEXT search is the ranked alternative
+        Collection<String> keywordMatches = query.getKeyword() != null
+                ? productSearchIndexer.matchingProductIds(query.getKeyword())
+                : null;
+        ProductFacetIndex.Result result = productFacetIndexer.query(
+                query, keywordMatches, (int) pageable.getOffset(), pageable.getPageSize());
+        Page<Product> products = new PageImpl<>(findActiveInOrder(result.getProductIds()), pageable,
+                result.getTotalHits());
+        return new ProductFacetPage(products, result.getFacets());
+    }
+    
+    private List<Product> findActiveInOrder(List<String> productIds) {
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        Map<String, Product> productsById = productRepository.findAllByProductIdIn(productIds).stream()
+                .filter(Product::isActive)
+                .collect(Collectors.toMap(product -> product.getProductId().getValue(), product -> product));
+        return productIds.stream()
+                .map(productsById::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+    
     @Transactional(readOnly = true)
     public Page<Product> getAllActiveProducts(Pageable pageable) {
         return productRepository.findActiveProducts(pageable);
     }
     
+    @Transactional(readOnly = true)
+    public Slice<Product> getAllActiveProducts(Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return getAllActiveProducts(pageable);
+        }
+        Slice<Product> products = productRepository.findActiveProductsSlice(pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            return CountMode.withApproximateTotal(products, productCounter.activeProducts());
+        }
+        return products;
+    }
+    
     public Product createProduct(String name, String description, EntityId categoryId, Money basePrice) {
         if (!categoryRepository.existsByCategoryId(categoryId)) {
             throw new IllegalArgumentException("Category not found");
         }
         
-        Product product = new Product(name, description, categoryId, basePrice);
-        return productRepository.save(product);
+        Product product = productRepository.save(new Product(name, description, categoryId, basePrice));
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getProductId(), product.getVersion()));
+        return product;
     }
     
     public Product updateProduct(EntityId productId, String name, String description, Money basePrice) {
@@ -128,7 +345,9 @@ public class CatalogService {
         product.updateDescription(description);
         product.updateBasePrice(basePrice);
         
-        return productRepository.save(product);
+        Product savedProduct = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, savedProduct.getVersion()));
+        return savedProduct;
     }
     
     public void deactivateProduct(EntityId productId) {
@@ -136,14 +355,48 @@ public class CatalogService {
                 .orElseThrow(() -> new IllegalArgumentException("Product not found"));
         
         product.deactivate();
-        productRepository.save(product);
+        Product savedProduct = productRepository.saveAndFlush(product);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, savedProduct.getVersion()));
     }
     
     // SKU operations
+    @Transactional(propagation = Propagation.SUPPORTS)
+    public Optional<SkuSnapshot> getSku(EntityId skuId) {
+        return Optional.ofNullable(cacheAside("skus", catalogCacheInvalidator.entryKey("skus", skuId.getValue()),
+                () -> skuRepository.findBySkuIdWithProduct(skuId).map(SkuSnapshot::from).orElse(null)));
+    }
+    
     @Transactional(readOnly = true)
-    @Cacheable(value = "skus", key = "#skuId.value")
-    public Optional<Sku> getSku(EntityId skuId) {
-        return skuRepository.findBySkuId(skuId);
+    public Map<EntityId, SkuSnapshot> getSkus(Collection<EntityId> skuIds) {
+        Map<EntityId, SkuSnapshot> skus = new HashMap<>();
+        Cache cache = cacheManager.getCache("skus");
+        
+        // Serve what the "skus" cache already holds, then load all misses with one IN query
+        List<String> skuIdValues = new LinkedHashSet<>(skuIds).stream()
+                .map(EntityId::getValue)
+                .toList();
+        Map<String, String> keys = catalogCacheInvalidator.entryKeys("skus", skuIdValues);
+        Map<String, Object> cached = cachedValues(cache, skuIdValues.stream().map(keys::get).toList());
+        List<String> missingSkuIdValues = new ArrayList<>();
+        for (String skuIdValue : skuIdValues) {
+            if (cached.get(keys.get(skuIdValue)) instanceof SkuSnapshot snapshot) {
+                skus.put(EntityId.of(skuIdValue), snapshot);
+            } else {
+                missingSkuIdValues.add(skuIdValue);
+            }
+        }
+        
+        if (!missingSkuIdValues.isEmpty()) {
+            for (Sku sku : skuRepository.findAllBySkuIdInWithProduct(missingSkuIdValues)) {
+                SkuSnapshot snapshot = SkuSnapshot.from(sku);
+                skus.put(sku.getSkuId(), snapshot);
+                if (cache != null) {
+                    cache.put(keys.get(snapshot.getSkuId()), snapshot);
+                }
+            }
+        }
+        
+        return skus;
     }
     
     @Transactional(readOnly = true)
@@ -167,52 +420,282 @@ public class CatalogService {
         Sku sku = new Sku(skuCode, name, description, product, price);
         product.addSku(sku);
         
-        return skuRepository.save(sku);
+        Sku savedSku = skuRepository.save(sku);
+        eventPublisher.publishEvent(new ProductChangedEvent(productId, product.getVersion()));
+        eventPublisher.publishEvent(new SkuChangedEvent(savedSku.getSkuId(), savedSku.getVersion()));
+        return savedSku;
     }
     
     public Sku updateSku(EntityId skuId, String name, String description, Money price) {
         Sku sku = skuRepository.findBySkuId(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
+        boolean priceChanged = !sku.getPrice().equals(price);
+        
         sku.updateName(name);
         sku.updateDescription(description);
         sku.updatePrice(price);
         
-        return skuRepository.save(sku);
+        Sku savedSku = skuRepository.saveAndFlush(sku);
+        Product product = savedSku.getProduct();
+        eventPublisher.publishEvent(new ProductChangedEvent(product.getProductId(), product.getVersion()));
+        eventPublisher.publishEvent(new SkuChangedEvent(skuId, savedSku.getVersion()));
+        if (priceChanged) {
+            eventPublisher.publishEvent(new SkuPriceChangedEvent(skuId, price));
+        }
+        return savedSku;
     }
     
     public void updateStock(EntityId skuId, int quantity) {
+        if (reservationMode == StockReservationMode.LEDGER) {
+            if (quantity < 0) {
+                throw new IllegalArgumentException("Stock quantity cannot be negative");
+            }
+            inventoryLedger.updateStock(skuId, quantity);
+            return;
+        }
+        
         Sku sku = skuRepository.findBySkuId(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
         sku.updateStockQuantity(quantity);
-        skuRepository.save(sku);
+        publishStockChanged(skuRepository.saveAndFlush(sku));
+    }
+    
+    public boolean canFulfillQuantity(SkuSnapshot sku, int quantity) {
+        if (reservationMode == StockReservationMode.LEDGER) {
+            return inventoryLedger.canFulfillQuantity(EntityId.of(sku.getSkuId()), quantity);
+        }
+        if (!sku.isTrackInventory()) {
+            return true;
+        }
+        StockLevel level = skuStockLevels.get(sku.getSkuId());
+        return level != null && level.getAvailableQuantity() >= quantity;
+    }
+    
+    // Stock levels are read apart from the cached SKU snapshots and may trail other nodes' writes briefly;
+    // reservations always re-check against the row
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Optional<StockLevel> getStockLevel(EntityId skuId) {
+        return Optional.ofNullable(skuStockLevels.get(skuId.getValue()));
+    }
+    
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public Map<String, StockLevel> getStockLevels(Collection<String> skuIdValues) {
+        return skuStockLevels.getAll(skuIdValues);
     }
     
     public void reserveStock(EntityId skuId, int quantity) {
+        if (reservationMode == StockReservationMode.LEDGER) {
+            requirePositive(quantity, "Reserve quantity must be positive");
+            if (!inventoryLedger.reserve(skuId, quantity)) {
+                throw new IllegalStateException("Insufficient stock available");
+            }
+            return;
+        }
+        
+        if (reservationMode == StockReservationMode.ATOMIC) {
+            requirePositive(quantity, "Reserve quantity must be positive");
+            if (skuRepository.reserveStockAtomically(skuId, quantity) == 0) {
+                throw stockUpdateRejected(skuId, "Insufficient stock available");
+            }
+            eventPublisher.publishEvent(new SkuStockChangedEvent(skuId));
+            return;
+        }
+        
         Sku sku = skuRepository.findBySkuIdWithLock(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
         sku.reserveStock(quantity);
-        skuRepository.save(sku);
+        publishStockChanged(skuRepository.saveAndFlush(sku));
+    }
+    
+    public Map<EntityId, Sku> reserveStock(Map<EntityId, Integer> quantities) {
+        List<String> skuIdValues = quantities.keySet().stream()
+                .map(EntityId::getValue)
+                .toList();
+        
+        if (reservationMode == StockReservationMode.ATOMIC) {
+            Map<EntityId, Sku> skus = requireActiveSkus(quantities, skuRepository.findAllBySkuIdIn(skuIdValues));
+            
+            // Update rows in a fixed order so concurrent checkouts take their row locks in the same sequence
+            List<Map.Entry<EntityId, Integer>> entries = quantities.entrySet().stream()
+                    .sorted(Map.Entry.comparingByKey(Comparator.comparing(EntityId::getValue)))
+                    .toList();
+            for (Map.Entry<EntityId, Integer> entry : entries) {
+                requirePositive(entry.getValue(), "Reserve quantity must be positive");
+                if (skuRepository.reserveStockAtomically(entry.getKey(), entry.getValue()) == 0) {
+                    throw new IllegalArgumentException("Insufficient stock for SKU: " + skus.get(entry.getKey()).getSkuCode());
+                }
+                eventPublisher.publishEvent(new SkuStockChangedEvent(entry.getKey()));
+            }
+            // The UPDATEs cleared the persistence context; reload so callers see the reserved quantities
+            return requireActiveSkus(quantities, skuRepository.findAllBySkuIdIn(skuIdValues));
+        }
+        
+        if (reservationMode == StockReservationMode.LEDGER) {
+            Map<EntityId, Sku> skus = requireActiveSkus(quantities, skuRepository.findAllBySkuIdIn(skuIdValues));
+            
+            // Reservations already taken are handed back by the ledger if this transaction rolls back
+            for (Map.Entry<EntityId, Integer> entry : quantities.entrySet()) {
+                requirePositive(entry.getValue(), "Reserve quantity must be positive");
+                if (!inventoryLedger.canFulfillQuantity(entry.getKey(), entry.getValue())
+                        || !inventoryLedger.reserve(entry.getKey(), entry.getValue())) {
+                    throw new IllegalArgumentException("Insufficient stock for SKU: " + skus.get(entry.getKey()).getSkuCode());
+                }
+            }
+            return skus;
+        }
+        
+        // Lock every SKU in one round trip; rows come back ordered by id so concurrent
+        // checkouts always acquire their locks in the same order
+        Map<EntityId, Sku> reservedSkus = requireActiveSkus(quantities, skuRepository.findAllBySkuIdInWithLock(skuIdValues));
+        
+        for (Map.Entry<EntityId, Integer> entry : quantities.entrySet()) {
+            Sku sku = reservedSkus.get(entry.getKey());
+            if (!sku.canFulfillQuantity(entry.getValue())) {
+                throw new IllegalArgumentException("Insufficient stock for SKU: " + sku.getSkuCode());
+            }
+            
+            sku.reserveStock(entry.getValue());
+        }
+        
+        // Dirty SKUs are flushed together as a single JDBC batch (see hibernate.jdbc.batch_size)
+        skuRepository.saveAll(reservedSkus.values());
+        skuRepository.flush();
+        reservedSkus.values().forEach(this::publishStockChanged);
+        
+        return reservedSkus;
     }
     
     public void releaseReservedStock(EntityId skuId, int quantity) {
+        if (reservationMode == StockReservationMode.LEDGER) {
+            requirePositive(quantity, "Release quantity must be positive");
+            if (!inventoryLedger.release(skuId, quantity)) {
+                throw new IllegalStateException("Cannot release more than reserved quantity");
+            }
+            return;
+        }
+        
+        if (reservationMode == StockReservationMode.ATOMIC) {
+            requirePositive(quantity, "Release quantity must be positive");
+            if (skuRepository.releaseReservedStockAtomically(skuId, quantity) == 0) {
+                throw stockUpdateRejected(skuId, "Cannot release more than reserved quantity");
+            }
+            eventPublisher.publishEvent(new SkuStockChangedEvent(skuId));
+            return;
+        }
+        
         Sku sku = skuRepository.findBySkuIdWithLock(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
         sku.releaseReservedStock(quantity);
-        skuRepository.save(sku);
+        publishStockChanged(skuRepository.saveAndFlush(sku));
     }
     
     public void consumeReservedStock(EntityId skuId, int quantity) {
+        if (reservationMode == StockReservationMode.LEDGER) {
+            requirePositive(quantity, "Consume quantity must be positive");
+            if (!inventoryLedger.consume(skuId, quantity)) {
+                throw new IllegalStateException("Cannot consume more than reserved quantity");
+            }
+            return;
+        }
+        
+        if (reservationMode == StockReservationMode.ATOMIC) {
+            requirePositive(quantity, "Consume quantity must be positive");
+            if (skuRepository.consumeReservedStockAtomically(skuId, quantity) == 0) {
+                throw stockUpdateRejected(skuId, "Cannot consume more than reserved quantity");
+            }
+            eventPublisher.publishEvent(new SkuStockChangedEvent(skuId));
+            return;
+        }
+        
         Sku sku = skuRepository.findBySkuIdWithLock(skuId)
                 .orElseThrow(() -> new IllegalArgumentException("SKU not found"));
         
         sku.consumeReservedStock(quantity);
-        skuRepository.save(sku);
+        publishStockChanged(skuRepository.saveAndFlush(sku));
+    }
+    
+    // Call after the flush so the event carries the levels and version the row was written at
+    private void publishStockChanged(Sku sku) {
+        eventPublisher.publishEvent(SkuStockChangedEvent.of(sku));
+    }
+    
+    // With the Redis cache manager the near-tier misses are fetched with one MGET instead of a round trip per key
+    // The key is taken once, before the load. @Cacheable evaluates it again for the put, which would file a load
+    // that raced a commit under the generation the commit just advanced to. A null result is cached as well.
+    @SuppressWarnings("unchecked")
+    private <T> T cacheAside(String cacheName, String key, Supplier<T> loader) {
+        Cache cache = cacheManager.getCache(cacheName);
+        Cache.ValueWrapper cached = cache != null ? cache.get(key) : null;
+        if (cached != null) {
+            return (T) cached.get();
+        }
+        T loaded = readOnlyTransaction.execute(status -> loader.get());
+        if (cache != null) {
+            cache.put(key, loaded);
+        }
+        return loaded;
+    }
+    
+    private static Map<String, Object> cachedValues(Cache cache, List<String> keys) {
+        if (cache instanceof TwoLevelCache twoLevelCache) {
+            return twoLevelCache.getAll(keys);
+        }
+        Map<String, Object> values = new HashMap<>();
+        if (cache != null) {
+            for (String key : keys) {
+                Cache.ValueWrapper cached = cache.get(key);
+                if (cached != null) {
+                    values.put(key, cached.get());
+                }
+            }
+        }
+        return values;
+    }
+    
+    private Map<EntityId, Sku> requireActiveSkus(Map<EntityId, Integer> quantities, List<Sku> skus) {
+        Map<EntityId, Sku> skusById = skus.stream()
+                .collect(Collectors.toMap(Sku::getSkuId, sku -> sku));
+        
+        // Load the owning products up front so callers can read product names without one query per line
+        Set<Long> productIds = skus.stream()
+                .map(sku -> sku.getProduct().getId())
+                .collect(Collectors.toSet());
+        productRepository.findAllById(productIds);
+        
+        Map<EntityId, Sku> orderedSkus = new LinkedHashMap<>();
+        for (EntityId skuId : quantities.keySet()) {
+            Sku sku = skusById.get(skuId);
+            if (sku == null) {
+                throw new IllegalArgumentException("SKU not found: " + skuId);
+            }
+            
+            if (!sku.isActive()) {
+                throw new IllegalArgumentException("SKU is not active: " + sku.getSkuCode());
+            }
+            
+            orderedSkus.put(skuId, sku);
+        }
+        return orderedSkus;
+    }
+    
+    private void requirePositive(int quantity, String message) {
+        if (quantity <= 0) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+    
+    private RuntimeException stockUpdateRejected(EntityId skuId, String message) {
+        // The conditional UPDATE matched no row: tell a missing SKU apart from a failed stock check
+        boolean activeSkuExists = skuRepository.findBySkuId(skuId)
+                .map(Sku::isActive)
+                .orElse(false);
+        if (!activeSkuExists) {
+            return new IllegalArgumentException("SKU not found");
+        }
+        return new IllegalStateException(message);
     }
 }
-
-
-
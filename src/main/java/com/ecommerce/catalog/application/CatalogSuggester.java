@@ -0,0 +1,199 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.CategoryChangedEvent;
+import com.ecommerce.catalog.domain.ProductChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Serves typeahead suggestions for product names, SKU codes and category names.
+// Popularity is units ordered within the last popularity-window-days (products, SKUs) or active product
+// count (categories); it is refreshed by the periodic rebuild, while creates, renames and deactivations
+// are applied as they commit.
+@Component
+public class CatalogSuggester {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSuggester.class);
+    
+    // Units ordered per SKU since the start of the popularity window; the order_date range keeps the
+    // aggregate to recent orders instead of the whole order history
+    private static final String RECENT_UNITS =
+            "(SELECT oi.sku_id, SUM(oi.quantity) AS units FROM orders o JOIN order_items oi ON oi.order_id = o.id " +
+            "WHERE o.order_date >= ? GROUP BY oi.sku_id)";
+    
+    private static final String SELECT_PRODUCTS =
+            "SELECT p.product_id, p.name, COALESCE(SUM(r.units), 0) AS popularity FROM products p " +
+            "LEFT JOIN skus s ON s.product_id = p.id LEFT JOIN " + RECENT_UNITS + " r ON r.sku_id = s.sku_id " +
+            "WHERE p.active = true GROUP BY p.id, p.product_id, p.name";
+    
+    private static final String SELECT_SKUS =
+            "SELECT s.sku_id, s.sku_code, COALESCE(MAX(r.units), 0) AS popularity FROM skus s " +
+            "LEFT JOIN " + RECENT_UNITS + " r ON r.sku_id = s.sku_id WHERE s.active = true " +
+            "GROUP BY s.id, s.sku_id, s.sku_code";
+    
+    private static final String SELECT_CATEGORIES =
+            "SELECT c.category_id, c.name, COUNT(p.id) AS popularity FROM categories c " +
+            "LEFT JOIN products p ON p.category_id = c.category_id AND p.active = true " +
+            "WHERE c.active = true GROUP BY c.id, c.category_id, c.name";
+    
+    private static final String SELECT_PRODUCT =
+            "SELECT id, name, active FROM products WHERE product_id = ?";
+    
+    private static final String SELECT_PRODUCT_SKUS =
+            "SELECT sku_id, sku_code, active FROM skus WHERE product_id = ?";
+    
+    private static final String SELECT_CATEGORY =
+            "SELECT name FROM categories WHERE category_id = ? AND active = true";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final int maxResults;
+    private final Duration popularityWindow;
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    private volatile CatalogSuggestionIndex index;
+    private volatile boolean rebuilding;
+    
+    public CatalogSuggester(JdbcTemplate jdbcTemplate,
+                            @Value("${app.catalog.suggest.max-results:10}") int maxResults,
+                            @Value("${app.catalog.suggest.popularity-window-days:30}") int popularityWindowDays) {
+        if (popularityWindowDays <= 0) {
+            throw new IllegalArgumentException("popularityWindowDays must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.maxResults = maxResults;
+        this.popularityWindow = Duration.ofDays(popularityWindowDays);
+    }
+    
+    public List<CatalogSuggestion> suggest(String prefix, int limit) {
+        CatalogSuggestionIndex current = index;
+        if (current == null) {
+            return Collections.emptyList();
+        }
+        return current.suggest(prefix, Math.min(limit, maxResults));
+    }
+    
+    // First run happens right after startup; later runs refresh popularity
+    @Scheduled(fixedDelayString = "${app.catalog.suggest.refresh-interval-ms:300000}")
+    public void rebuild() {
+        rebuilding = true;
+        changedDuringRebuild.clear();
+        try {
+            long start = System.currentTimeMillis();
+            Timestamp windowStart = Timestamp.valueOf(LocalDateTime.now().minus(popularityWindow));
+            List<CatalogSuggestion> suggestions = new ArrayList<>();
+            jdbcTemplate.query(SELECT_PRODUCTS, rs -> {
+                suggestions.add(new CatalogSuggestion(CatalogSuggestion.Type.PRODUCT,
+                        rs.getString("product_id"), rs.getString("name"), rs.getLong("popularity")));
+            }, windowStart);
+            jdbcTemplate.query(SELECT_SKUS, rs -> {
+                suggestions.add(new CatalogSuggestion(CatalogSuggestion.Type.SKU,
+                        rs.getString("sku_id"), rs.getString("sku_code"), rs.getLong("popularity")));
+            }, windowStart);
+            jdbcTemplate.query(SELECT_CATEGORIES, rs -> {
+                suggestions.add(new CatalogSuggestion(CatalogSuggestion.Type.CATEGORY,
+                        rs.getString("category_id"), rs.getString("name"), rs.getLong("popularity")));
+            });
+            
+            CatalogSuggestionIndex rebuilt = CatalogSuggestionIndex.build(suggestions, maxResults);
+            index = rebuilt;
+            for (String change : changedDuringRebuild) {
+                apply(rebuilt, change);
+            }
+            logger.debug("Catalog suggestions rebuilt with {} entries in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to rebuild catalog suggestions", e);
+        } finally {
+            rebuilding = false;
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        onChange(CatalogSuggestion.key(CatalogSuggestion.Type.PRODUCT, event.getProductId().getValue()));
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        onChange(CatalogSuggestion.key(CatalogSuggestion.Type.CATEGORY, event.getCategoryId().getValue()));
+    }
+    
+    private void onChange(String change) {
+        if (rebuilding) {
+            changedDuringRebuild.add(change);
+        }
+        CatalogSuggestionIndex current = index;
+        if (current != null) {
+            apply(current, change);
+        }
+    }
+    
+    private void apply(CatalogSuggestionIndex target, String change) {
+        int separator = change.indexOf(':');
+        CatalogSuggestion.Type type = CatalogSuggestion.Type.valueOf(change.substring(0, separator));
+        String id = change.substring(separator + 1);
+        
+        if (type == CatalogSuggestion.Type.CATEGORY) {
+            List<String> names = jdbcTemplate.queryForList(SELECT_CATEGORY, String.class, id);
+            upsertOrRemove(target, type, id, names.isEmpty() ? null : names.get(0));
+            return;
+        }
+        
+        List<ProductRow> products = jdbcTemplate.query(SELECT_PRODUCT,
+                (rs, rowNum) -> new ProductRow(rs.getLong("id"), rs.getBoolean("active") ? rs.getString("name") : null),
+                id);
+        if (products.isEmpty()) {
+            target.remove(CatalogSuggestion.Type.PRODUCT, id);
+            return;
+        }
+        ProductRow product = products.get(0);
+        upsertOrRemove(target, CatalogSuggestion.Type.PRODUCT, id, product.activeName);
+        
+        // SKU create/rename/deactivate arrives as a change of the owning product; a deactivated
+        // product takes its SKU codes out of the suggestions too
+        jdbcTemplate.query(SELECT_PRODUCT_SKUS, rs -> {
+            boolean visible = product.activeName != null && rs.getBoolean("active");
+            upsertOrRemove(target, CatalogSuggestion.Type.SKU, rs.getString("sku_id"),
+                    visible ? rs.getString("sku_code") : null);
+        }, product.id);
+    }
+    
+    private static void upsertOrRemove(CatalogSuggestionIndex target, CatalogSuggestion.Type type,
+                                       String id, String text) {
+        if (text == null) {
+            target.remove(type, id);
+            return;
+        }
+        CatalogSuggestion existing = target.get(type, id);
+        if (existing != null && existing.getText().equals(text)) {
+            return;
+        }
+        long popularity = existing != null ? existing.getPopularity() : 0;
+        target.put(new CatalogSuggestion(type, id, text, popularity));
+    }
+    
+    private static class ProductRow {
+        private final long id;
+        // null when the product is inactive
+        private final String activeName;
+        
+        private ProductRow(long id, String activeName) {
+            this.id = id;
+            this.activeName = activeName;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ecommerce.catalog.application;
+
+public class CatalogSuggestion {
+    
+    public enum Type {
+        PRODUCT, SKU, CATEGORY
+    }
+    
+    private final Type type;
+    private final String id;
+    private final String text;
+    private final long popularity;
+    private final String key;
+    
+    public CatalogSuggestion(Type type, String id, String text, long popularity) {
+        this.type = type;
+        this.id = id;
+        this.text = text;
+        this.popularity = popularity;
+        this.key = key(type, id);
+    }
+    
+    static String key(Type type, String id) {
+        return type.name() + ":" + id;
+    }
+    
+    public Type getType() {
+        return type;
+    }
+    
+    public String getId() {
+        return id;
+    }
+    
+    public String getText() {
+        return text;
+    }
+    
+    public long getPopularity() {
+        return popularity;
+    }
+    
+    String getKey() {
+        return key;
+    }
+}
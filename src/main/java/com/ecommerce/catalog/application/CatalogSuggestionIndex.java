@@ -0,0 +1,259 @@
+package com.ecommerce.catalog.application;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Radix trie over lower-cased catalog names. Every word start of a name is a key, so "pro" finds
+// "iPhone 15 Pro". Each node keeps the top suggestions of its subtree by popularity, which makes a
+// lookup a walk down the prefix plus a copy of at most maxResults entries.
+public class CatalogSuggestionIndex {
+    
+    private static final Comparator<CatalogSuggestion> RANKING = Comparator
+            .comparingLong(CatalogSuggestion::getPopularity).reversed()
+            .thenComparingInt(suggestion -> suggestion.getText().length())
+            .thenComparing(CatalogSuggestion::getText);
+    
+    private final int maxResults;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Node root = new Node("");
+    private final Map<String, CatalogSuggestion> suggestionsByKey = new HashMap<>();
+    
+    public CatalogSuggestionIndex(int maxResults) {
+        if (maxResults <= 0) {
+            throw new IllegalArgumentException("maxResults must be positive");
+        }
+        this.maxResults = maxResults;
+    }
+    
+    // Bulk load: inserts everything first and computes the per-node rankings in one pass
+    public static CatalogSuggestionIndex build(Collection<CatalogSuggestion> suggestions, int maxResults) {
+        CatalogSuggestionIndex index = new CatalogSuggestionIndex(maxResults);
+        for (CatalogSuggestion suggestion : suggestions) {
+            index.suggestionsByKey.put(suggestion.getKey(), suggestion);
+            for (String key : keys(suggestion.getText())) {
+                index.insert(key, suggestion, null);
+            }
+        }
+        index.rankSubtree(index.root);
+        return index;
+    }
+    
+    public void put(CatalogSuggestion suggestion) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(suggestion.getKey());
+            suggestionsByKey.put(suggestion.getKey(), suggestion);
+            for (String key : keys(suggestion.getText())) {
+                List<Node> path = new ArrayList<>();
+                insert(key, suggestion, path);
+                rankPath(path);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(CatalogSuggestion.Type type, String id) {
+        lock.writeLock().lock();
+        try {
+            removeLocked(CatalogSuggestion.key(type, id));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public CatalogSuggestion get(CatalogSuggestion.Type type, String id) {
+        lock.readLock().lock();
+        try {
+            return suggestionsByKey.get(CatalogSuggestion.key(type, id));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public List<CatalogSuggestion> suggest(String prefix, int limit) {
+        String normalized = normalize(prefix);
+        if (normalized.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        
+        lock.readLock().lock();
+        try {
+            Node node = root;
+            int position = 0;
+            while (position < normalized.length()) {
+                Node child = node.children.get(normalized.charAt(position));
+                if (child == null) {
+                    return Collections.emptyList();
+                }
+                int matched = commonPrefixLength(child.label, normalized, position);
+                if (position + matched == normalized.length()) {
+                    // Prefix ends inside or at the end of this edge
+                    node = child;
+                    break;
+                }
+                if (matched < child.label.length()) {
+                    return Collections.emptyList();
+                }
+                position += matched;
+                node = child;
+            }
+            List<CatalogSuggestion> top = node.top;
+            return new ArrayList<>(top.subList(0, Math.min(limit, top.size())));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return suggestionsByKey.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private void removeLocked(String suggestionKey) {
+        CatalogSuggestion existing = suggestionsByKey.remove(suggestionKey);
+        if (existing == null) {
+            return;
+        }
+        for (String key : keys(existing.getText())) {
+            List<Node> path = findPath(key);
+            if (path != null) {
+                path.get(path.size() - 1).terminals.remove(existing);
+                rankPath(path);
+            }
+        }
+    }
+    
+    private void insert(String key, CatalogSuggestion suggestion, List<Node> path) {
+        Node node = root;
+        if (path != null) {
+            path.add(node);
+        }
+        int position = 0;
+        while (position < key.length()) {
+            char next = key.charAt(position);
+            Node child = node.children.get(next);
+            if (child == null) {
+                child = new Node(key.substring(position));
+                node.children.put(next, child);
+                position = key.length();
+            } else {
+                int matched = commonPrefixLength(child.label, key, position);
+                if (matched < child.label.length()) {
+                    // Split the edge: the shared part becomes a new inner node
+                    Node inner = new Node(child.label.substring(0, matched));
+                    child.label = child.label.substring(matched);
+                    inner.children.put(child.label.charAt(0), child);
+                    inner.top = new ArrayList<>(child.top);
+                    node.children.put(next, inner);
+                    child = inner;
+                }
+                position += matched;
+            }
+            node = child;
+            if (path != null) {
+                path.add(node);
+            }
+        }
+        if (!node.terminals.contains(suggestion)) {
+            node.terminals.add(suggestion);
+        }
+    }
+    
+    private List<Node> findPath(String key) {
+        List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        int position = 0;
+        while (position < key.length()) {
+            Node child = node.children.get(key.charAt(position));
+            if (child == null || !key.startsWith(child.label, position)) {
+                return null;
+            }
+            position += child.label.length();
+            node = child;
+            path.add(node);
+        }
+        return path;
+    }
+    
+    private void rankPath(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            rank(path.get(i));
+        }
+    }
+    
+    private void rankSubtree(Node node) {
+        for (Node child : node.children.values()) {
+            rankSubtree(child);
+        }
+        rank(node);
+    }
+    
+    private void rank(Node node) {
+        // The same suggestion can reach a node through several keys; keep its first occurrence
+        Map<String, CatalogSuggestion> candidates = new LinkedHashMap<>();
+        for (CatalogSuggestion terminal : node.terminals) {
+            candidates.putIfAbsent(terminal.getKey(), terminal);
+        }
+        for (Node child : node.children.values()) {
+            for (CatalogSuggestion suggestion : child.top) {
+                candidates.putIfAbsent(suggestion.getKey(), suggestion);
+            }
+        }
+        List<CatalogSuggestion> ranked = new ArrayList<>(candidates.values());
+        ranked.sort(RANKING);
+        node.top = ranked.size() > maxResults ? new ArrayList<>(ranked.subList(0, maxResults)) : ranked;
+    }
+    
+    private static int commonPrefixLength(String label, String text, int offset) {
+        int length = Math.min(label.length(), text.length() - offset);
+        int i = 0;
+        while (i < length && label.charAt(i) == text.charAt(offset + i)) {
+            i++;
+        }
+        return i;
+    }
+    
+    static List<String> keys(String text) {
+        String normalized = normalize(text);
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; i < normalized.length(); i++) {
+            if (normalized.charAt(i) != ' ' && (i == 0 || normalized.charAt(i - 1) == ' ')) {
+                keys.add(normalized.substring(i));
+            }
+        }
+        return keys;
+    }
+    
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+    
+    private static final class Node {
+        private String label;
+        private final Map<Character, Node> children = new HashMap<>(4);
+        private final List<CatalogSuggestion> terminals = new ArrayList<>(1);
+        private List<CatalogSuggestion> top = Collections.emptyList();
+        
+        private Node(String label) {
+            this.label = label;
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.Category;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+// Immutable, entity-free copy of a category as cached for reads
+public final class CategorySnapshot {
+    
+    private final String categoryId;
+    private final String name;
+    private final String description;
+    private final String parentCategoryId;
+    private final boolean active;
+    private final int sortOrder;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long version;
+    
+    @JsonCreator
+    private CategorySnapshot(@JsonProperty("categoryId") String categoryId,
+                             @JsonProperty("name") String name,
+                             @JsonProperty("description") String description,
+                             @JsonProperty("parentCategoryId") String parentCategoryId,
+                             @JsonProperty("active") boolean active,
+                             @JsonProperty("sortOrder") int sortOrder,
+                             @JsonProperty("createdAt") LocalDateTime createdAt,
+                             @JsonProperty("updatedAt") LocalDateTime updatedAt,
+                             @JsonProperty("version") long version) {
+        this.categoryId = categoryId;
+        this.name = name;
+        this.description = description;
+        this.parentCategoryId = parentCategoryId;
+        this.active = active;
+        this.sortOrder = sortOrder;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+    
+    public static CategorySnapshot from(Category category) {
+        return new CategorySnapshot(
+                category.getCategoryId().getValue(),
+                category.getName(),
+                category.getDescription(),
+                category.getParentCategoryId() != null ? category.getParentCategoryId().getValue() : null,
+                category.isActive(),
+                category.getSortOrder(),
+                category.getCreatedAt(),
+                category.getUpdatedAt(),
+                category.getVersion() != null ? category.getVersion() : 0
+        );
+    }
+    
+    public String getCategoryId() {
+        return categoryId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getParentCategoryId() {
+        return parentCategoryId;
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public int getSortOrder() {
+        return sortOrder;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,185 @@
+package com.ecommerce.catalog.application;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+// Immutable snapshot of the active category hierarchy. Built once from flat rows and replaced as a
+// whole, so readers never see a half-applied change and need no locking.
+public final class CategoryTree {
+    
+    private static final Comparator<Node> SORT_ORDER = Comparator
+            .comparingInt(Node::getSortOrder)
+            .thenComparing(Node::getName);
+    
+    private final List<Node> roots;
+    private final Map<String, Node> nodesById;
+    
+    private CategoryTree(List<Node> roots, Map<String, Node> nodesById) {
+        this.roots = roots;
+        this.nodesById = nodesById;
+    }
+    
+    // A row whose parent is missing or inactive is attached as a root rather than dropped
+    public static CategoryTree build(Collection<Row> rows) {
+        Map<String, Row> rowsById = new HashMap<>();
+        for (Row row : rows) {
+            rowsById.put(row.categoryId, row);
+        }
+        
+        Map<String, List<String>> childIdsByParent = new HashMap<>();
+        List<String> rootIds = new ArrayList<>();
+        for (Row row : rows) {
+            if (row.parentCategoryId == null || !rowsById.containsKey(row.parentCategoryId)) {
+                rootIds.add(row.categoryId);
+            } else {
+                childIdsByParent.computeIfAbsent(row.parentCategoryId, id -> new ArrayList<>()).add(row.categoryId);
+            }
+        }
+        
+        Map<String, Node> nodesById = new HashMap<>();
+        List<Node> roots = new ArrayList<>(rootIds.size());
+        for (String rootId : rootIds) {
+            roots.add(buildNode(rowsById.get(rootId), null, 0, rowsById, childIdsByParent, nodesById));
+        }
+        roots.sort(SORT_ORDER);
+        // Rows in a parent cycle are unreachable from any root and stay out of the snapshot
+        return new CategoryTree(Collections.unmodifiableList(roots), Collections.unmodifiableMap(nodesById));
+    }
+    
+    private static Node buildNode(Row row, Node parent, int depth, Map<String, Row> rowsById,
+                                  Map<String, List<String>> childIdsByParent, Map<String, Node> nodesById) {
+        Node node = new Node(row, parent, depth);
+        nodesById.put(row.categoryId, node);
+        List<String> childIds = childIdsByParent.getOrDefault(row.categoryId, Collections.emptyList());
+        List<Node> children = new ArrayList<>(childIds.size());
+        for (String childId : childIds) {
+            children.add(buildNode(rowsById.get(childId), node, depth + 1, rowsById, childIdsByParent, nodesById));
+        }
+        children.sort(SORT_ORDER);
+        node.children = Collections.unmodifiableList(children);
+        return node;
+    }
+    
+    public List<Node> getRoots() {
+        return roots;
+    }
+    
+    public Optional<Node> find(String categoryId) {
+        return Optional.ofNullable(nodesById.get(categoryId));
+    }
+    
+    public boolean contains(String categoryId) {
+        return nodesById.containsKey(categoryId);
+    }
+    
+    // Breadcrumb from the root down to the category itself; empty when the category is not in the tree
+    public List<Node> pathTo(String categoryId) {
+        Node node = nodesById.get(categoryId);
+        if (node == null) {
+            return Collections.emptyList();
+        }
+        Node[] path = new Node[node.depth + 1];
+        for (Node current = node; current != null; current = current.parent) {
+            path[current.depth] = current;
+        }
+        return List.of(path);
+    }
+    
+    // The category and everything below it, in pre-order; empty when the category is not in the tree
+    public Set<String> descendantIds(String categoryId) {
+        Node node = nodesById.get(categoryId);
+        if (node == null) {
+            return Collections.emptySet();
+        }
+        Set<String> ids = new LinkedHashSet<>();
+        Deque<Node> pending = new ArrayDeque<>();
+        pending.push(node);
+        while (!pending.isEmpty()) {
+            Node current = pending.pop();
+            ids.add(current.categoryId);
+            for (int i = current.children.size() - 1; i >= 0; i--) {
+                pending.push(current.children.get(i));
+            }
+        }
+        return ids;
+    }
+    
+    public int size() {
+        return nodesById.size();
+    }
+    
+    public static final class Row {
+        
+        private final String categoryId;
+        private final String name;
+        private final String description;
+        private final String parentCategoryId;
+        private final int sortOrder;
+        
+        public Row(String categoryId, String name, String description, String parentCategoryId, int sortOrder) {
+            this.categoryId = categoryId;
+            this.name = name;
+            this.description = description;
+            this.parentCategoryId = parentCategoryId;
+            this.sortOrder = sortOrder;
+        }
+    }
+    
+    public static final class Node {
+        
+        private final String categoryId;
+        private final String name;
+        private final String description;
+        private final int sortOrder;
+        private final Node parent;
+        private final int depth;
+        private List<Node> children;
+        
+        private Node(Row row, Node parent, int depth) {
+            this.categoryId = row.categoryId;
+            this.name = row.name;
+            this.description = row.description;
+            this.sortOrder = row.sortOrder;
+            this.parent = parent;
+            this.depth = depth;
+        }
+        
+        public String getCategoryId() {
+            return categoryId;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public String getDescription() {
+            return description;
+        }
+        
+        public int getSortOrder() {
+            return sortOrder;
+        }
+        
+        public String getParentCategoryId() {
+            return parent != null ? parent.categoryId : null;
+        }
+        
+        public int getDepth() {
+            return depth;
+        }
+        
+        public List<Node> getChildren() {
+            return children;
+        }
+    }
+}
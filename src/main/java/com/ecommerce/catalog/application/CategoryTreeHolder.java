@@ -0,0 +1,72 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.CategoryChangedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Holds the current category tree snapshot. It is loaded on first use and reloaded after every category
+// change commits; changes committed on other instances are picked up by the reload every reload-interval-ms.
+// Readers always get a complete tree from a single volatile read.
+@Component
+public class CategoryTreeHolder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CategoryTreeHolder.class);
+    
+    private static final String SELECT_ACTIVE_CATEGORIES =
+            "SELECT category_id, name, description, parent_category_id, sort_order FROM categories WHERE active = true";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final AtomicReference<CategoryTree> tree = new AtomicReference<>();
+    
+    public CategoryTreeHolder(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    public CategoryTree current() {
+        CategoryTree current = tree.get();
+        if (current == null) {
+            current = reload();
+        }
+        return current;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onCategoryChanged(CategoryChangedEvent event) {
+        reload();
+    }
+    
+    // A tree nobody has asked for yet is left to load on first use
+    @Scheduled(initialDelayString = "${app.catalog.category-tree.reload-interval-ms:60000}",
+               fixedDelayString = "${app.catalog.category-tree.reload-interval-ms:60000}")
+    public void reloadPeriodically() {
+        if (tree.get() == null) {
+            return;
+        }
+        try {
+            reload();
+        } catch (RuntimeException e) {
+            logger.error("Failed to reload the category tree", e);
+        }
+    }
+    
+    // Serialized so a reload that started later can never be overwritten by an earlier, staler one
+    private synchronized CategoryTree reload() {
+        long start = System.currentTimeMillis();
+        List<CategoryTree.Row> rows = jdbcTemplate.query(SELECT_ACTIVE_CATEGORIES,
+                (rs, rowNum) -> new CategoryTree.Row(rs.getString("category_id"), rs.getString("name"),
+                        rs.getString("description"), rs.getString("parent_category_id"), rs.getInt("sort_order")));
+        CategoryTree rebuilt = CategoryTree.build(rows);
+        tree.set(rebuilt);
+        logger.debug("Category tree loaded with {} categories in {} ms",
+                rebuilt.size(), System.currentTimeMillis() - start);
+        return rebuilt;
+    }
+}
@@ -0,0 +1,292 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.shared.domain.EntityId;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongPredicate;
+
+// Stock and reserved counters per active SKU, kept in memory so reservations never touch the skus row.
+// Each cell packs both counters into one CAS-updated long; changes not yet written accumulate in
+// striped LongAdders that the scheduled flush drains into a single JDBC batch. Only one instance may run the
+// ledger (see InventoryLedgerLock); a second one fails on startup.
+@Component
+@ConditionalOnProperty(name = "app.catalog.stock-reservation-mode", havingValue = "LEDGER")
+public class InventoryLedger implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedger.class);
+    
+    private static final String SELECT_ACTIVE_SKUS =
+            "SELECT sku_id, stock_quantity, reserved_quantity, track_inventory FROM skus WHERE active = true";
+    
+    private static final String SELECT_ACTIVE_SKU =
+            "SELECT sku_id, stock_quantity, reserved_quantity, track_inventory FROM skus WHERE sku_id = ? AND active = true";
+    
+    // Orders that still hold their reservation; mirrors Order.canBeCancelled()
+    private static final String SELECT_OPEN_ORDER_RESERVATIONS =
+            "SELECT oi.sku_id, SUM(oi.quantity) FROM order_items oi JOIN orders o ON o.id = oi.order_id " +
+            "WHERE o.status IN ('PENDING', 'CONFIRMED', 'PROCESSING') GROUP BY oi.sku_id";
+    
+    // Counter deltas leave version alone: they never conflict with an entity edit, which writes only the
+    // columns it changed (Sku is @DynamicUpdate)
+    private static final String APPLY_DELTAS =
+            "UPDATE skus SET reserved_quantity = reserved_quantity + ?, stock_quantity = stock_quantity + ?, " +
+            "updated_at = CURRENT_TIMESTAMP WHERE sku_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final InventoryLedgerLock lock;
+    private final Map<EntityId, StockCell> cells = new ConcurrentHashMap<>();
+    
+    public InventoryLedger(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                           DataSource dataSource) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lock = new InventoryLedgerLock(dataSource);
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        // Runs after migrations and before the web server accepts requests
+        lock.acquire();
+        rebuild();
+    }
+    
+    public void rebuild() {
+        Map<EntityId, StockCell> recovered = new HashMap<>();
+        jdbcTemplate.query(SELECT_ACTIVE_SKUS, rs -> {
+            recovered.put(EntityId.of(rs.getString(1)),
+                    new StockCell(rs.getInt(2), rs.getInt(3), rs.getBoolean(4)));
+        });
+        
+        // Reservations made before a crash may never have been flushed, and releases may have been lost the same
+        // way. Open orders are the durable record of what is held, so reserved is reset to exactly their sum; the
+        // correction is written by the next flush.
+        Map<EntityId, Integer> held = new HashMap<>();
+        jdbcTemplate.query(SELECT_OPEN_ORDER_RESERVATIONS, rs -> {
+            held.put(EntityId.of(rs.getString(1)), rs.getInt(2));
+        });
+        int corrected = 0;
+        for (Map.Entry<EntityId, StockCell> entry : recovered.entrySet()) {
+            StockCell cell = entry.getValue();
+            int correction = held.getOrDefault(entry.getKey(), 0) - cell.reserved();
+            if (correction != 0) {
+                cell.apply(0, correction);
+                cell.reservedDelta.add(correction);
+                corrected++;
+            }
+        }
+        
+        cells.clear();
+        cells.putAll(recovered);
+        logger.info("Inventory ledger rebuilt for {} SKUs, reserved corrected for {}", recovered.size(), corrected);
+    }
+    
+    public boolean reserve(EntityId skuId, int quantity) {
+        requireLock();
+        StockCell cell = requireCell(skuId);
+        if (!cell.tryApply(0, quantity, state -> available(state) >= quantity)) {
+            return false;
+        }
+        cell.reservedDelta.add(quantity);
+        undoOnRollback(cell, 0, -quantity);
+        return true;
+    }
+    
+    public boolean release(EntityId skuId, int quantity) {
+        requireLock();
+        StockCell cell = requireCell(skuId);
+        if (!cell.tryApply(0, -quantity, state -> reserved(state) >= quantity)) {
+            return false;
+        }
+        cell.reservedDelta.add(-quantity);
+        undoOnRollback(cell, 0, quantity);
+        return true;
+    }
+    
+    public boolean consume(EntityId skuId, int quantity) {
+        requireLock();
+        StockCell cell = requireCell(skuId);
+        if (!cell.tryApply(-quantity, -quantity, state -> reserved(state) >= quantity)) {
+            return false;
+        }
+        cell.reservedDelta.add(-quantity);
+        cell.stockDelta.add(-quantity);
+        undoOnRollback(cell, quantity, quantity);
+        return true;
+    }
+    
+    public void updateStock(EntityId skuId, int stockQuantity) {
+        requireLock();
+        StockCell cell = requireCell(skuId);
+        int previous;
+        long state;
+        do {
+            state = cell.state.get();
+            previous = stock(state);
+        } while (!cell.state.compareAndSet(state, pack(stockQuantity, reserved(state))));
+        
+        int change = stockQuantity - previous;
+        cell.stockDelta.add(change);
+        undoOnRollback(cell, -change, 0);
+    }
+    
+    public int getAvailableQuantity(EntityId skuId) {
+        return available(requireCell(skuId).state.get());
+    }
+    
+    public boolean canFulfillQuantity(EntityId skuId, int quantity) {
+        StockCell cell = requireCell(skuId);
+        return !cell.trackInventory || available(cell.state.get()) >= quantity;
+    }
+    
+    @Scheduled(fixedDelayString = "${app.catalog.ledger.flush-interval-ms:1000}")
+    public void flush() {
+        // Deltas already taken are written even when the lock is gone; they are real reservations
+        lock.verify();
+        List<EntityId> skuIds = new ArrayList<>();
+        List<Object[]> batchArgs = new ArrayList<>();
+        cells.forEach((skuId, cell) -> {
+            long reservedChange = cell.reservedDelta.sumThenReset();
+            long stockChange = cell.stockDelta.sumThenReset();
+            if (reservedChange != 0 || stockChange != 0) {
+                skuIds.add(skuId);
+                batchArgs.add(new Object[] {reservedChange, stockChange, skuId.getValue()});
+            }
+        });
+        
+        if (batchArgs.isEmpty()) {
+            return;
+        }
+        
+        try {
+            transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(APPLY_DELTAS, batchArgs));
+        } catch (RuntimeException ex) {
+            // Put the drained deltas back so the next flush retries them
+            for (int i = 0; i < skuIds.size(); i++) {
+                StockCell cell = cells.get(skuIds.get(i));
+                if (cell != null) {
+                    cell.reservedDelta.add((long) batchArgs.get(i)[0]);
+                    cell.stockDelta.add((long) batchArgs.get(i)[1]);
+                }
+            }
+            logger.error("Failed to flush inventory ledger for {} SKUs", skuIds.size(), ex);
+        }
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        flush();
+        lock.release();
+    }
+    
+    private void requireLock() {
+        if (!lock.isHeld()) {
+            throw new IllegalStateException("Inventory ledger lock is not held; stock changes are refused");
+        }
+    }
+    
+    private StockCell requireCell(EntityId skuId) {
+        StockCell cell = cells.get(skuId);
+        if (cell != null) {
+            return cell;
+        }
+        // Loaded outside the map so the query does not block other updates to the same bin
+        StockCell loaded = loadCell(skuId);
+        if (loaded == null) {
+            throw new IllegalArgumentException("SKU not found");
+        }
+        StockCell raced = cells.putIfAbsent(skuId, loaded);
+        return raced != null ? raced : loaded;
+    }
+    
+    private StockCell loadCell(EntityId skuId) {
+        // SKUs created after the last rebuild are picked up on first use
+        List<StockCell> rows = jdbcTemplate.query(SELECT_ACTIVE_SKU,
+                (rs, rowNum) -> new StockCell(rs.getInt(2), rs.getInt(3), rs.getBoolean(4)),
+                skuId.getValue());
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+    
+    private void undoOnRollback(StockCell cell, int stockChange, int reservedChange) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_ROLLED_BACK) {
+                    cell.apply(stockChange, reservedChange);
+                    cell.stockDelta.add(stockChange);
+                    cell.reservedDelta.add(reservedChange);
+                }
+            }
+        });
+    }
+    
+    private static long pack(int stock, int reserved) {
+        return ((long) stock << 32) | (reserved & 0xFFFFFFFFL);
+    }
+    
+    private static int stock(long state) {
+        return (int) (state >> 32);
+    }
+    
+    private static int reserved(long state) {
+        return (int) state;
+    }
+    
+    private static int available(long state) {
+        return stock(state) - reserved(state);
+    }
+    
+    private static final class StockCell {
+        
+        private final AtomicLong state;
+        private final LongAdder reservedDelta = new LongAdder();
+        private final LongAdder stockDelta = new LongAdder();
+        private final boolean trackInventory;
+        
+        private StockCell(int stock, int reserved, boolean trackInventory) {
+            this.state = new AtomicLong(pack(stock, reserved));
+            this.trackInventory = trackInventory;
+        }
+        
+        private int reserved() {
+            return InventoryLedger.reserved(state.get());
+        }
+        
+        private boolean tryApply(int stockChange, int reservedChange, LongPredicate guard) {
+            long current;
+            do {
+                current = state.get();
+                if (!guard.test(current)) {
+                    return false;
+                }
+            } while (!state.compareAndSet(current, pack(stock(current) + stockChange, InventoryLedger.reserved(current) + reservedChange)));
+            return true;
+        }
+        
+        private void apply(int stockChange, int reservedChange) {
+            tryApply(stockChange, reservedChange, state -> true);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package com.ecommerce.catalog.application;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+// Keeps LEDGER mode to one instance: the counters live in a single JVM, so a second instance reserving from
+// its own copy would sell the same stock twice. The owner holds a PostgreSQL session advisory lock on a
+// connection of its own for as long as it runs. Other databases (the in-memory H2 of the local profile)
+// cannot be shared between instances and are not locked.
+class InventoryLedgerLock {
+    
+    private static final Logger logger = LoggerFactory.getLogger(InventoryLedgerLock.class);
+    
+    private static final long LOCK_KEY = 0x4C45444745524CL;
+    
+    private final DataSource dataSource;
+    private Connection connection;
+    private boolean shared;
+    private boolean held;
+    
+    InventoryLedgerLock(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+    
+    synchronized void acquire() {
+        Connection candidate = null;
+        try {
+            candidate = dataSource.getConnection();
+            shared = "PostgreSQL".equals(candidate.getMetaData().getDatabaseProductName());
+            if (!shared) {
+                candidate.close();
+                held = true;
+                return;
+            }
+            if (!tryLock(candidate)) {
+                throw new IllegalStateException("Another instance runs the inventory ledger; "
+                        + "app.catalog.stock-reservation-mode=LEDGER supports a single instance only");
+            }
+            connection = candidate;
+            candidate = null;
+            held = true;
+        } catch (SQLException ex) {
+            throw new IllegalStateException("Failed to take the inventory ledger lock", ex);
+        } finally {
+            closeQuietly(candidate);
+        }
+    }
+    
+    // Called on every flush. A lock whose session died is not taken again: another instance may have run the
+    // ledger in between, so this one's counters can no longer be trusted
+    synchronized boolean verify() {
+        if (!shared || !held) {
+            return held;
+        }
+        try {
+            if (connection.isValid(2)) {
+                return true;
+            }
+        } catch (SQLException ex) {
+            // Treated like a closed session
+        }
+        logger.error("Inventory ledger lock lost with its session; stock changes are refused until restart");
+        release();
+        return false;
+    }
+    
+    synchronized boolean isHeld() {
+        return held;
+    }
+    
+    synchronized void release() {
+        held = false;
+        unlockAndClose(connection);
+        connection = null;
+    }
+    
+    private static boolean tryLock(Connection connection) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_try_advisory_lock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() && rs.getBoolean(1);
+            }
+        }
+    }
+    
+    // The connection goes back to the pool with its session still open, so the lock is released explicitly
+    private static void unlockAndClose(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try (PreparedStatement statement = connection.prepareStatement("SELECT pg_advisory_unlock(?)")) {
+            statement.setLong(1, LOCK_KEY);
+            statement.execute();
+        } catch (SQLException ex) {
+            // A dead session holds no locks; the pool drops the broken connection
+        }
+        closeQuietly(connection);
+    }
+    
+    private static void closeQuietly(Connection connection) {
+        if (connection == null) {
+            return;
+        }
+        try {
+            connection.close();
+        } catch (SQLException ex) {
+            logger.warn("Failed to close the inventory ledger lock connection", ex);
+        }
+    }
+}
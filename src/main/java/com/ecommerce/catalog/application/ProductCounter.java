@@ -0,0 +1,96 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.ProductChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Approximate active product counts for list pages, overall and per category. A count is computed once,
+// dropped when a product in that category changes and recomputed on the next read, so list requests
+// stop paying a COUNT each. Writes that bypass the service are picked up when the entry expires.
+@Component
+public class ProductCounter {
+    
+    private static final String ALL_CATEGORIES = "";
+    
+    private static final String SELECT_ACTIVE_COUNT =
+            "SELECT COUNT(*) FROM products WHERE active = true";
+    
+    private static final String SELECT_ACTIVE_COUNT_BY_CATEGORY =
+            "SELECT COUNT(*) FROM products WHERE active = true AND category_id = ?";
+    
+    private static final String SELECT_ACTIVE_COUNTS_BY_CATEGORIES =
+            "SELECT category_id, COUNT(*) AS active_count FROM products WHERE active = true " +
+            "AND category_id IN (%s) GROUP BY category_id";
+    
+    private static final String SELECT_PRODUCT_CATEGORY =
+            "SELECT category_id FROM products WHERE product_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> activeCounts;
+    
+    public ProductCounter(JdbcTemplate jdbcTemplate,
+                          @Value("${app.catalog.product-counts.expire-after-write-ms:600000}") long expireAfterWriteMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.activeCounts = Caffeine.newBuilder()
+                .maximumSize(10_000)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .build();
+    }
+    
+    public long activeProducts() {
+        return activeCounts.get(ALL_CATEGORIES, key -> count(SELECT_ACTIVE_COUNT));
+    }
+    
+    public long activeProducts(String categoryId) {
+        return activeCounts.get(categoryId, key -> count(SELECT_ACTIVE_COUNT_BY_CATEGORY, categoryId));
+    }
+    
+    // Categories not cached yet (a whole subtree on a cold cache) are counted together in one grouped query
+    public long activeProducts(Collection<String> categoryIds) {
+        long total = 0;
+        for (long count : activeCounts.getAll(categoryIds, this::countAll).values()) {
+            total += count;
+        }
+        return total;
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        // Products never move between categories, so only the current one is affected
+        List<String> categoryIds = jdbcTemplate.queryForList(
+                SELECT_PRODUCT_CATEGORY, String.class, event.getProductId().getValue());
+        activeCounts.invalidateAll(categoryIds);
+        activeCounts.invalidate(ALL_CATEGORIES);
+    }
+    
+    private Map<String, Long> countAll(Set<? extends String> categoryIds) {
+        Map<String, Long> counts = new HashMap<>();
+        for (String categoryId : categoryIds) {
+            // Categories without active products return no group
+            counts.put(categoryId, 0L);
+        }
+        String placeholders = String.join(", ", Collections.nCopies(categoryIds.size(), "?"));
+        jdbcTemplate.query(String.format(SELECT_ACTIVE_COUNTS_BY_CATEGORIES, placeholders), rs -> {
+            counts.put(rs.getString("category_id"), rs.getLong("active_count"));
+        }, categoryIds.toArray());
+        return counts;
+    }
+    
+    private long count(String sql, Object... args) {
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, args);
+        return count != null ? count : 0;
+    }
+}
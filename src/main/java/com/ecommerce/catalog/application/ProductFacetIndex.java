@@ -0,0 +1,327 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.shared.domain.Money;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// Compressed bitmaps over active products, one per facet value, keyed by a dense per-product ordinal.
+// A filter is an AND of bitmaps and every facet count is the cardinality of its bitmap ANDed with the
+// filtered set, so neither needs a pass over the products. Ordinals are never reused: a removed product
+// keeps its slot and gets it back when it is put again.
+public class ProductFacetIndex {
+    
+    // Lower bounds of the price buckets in minor units; the last bucket is open-ended
+    private static final long[] PRICE_BUCKET_BOUNDS = {0, 1000, 2500, 5000, 10000, 25000, 50000, 100000};
+    private static final String[] PRICE_BUCKET_LABELS =
+            {"0-10", "10-25", "25-50", "50-100", "100-250", "250-500", "500-1000", "1000+"};
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinalsByProductId = new HashMap<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final RoaringBitmap digital = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<String, RoaringBitmap> byCurrency = new HashMap<>();
+    private final RoaringBitmap[] byPriceBucket = new RoaringBitmap[PRICE_BUCKET_BOUNDS.length];
+    
+    private RoaringBitmap inStock = new RoaringBitmap();
+    
+    private String[] productIds = new String[1024];
+    private String[] categoryIds = new String[1024];
+    private String[] currencies = new String[1024];
+    private long[] prices = new long[1024];
+    private int ordinalCount;
+    
+    public ProductFacetIndex() {
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            byPriceBucket[i] = new RoaringBitmap();
+        }
+    }
+    
+    public void put(String productId, String categoryId, Money basePrice, boolean isDigital, boolean isInStock) {
+        lock.writeLock().lock();
+        try {
+            Integer existing = ordinalsByProductId.get(productId);
+            int ordinal;
+            if (existing != null) {
+                ordinal = existing;
+                clearLocked(ordinal);
+            } else {
+                ordinal = ordinalCount++;
+                if (ordinal == productIds.length) {
+                    productIds = Arrays.copyOf(productIds, ordinal * 2);
+                    categoryIds = Arrays.copyOf(categoryIds, ordinal * 2);
+                    currencies = Arrays.copyOf(currencies, ordinal * 2);
+                    prices = Arrays.copyOf(prices, ordinal * 2);
+                }
+                productIds[ordinal] = productId;
+                ordinalsByProductId.put(productId, ordinal);
+            }
+            
+            long price = basePrice.toMinorUnits();
+            categoryIds[ordinal] = categoryId;
+            currencies[ordinal] = basePrice.getCurrency();
+            prices[ordinal] = price;
+            
+            live.add(ordinal);
+            byCategory.computeIfAbsent(categoryId, id -> new RoaringBitmap()).add(ordinal);
+            byCurrency.computeIfAbsent(basePrice.getCurrency(), currency -> new RoaringBitmap()).add(ordinal);
+            byPriceBucket[bucketOf(price)].add(ordinal);
+            if (isDigital) {
+                digital.add(ordinal);
+            }
+            if (isInStock) {
+                inStock.add(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public void remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinalsByProductId.get(productId);
+            if (ordinal != null && live.contains(ordinal)) {
+                clearLocked(ordinal);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // Stock moves with every reservation, so availability is replaced wholesale by a periodic refresh
+    // instead of being tracked per change
+    public void replaceInStock(Collection<String> inStockProductIds) {
+        lock.writeLock().lock();
+        try {
+            RoaringBitmap replacement = new RoaringBitmap();
+            for (String productId : inStockProductIds) {
+                Integer ordinal = ordinalsByProductId.get(productId);
+                if (ordinal != null) {
+                    replacement.add(ordinal);
+                }
+            }
+            replacement.and(live);
+            replacement.runOptimize();
+            inStock = replacement;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    // keywordMatches narrows the result to those products when not null
+    public Result query(ProductFacetQuery query, CategoryTree categories, Collection<String> keywordMatches,
+                        int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be positive");
+        }
+        String currency = query.getCurrency();
+        Long minPrice = query.getMinPrice() != null ? Money.of(query.getMinPrice(), currency).toMinorUnits() : null;
+        Long maxPrice = query.getMaxPrice() != null ? Money.of(query.getMaxPrice(), currency).toMinorUnits() : null;
+        String categoryId = query.getCategoryId() != null ? query.getCategoryId().getValue() : null;
+        
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = live.clone();
+            if (categoryId != null) {
+                result.and(subtreeLocked(categories, categoryId));
+            }
+            if (minPrice != null || maxPrice != null) {
+                result.and(priceRangeLocked(currency, minPrice, maxPrice));
+            }
+            if (query.getDigital() != null) {
+                if (query.getDigital()) {
+                    result.and(digital);
+                } else {
+                    result.andNot(digital);
+                }
+            }
+            if (query.getInStock() != null) {
+                if (query.getInStock()) {
+                    result.and(inStock);
+                } else {
+                    result.andNot(inStock);
+                }
+            }
+            if (keywordMatches != null) {
+                RoaringBitmap matches = new RoaringBitmap();
+                for (String productId : keywordMatches) {
+                    Integer ordinal = ordinalsByProductId.get(productId);
+                    if (ordinal != null) {
+                        matches.add(ordinal);
+                    }
+                }
+                result.and(matches);
+            }
+            
+            long total = result.getLongCardinality();
+            List<String> page = new ArrayList<>(limit);
+            if (offset < total) {
+                // Ordinals follow insertion order, so pages are stable between requests
+                PeekableIntIterator iterator = result.getIntIterator();
+                iterator.advanceIfNeeded(result.select(offset));
+                while (iterator.hasNext() && page.size() < limit) {
+                    page.add(productIds[iterator.next()]);
+                }
+            }
+            return new Result(total, page, facetsLocked(result, total, categories, categoryId, currency));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.getCardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    private Map<String, Map<String, Long>> facetsLocked(RoaringBitmap result, long total, CategoryTree categories,
+                                                       String categoryId, String currency) {
+        Map<String, Map<String, Long>> facets = new LinkedHashMap<>();
+        
+        // Drill-down: the children of the selected category, or the top level when none is selected
+        Map<String, Long> categoryCounts = new LinkedHashMap<>();
+        List<CategoryTree.Node> categoryValues = categoryId != null
+                ? categories.find(categoryId).map(CategoryTree.Node::getChildren).orElse(Collections.emptyList())
+                : categories.getRoots();
+        for (CategoryTree.Node child : categoryValues) {
+            long count = RoaringBitmap.andCardinality(result, subtreeLocked(categories, child.getCategoryId()));
+            if (count > 0) {
+                categoryCounts.put(child.getCategoryId(), count);
+            }
+        }
+        facets.put("category", categoryCounts);
+        
+        Map<String, Long> priceBuckets = new LinkedHashMap<>();
+        RoaringBitmap inCurrency = RoaringBitmap.and(result,
+                byCurrency.getOrDefault(currency, new RoaringBitmap()));
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            priceBuckets.put(PRICE_BUCKET_LABELS[i], (long) RoaringBitmap.andCardinality(inCurrency, byPriceBucket[i]));
+        }
+        facets.put("price", priceBuckets);
+        
+        long digitalCount = RoaringBitmap.andCardinality(result, digital);
+        Map<String, Long> digitalFacet = new LinkedHashMap<>();
+        digitalFacet.put("true", digitalCount);
+        digitalFacet.put("false", total - digitalCount);
+        facets.put("digital", digitalFacet);
+        
+        long inStockCount = RoaringBitmap.andCardinality(result, inStock);
+        Map<String, Long> inStockFacet = new LinkedHashMap<>();
+        inStockFacet.put("true", inStockCount);
+        inStockFacet.put("false", total - inStockCount);
+        facets.put("inStock", inStockFacet);
+        
+        return facets;
+    }
+    
+    private RoaringBitmap subtreeLocked(CategoryTree categories, String categoryId) {
+        RoaringBitmap subtree = new RoaringBitmap();
+        // A category outside the active tree still matches the products filed directly under it
+        Collection<String> categoryIds = categories.contains(categoryId)
+                ? categories.descendantIds(categoryId)
+                : List.of(categoryId);
+        for (String id : categoryIds) {
+            RoaringBitmap products = byCategory.get(id);
+            if (products != null) {
+                subtree.or(products);
+            }
+        }
+        return subtree;
+    }
+    
+    private RoaringBitmap priceRangeLocked(String currency, Long minPrice, Long maxPrice) {
+        RoaringBitmap inCurrency = byCurrency.get(currency);
+        RoaringBitmap range = new RoaringBitmap();
+        if (inCurrency == null) {
+            return range;
+        }
+        long low = minPrice != null ? minPrice : 0;
+        long high = maxPrice != null ? maxPrice : Long.MAX_VALUE;
+        for (int i = 0; i < byPriceBucket.length; i++) {
+            long bucketLow = PRICE_BUCKET_BOUNDS[i];
+            long bucketHigh = i + 1 < PRICE_BUCKET_BOUNDS.length ? PRICE_BUCKET_BOUNDS[i + 1] - 1 : Long.MAX_VALUE;
+            if (bucketHigh < low || bucketLow > high) {
+                continue;
+            }
+            if (bucketLow >= low && bucketHigh <= high) {
+                range.or(byPriceBucket[i]);
+                continue;
+            }
+            // Bucket straddles a bound: only its products are checked one by one
+            IntIterator iterator = byPriceBucket[i].getIntIterator();
+            while (iterator.hasNext()) {
+                int ordinal = iterator.next();
+                if (prices[ordinal] >= low && prices[ordinal] <= high) {
+                    range.add(ordinal);
+                }
+            }
+        }
+        range.and(inCurrency);
+        return range;
+    }
+    
+    private void clearLocked(int ordinal) {
+        live.remove(ordinal);
+        digital.remove(ordinal);
+        inStock.remove(ordinal);
+        RoaringBitmap category = byCategory.get(categoryIds[ordinal]);
+        if (category != null) {
+            category.remove(ordinal);
+        }
+        RoaringBitmap currency = byCurrency.get(currencies[ordinal]);
+        if (currency != null) {
+            currency.remove(ordinal);
+        }
+        byPriceBucket[bucketOf(prices[ordinal])].remove(ordinal);
+    }
+    
+    private static int bucketOf(long price) {
+        int bucket = 0;
+        while (bucket + 1 < PRICE_BUCKET_BOUNDS.length && price >= PRICE_BUCKET_BOUNDS[bucket + 1]) {
+            bucket++;
+        }
+        return bucket;
+    }
+    
+    public static final class Result {
+        
+        private final long totalHits;
+        private final List<String> productIds;
+        private final Map<String, Map<String, Long>> facets;
+        
+        private Result(long totalHits, List<String> productIds, Map<String, Map<String, Long>> facets) {
+            this.totalHits = totalHits;
+            this.productIds = productIds;
+            this.facets = facets;
+        }
+        
+        public long getTotalHits() {
+            return totalHits;
+        }
+        
+        public List<String> getProductIds() {
+            return productIds;
+        }
+        
+        public Map<String, Map<String, Long>> getFacets() {
+            return facets;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.ProductChangedEvent;
+import com.ecommerce.shared.domain.Money;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Owns the product facet index: builds it in the background at startup, re-indexes single products after
+// their changes commit and refreshes stock availability on a schedule. Commits on other instances raise no
+// event here, so the whole index is also rebuilt every rebuild-interval-ms. Category subtrees come from the
+// current category tree snapshot at query time.
+@Component
+public class ProductFacetIndexer implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductFacetIndexer.class);
+    
+    private static final int PAGE_SIZE = 1000;
+    
+    private static final String SELECT_PRODUCT_PAGE =
+            "SELECT id, product_id, category_id, base_price, currency, digital FROM products " +
+            "WHERE active = true AND id > ? ORDER BY id LIMIT ?";
+    
+    private static final String SELECT_PRODUCT =
+            "SELECT id, product_id, category_id, base_price, currency, digital FROM products " +
+            "WHERE product_id = ? AND active = true";
+    
+    // A product is in stock when any active SKU can still be sold
+    private static final String SELECT_IN_STOCK_PRODUCTS =
+            "SELECT DISTINCT p.product_id FROM products p JOIN skus s ON s.product_id = p.id " +
+            "WHERE p.active = true AND s.active = true " +
+            "AND (s.track_inventory = false OR s.stock_quantity - s.reserved_quantity > 0)";
+    
+    private static final String SELECT_PRODUCT_IN_STOCK =
+            "SELECT COUNT(*) FROM skus WHERE product_id = ? AND active = true " +
+            "AND (track_inventory = false OR stock_quantity - reserved_quantity > 0)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final CategoryTreeHolder categoryTreeHolder;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-facet-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Products changed while a rebuild was reading the tables; re-applied to the new index after the swap
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    private volatile ProductFacetIndex index;
+    
+    public ProductFacetIndexer(JdbcTemplate jdbcTemplate, CategoryTreeHolder categoryTreeHolder) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.categoryTreeHolder = categoryTreeHolder;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        scheduleRebuild();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+    
+    // Only hands the rebuild to the index thread, so the shared scheduler is not held up
+    @Scheduled(initialDelayString = "${app.catalog.facets.rebuild-interval-ms:300000}",
+               fixedDelayString = "${app.catalog.facets.rebuild-interval-ms:300000}")
+    public void rebuildPeriodically() {
+        scheduleRebuild();
+    }
+    
+    public boolean isReady() {
+        return index != null;
+    }
+    
+    public ProductFacetIndex.Result query(ProductFacetQuery query, Collection<String> keywordMatches,
+                                          int offset, int limit) {
+        ProductFacetIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Product facet index is not built yet");
+        }
+        return current.query(query, categoryTreeHolder.current(), keywordMatches, offset, limit);
+    }
+    
+    @Scheduled(fixedDelayString = "${app.catalog.facets.stock-refresh-interval-ms:30000}")
+    public void refreshStock() {
+        ProductFacetIndex current = index;
+        if (current == null) {
+            return;
+        }
+        try {
+            current.replaceInStock(jdbcTemplate.queryForList(SELECT_IN_STOCK_PRODUCTS, String.class));
+        } catch (RuntimeException e) {
+            logger.error("Failed to refresh product facet stock availability", e);
+        }
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String productId = event.getProductId().getValue();
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(productId);
+        }
+        
+        ProductFacetIndex current = index;
+        if (current != null) {
+            reindex(current, productId);
+        }
+    }
+    
+    private void scheduleRebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            changedDuringRebuild.clear();
+            rebuildExecutor.submit(this::rebuild);
+        }
+    }
+    
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            ProductFacetIndex rebuilt = new ProductFacetIndex();
+            Set<String> inStock = new HashSet<>(jdbcTemplate.queryForList(SELECT_IN_STOCK_PRODUCTS, String.class));
+            
+            long lastId = 0;
+            while (true) {
+                List<ProductRow> products = jdbcTemplate.query(SELECT_PRODUCT_PAGE, (rs, rowNum) -> toRow(rs),
+                        lastId, PAGE_SIZE);
+                if (products.isEmpty()) {
+                    break;
+                }
+                lastId = products.get(products.size() - 1).id;
+                for (ProductRow product : products) {
+                    rebuilt.put(product.productId, product.categoryId, product.basePrice, product.digital,
+                            inStock.contains(product.productId));
+                }
+            }
+            
+            index = rebuilt;
+            for (String productId : changedDuringRebuild) {
+                reindex(rebuilt, productId);
+            }
+            logger.info("Product facet index built with {} products in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build product facet index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+    
+    private void reindex(ProductFacetIndex target, String productId) {
+        List<ProductRow> rows = jdbcTemplate.query(SELECT_PRODUCT, (rs, rowNum) -> toRow(rs), productId);
+        if (rows.isEmpty()) {
+            target.remove(productId);
+            return;
+        }
+        ProductRow product = rows.get(0);
+        Integer sellableSkus = jdbcTemplate.queryForObject(SELECT_PRODUCT_IN_STOCK, Integer.class, product.id);
+        target.put(product.productId, product.categoryId, product.basePrice, product.digital,
+                sellableSkus != null && sellableSkus > 0);
+    }
+    
+    private static ProductRow toRow(ResultSet rs) throws SQLException {
+        return new ProductRow(rs.getLong("id"), rs.getString("product_id"), rs.getString("category_id"),
+                Money.of(rs.getBigDecimal("base_price"), rs.getString("currency")), rs.getBoolean("digital"));
+    }
+    
+    private static class ProductRow {
+        private final long id;
+        private final String productId;
+        private final String categoryId;
+        private final Money basePrice;
+        private final boolean digital;
+        
+        private ProductRow(long id, String productId, String categoryId, Money basePrice, boolean digital) {
+            this.id = id;
+            this.productId = productId;
+            this.categoryId = categoryId;
+            this.basePrice = basePrice;
+            this.digital = digital;
+        }
+    }
+}
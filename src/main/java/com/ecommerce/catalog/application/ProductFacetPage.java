@@ -0,0 +1,25 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.Product;
+import org.springframework.data.domain.Page;
+
+import java.util.Map;
+
+public class ProductFacetPage {
+    
+    private final Page<Product> products;
+    private final Map<String, Map<String, Long>> facets;
+    
+    public ProductFacetPage(Page<Product> products, Map<String, Map<String, Long>> facets) {
+        this.products = products;
+        this.facets = facets;
+    }
+    
+    public Page<Product> getProducts() {
+        return products;
+    }
+    
+    public Map<String, Map<String, Long>> getFacets() {
+        return facets;
+    }
+}
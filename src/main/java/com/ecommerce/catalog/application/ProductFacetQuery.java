@@ -0,0 +1,58 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.shared.domain.EntityId;
+
+import java.math.BigDecimal;
+
+public class ProductFacetQuery {
+    
+    private final EntityId categoryId;
+    private final BigDecimal minPrice;
+    private final BigDecimal maxPrice;
+    private final String currency;
+    private final Boolean digital;
+    private final Boolean inStock;
+    private final String keyword;
+    
+    public ProductFacetQuery(EntityId categoryId, BigDecimal minPrice, BigDecimal maxPrice, String currency,
+                             Boolean digital, Boolean inStock, String keyword) {
+        if (minPrice != null && maxPrice != null && minPrice.compareTo(maxPrice) > 0) {
+            throw new IllegalArgumentException("minPrice cannot be greater than maxPrice");
+        }
+        this.categoryId = categoryId;
+        this.minPrice = minPrice;
+        this.maxPrice = maxPrice;
+        this.currency = currency != null ? currency : "USD";
+        this.digital = digital;
+        this.inStock = inStock;
+        this.keyword = keyword != null && !keyword.trim().isEmpty() ? keyword : null;
+    }
+    
+    public EntityId getCategoryId() {
+        return categoryId;
+    }
+    
+    public BigDecimal getMinPrice() {
+        return minPrice;
+    }
+    
+    public BigDecimal getMaxPrice() {
+        return maxPrice;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public Boolean getDigital() {
+        return digital;
+    }
+    
+    public Boolean getInStock() {
+        return inStock;
+    }
+    
+    public String getKeyword() {
+        return keyword;
+    }
+}
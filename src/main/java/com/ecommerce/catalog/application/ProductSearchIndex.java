@@ -0,0 +1,295 @@
+package com.ecommerce.catalog.application;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+// In-memory inverted index over product text with BM25 ranking.
+// Documents get increasing ids, so every posting list is sorted and queries merge them without per-query
+// score arrays. Updates tombstone the old document and append a new one; document frequencies still count
+// tombstoned documents until the owner rebuilds the index.
+public class ProductSearchIndex {
+    
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    // Name terms count twice so title matches outrank description-only matches
+    private static final int NAME_WEIGHT = 2;
+    
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, PostingList> postings = new HashMap<>();
+    private final Map<String, Integer> docIdsByProductId = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    
+    private String[] productIds = new String[1024];
+    private int[] docLengths = new int[1024];
+    private int docCount;
+    private int liveDocCount;
+    private long liveDocLengthTotal;
+    
+    public void index(String productId, String name, String description, Collection<String> skuTexts) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        int length = addTerms(termFrequencies, name, NAME_WEIGHT);
+        length += addTerms(termFrequencies, description, 1);
+        for (String skuText : skuTexts) {
+            length += addTerms(termFrequencies, skuText, 1);
+        }
+        
+        lock.writeLock().lock();
+        try {
+            removeLocked(productId);
+            if (termFrequencies.isEmpty()) {
+                return;
+            }
+            
+            int docId = docCount++;
+            if (docId == productIds.length) {
+                productIds = Arrays.copyOf(productIds, docId * 2);
+                docLengths = Arrays.copyOf(docLengths, docId * 2);
+            }
+            productIds[docId] = productId;
+            docLengths[docId] = length;
+            docIdsByProductId.put(productId, docId);
+            liveDocCount++;
+            liveDocLengthTotal += length;
+            
+            for (Map.Entry<String, Integer> entry : termFrequencies.entrySet()) {
+                postings.computeIfAbsent(entry.getKey(), term -> new PostingList()).add(docId, entry.getValue());
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public boolean remove(String productId) {
+        lock.writeLock().lock();
+        try {
+            return removeLocked(productId);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+    
+    public Hits search(String query, int offset, int limit) {
+        if (offset < 0 || limit <= 0) {
+            throw new IllegalArgumentException("Offset must not be negative and limit must be positive");
+        }
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        if (terms.isEmpty()) {
+            return new Hits(0, Collections.emptyList());
+        }
+        
+        lock.readLock().lock();
+        try {
+            List<PostingList> lists = new ArrayList<>(terms.size());
+            List<Double> idfs = new ArrayList<>(terms.size());
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    lists.add(list);
+                    idfs.add(Math.log(1 + (docCount - list.size + 0.5) / (list.size + 0.5)));
+                }
+            }
+            if (lists.isEmpty() || liveDocCount == 0) {
+                return new Hits(0, Collections.emptyList());
+            }
+            
+            double averageLength = (double) liveDocLengthTotal / liveDocCount;
+            int wanted = offset + limit;
+            PriorityQueue<ScoredDoc> top = new PriorityQueue<>(Math.min(wanted, 1024) + 1);
+            int[] cursors = new int[lists.size()];
+            long totalHits = 0;
+            
+            while (true) {
+                // Smallest current doc id across the lists is the next candidate
+                int docId = Integer.MAX_VALUE;
+                for (int i = 0; i < lists.size(); i++) {
+                    if (cursors[i] < lists.get(i).size) {
+                        docId = Math.min(docId, lists.get(i).docIds[cursors[i]]);
+                    }
+                }
+                if (docId == Integer.MAX_VALUE) {
+                    break;
+                }
+                
+                double score = 0;
+                double norm = K1 * (1 - B + B * docLengths[docId] / averageLength);
+                for (int i = 0; i < lists.size(); i++) {
+                    PostingList list = lists.get(i);
+                    if (cursors[i] < list.size && list.docIds[cursors[i]] == docId) {
+                        int tf = list.frequencies[cursors[i]];
+                        score += idfs.get(i) * tf * (K1 + 1) / (tf + norm);
+                        cursors[i]++;
+                    }
+                }
+                if (deleted.get(docId)) {
+                    continue;
+                }
+                
+                totalHits++;
+                if (top.size() < wanted) {
+                    top.add(new ScoredDoc(docId, score));
+                } else if (score > top.peek().score) {
+                    top.poll();
+                    top.add(new ScoredDoc(docId, score));
+                }
+            }
+            
+            List<ScoredDoc> ranked = new ArrayList<>(top);
+            ranked.sort(Collections.reverseOrder());
+            List<String> page = new ArrayList<>(limit);
+            for (int i = offset; i < ranked.size(); i++) {
+                page.add(productIds[ranked.get(i).docId]);
+            }
+            return new Hits(totalHits, page);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    // Every live product containing at least one query term, unranked; used as a filter by the facet index
+    public List<String> matchingProductIds(String query) {
+        Set<String> terms = new LinkedHashSet<>(tokenize(query));
+        lock.readLock().lock();
+        try {
+            BitSet matches = new BitSet(docCount);
+            for (String term : terms) {
+                PostingList list = postings.get(term);
+                if (list != null) {
+                    for (int i = 0; i < list.size; i++) {
+                        matches.set(list.docIds[i]);
+                    }
+                }
+            }
+            matches.andNot(deleted);
+            List<String> result = new ArrayList<>(matches.cardinality());
+            for (int docId = matches.nextSetBit(0); docId >= 0; docId = matches.nextSetBit(docId + 1)) {
+                result.add(productIds[docId]);
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveDocCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    public int deletedCount() {
+        lock.readLock().lock();
+        try {
+            return docCount - liveDocCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+    
+    static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null) {
+            return tokens;
+        }
+        StringBuilder current = new StringBuilder();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                current.append(Character.toLowerCase(c));
+            } else if (current.length() > 0) {
+                tokens.add(current.toString());
+                current.setLength(0);
+            }
+        }
+        if (current.length() > 0) {
+            tokens.add(current.toString());
+        }
+        return tokens;
+    }
+    
+    private static int addTerms(Map<String, Integer> termFrequencies, String text, int weight) {
+        List<String> tokens = tokenize(text);
+        for (String token : tokens) {
+            termFrequencies.merge(token, weight, Integer::sum);
+        }
+        return tokens.size() * weight;
+    }
+    
+    private boolean removeLocked(String productId) {
+        Integer docId = docIdsByProductId.remove(productId);
+        if (docId == null) {
+            return false;
+        }
+        deleted.set(docId);
+        liveDocCount--;
+        liveDocLengthTotal -= docLengths[docId];
+        return true;
+    }
+    
+    public static final class Hits {
+        
+        private final long totalHits;
+        private final List<String> productIds;
+        
+        private Hits(long totalHits, List<String> productIds) {
+            this.totalHits = totalHits;
+            this.productIds = productIds;
+        }
+        
+        public long getTotalHits() {
+            return totalHits;
+        }
+        
+        public List<String> getProductIds() {
+            return productIds;
+        }
+    }
+    
+    private static final class PostingList {
+        
+        private int[] docIds = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+        
+        private void add(int docId, int frequency) {
+            if (size == docIds.length) {
+                docIds = Arrays.copyOf(docIds, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            docIds[size] = docId;
+            frequencies[size] = frequency;
+            size++;
+        }
+    }
+    
+    private static final class ScoredDoc implements Comparable<ScoredDoc> {
+        
+        private final int docId;
+        private final double score;
+        
+        private ScoredDoc(int docId, double score) {
+            this.docId = docId;
+            this.score = score;
+        }
+        
+        @Override
+        public int compareTo(ScoredDoc other) {
+            int byScore = Double.compare(score, other.score);
+            // Equal scores: the older document ranks higher
+            return byScore != 0 ? byScore : Integer.compare(other.docId, docId);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.ProductChangedEvent;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Owns the product search index: builds it from the products/skus tables in the background at startup
+// and re-indexes single products after their changes commit. Commits on other instances raise no event
+// here, so the whole index is also rebuilt every rebuild-interval-ms.
+@Component
+public class ProductSearchIndexer implements SmartInitializingSingleton {
+    
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndexer.class);
+    
+    private static final int PAGE_SIZE = 1000;
+    
+    private static final String SELECT_PRODUCT_PAGE =
+            "SELECT id, product_id, name, description FROM products WHERE active = true AND id > ? ORDER BY id LIMIT ?";
+    
+    private static final String SELECT_SKU_TEXT_RANGE =
+            "SELECT product_id, name, sku_code FROM skus WHERE active = true AND product_id BETWEEN ? AND ?";
+    
+    private static final String SELECT_PRODUCT =
+            "SELECT id, product_id, name, description FROM products WHERE product_id = ? AND active = true";
+    
+    private static final String SELECT_SKU_TEXT =
+            "SELECT product_id, name, sku_code FROM skus WHERE active = true AND product_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final ExecutorService rebuildExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "product-search-index");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+    // Products changed while a rebuild was reading the tables; re-applied to the new index after the swap
+    private final Set<String> changedDuringRebuild = ConcurrentHashMap.newKeySet();
+    
+    private volatile ProductSearchIndex index;
+    
+    public ProductSearchIndexer(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+    
+    @Override
+    public void afterSingletonsInstantiated() {
+        scheduleRebuild();
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        rebuildExecutor.shutdownNow();
+    }
+    
+    // Only hands the rebuild to the index thread, so the shared scheduler is not held up
+    @Scheduled(initialDelayString = "${app.catalog.search.rebuild-interval-ms:300000}",
+               fixedDelayString = "${app.catalog.search.rebuild-interval-ms:300000}")
+    public void rebuildPeriodically() {
+        scheduleRebuild();
+    }
+    
+    public boolean isReady() {
+        return index != null;
+    }
+    
+    public ProductSearchIndex.Hits search(String query, int offset, int limit) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Product search index is not built yet");
+        }
+        return current.search(query, offset, limit);
+    }
+    
+    public List<String> matchingProductIds(String query) {
+        ProductSearchIndex current = index;
+        if (current == null) {
+            throw new IllegalStateException("Product search index is not built yet");
+        }
+        return current.matchingProductIds(query);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        String productId = event.getProductId().getValue();
+        if (rebuilding.get()) {
+            changedDuringRebuild.add(productId);
+        }
+        
+        ProductSearchIndex current = index;
+        if (current != null) {
+            reindex(current, productId);
+            // Tombstones inflate posting lists and document frequencies; start over once they outnumber live docs
+            if (current.deletedCount() > current.size()) {
+                scheduleRebuild();
+            }
+        }
+    }
+    
+    private void scheduleRebuild() {
+        if (rebuilding.compareAndSet(false, true)) {
+            changedDuringRebuild.clear();
+            rebuildExecutor.submit(this::rebuild);
+        }
+    }
+    
+    private void rebuild() {
+        try {
+            long start = System.currentTimeMillis();
+            ProductSearchIndex rebuilt = new ProductSearchIndex();
+            long lastId = 0;
+            while (true) {
+                List<ProductRow> products = jdbcTemplate.query(SELECT_PRODUCT_PAGE,
+                        (rs, rowNum) -> new ProductRow(rs.getLong("id"), rs.getString("product_id"),
+                                rs.getString("name"), rs.getString("description")),
+                        lastId, PAGE_SIZE);
+                if (products.isEmpty()) {
+                    break;
+                }
+                
+                long firstId = products.get(0).id;
+                lastId = products.get(products.size() - 1).id;
+                Map<Long, List<String>> skuTexts = new HashMap<>();
+                jdbcTemplate.query(SELECT_SKU_TEXT_RANGE, rs -> {
+                    addSkuText(skuTexts, rs.getLong("product_id"), rs.getString("name"), rs.getString("sku_code"));
+                }, firstId, lastId);
+                
+                for (ProductRow product : products) {
+                    rebuilt.index(product.productId, product.name, product.description,
+                            skuTexts.getOrDefault(product.id, List.of()));
+                }
+            }
+            
+            index = rebuilt;
+            for (String productId : changedDuringRebuild) {
+                reindex(rebuilt, productId);
+            }
+            logger.info("Product search index built with {} products in {} ms",
+                    rebuilt.size(), System.currentTimeMillis() - start);
+        } catch (RuntimeException e) {
+            logger.error("Failed to build product search index", e);
+        } finally {
+            rebuilding.set(false);
+        }
+    }
+    
+    private void reindex(ProductSearchIndex target, String productId) {
+        List<ProductRow> rows = jdbcTemplate.query(SELECT_PRODUCT,
+                (rs, rowNum) -> new ProductRow(rs.getLong("id"), rs.getString("product_id"),
+                        rs.getString("name"), rs.getString("description")),
+                productId);
+        if (rows.isEmpty()) {
+            target.remove(productId);
+            return;
+        }
+        
+        ProductRow product = rows.get(0);
+        Map<Long, List<String>> skuTexts = new HashMap<>();
+        jdbcTemplate.query(SELECT_SKU_TEXT, rs -> {
+            addSkuText(skuTexts, rs.getLong("product_id"), rs.getString("name"), rs.getString("sku_code"));
+        }, product.id);
+        target.index(product.productId, product.name, product.description,
+                skuTexts.getOrDefault(product.id, List.of()));
+    }
+    
+    private static void addSkuText(Map<Long, List<String>> skuTexts, long productId, String name, String skuCode) {
+        List<String> texts = skuTexts.computeIfAbsent(productId, id -> new ArrayList<>());
+        if (name != null) {
+            texts.add(name);
+        }
+        texts.add(skuCode);
+    }
+    
+    private static class ProductRow {
+        private final long id;
+        private final String productId;
+        private final String name;
+        private final String description;
+        
+        private ProductRow(long id, String productId, String name, String description) {
+            this.id = id;
+            this.productId = productId;
+            this.name = name;
+            this.description = description;
+        }
+    }
+}
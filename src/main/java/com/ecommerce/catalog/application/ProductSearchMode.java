@@ -0,0 +1,8 @@
+package com.ecommerce.catalog.application;
+
+public enum ProductSearchMode {
+    // Substring match on name/description in the database
+    LIKE,
+    // BM25-ranked match on tokenized name/description/SKU text from the in-memory index
+    FULL_TEXT
+}
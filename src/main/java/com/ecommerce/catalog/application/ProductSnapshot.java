@@ -0,0 +1,133 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.shared.domain.Money;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Immutable, entity-free copy of a product as cached for reads; skus is null when the SKUs were not loaded
+public final class ProductSnapshot {
+    
+    private final String productId;
+    private final String name;
+    private final String description;
+    private final String categoryId;
+    private final long basePriceMinor;
+    private final String currency;
+    private final boolean active;
+    private final boolean digital;
+    private final String imageUrl;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long version;
+    private final List<SkuSnapshot> skus;
+    
+    @JsonCreator
+    private ProductSnapshot(@JsonProperty("productId") String productId,
+                            @JsonProperty("name") String name,
+                            @JsonProperty("description") String description,
+                            @JsonProperty("categoryId") String categoryId,
+                            @JsonProperty("basePriceMinor") long basePriceMinor,
+                            @JsonProperty("currency") String currency,
+                            @JsonProperty("active") boolean active,
+                            @JsonProperty("digital") boolean digital,
+                            @JsonProperty("imageUrl") String imageUrl,
+                            @JsonProperty("createdAt") LocalDateTime createdAt,
+                            @JsonProperty("updatedAt") LocalDateTime updatedAt,
+                            @JsonProperty("version") long version,
+                            @JsonProperty("skus") List<SkuSnapshot> skus) {
+        this.productId = productId;
+        this.name = name;
+        this.description = description;
+        this.categoryId = categoryId;
+        this.basePriceMinor = basePriceMinor;
+        this.currency = currency;
+        this.active = active;
+        this.digital = digital;
+        this.imageUrl = imageUrl;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+        this.skus = skus != null ? List.copyOf(skus) : null;
+    }
+    
+    public static ProductSnapshot from(Product product) {
+        return of(product, null);
+    }
+    
+    // The SKU collection must already be loaded (fetch-joined or in the session)
+    public static ProductSnapshot fromWithSkus(Product product) {
+        return of(product, product.getSkus().stream()
+                .map(SkuSnapshot::from)
+                .toList());
+    }
+    
+    private static ProductSnapshot of(Product product, List<SkuSnapshot> skus) {
+        return new ProductSnapshot(
+                product.getProductId().getValue(),
+                product.getName(),
+                product.getDescription(),
+                product.getCategoryId().getValue(),
+                product.getBasePrice().toMinorUnits(),
+                product.getBasePrice().getCurrency(),
+                product.isActive(),
+                product.isDigital(),
+                product.getImageUrl(),
+                product.getCreatedAt(),
+                product.getUpdatedAt(),
+                product.getVersion() != null ? product.getVersion() : 0,
+                skus
+        );
+    }
+    
+    public String getProductId() {
+        return productId;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getCategoryId() {
+        return categoryId;
+    }
+    
+    public Money getBasePrice() {
+        return Money.ofMinor(basePriceMinor, currency);
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public boolean isDigital() {
+        return digital;
+    }
+    
+    public String getImageUrl() {
+        return imageUrl;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+    
+    public List<SkuSnapshot> getSkus() {
+        return skus;
+    }
+}
@@ -0,0 +1,131 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.Sku;
+import com.ecommerce.shared.domain.Money;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+
+// Immutable, entity-free copy of a SKU as cached for reads; the product is referenced by id only. Stock and
+// reserved quantities change on every reservation and are read from SkuStockLevels instead.
+public final class SkuSnapshot {
+    
+    private final String skuId;
+    private final String skuCode;
+    private final String name;
+    private final String description;
+    private final String productId;
+    private final long priceMinor;
+    private final String currency;
+    private final boolean active;
+    private final boolean trackInventory;
+    private final int minOrderQuantity;
+    private final int maxOrderQuantity;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+    private final long version;
+    
+    @JsonCreator
+    private SkuSnapshot(@JsonProperty("skuId") String skuId,
+                        @JsonProperty("skuCode") String skuCode,
+                        @JsonProperty("name") String name,
+                        @JsonProperty("description") String description,
+                        @JsonProperty("productId") String productId,
+                        @JsonProperty("priceMinor") long priceMinor,
+                        @JsonProperty("currency") String currency,
+                        @JsonProperty("active") boolean active,
+                        @JsonProperty("trackInventory") boolean trackInventory,
+                        @JsonProperty("minOrderQuantity") int minOrderQuantity,
+                        @JsonProperty("maxOrderQuantity") int maxOrderQuantity,
+                        @JsonProperty("createdAt") LocalDateTime createdAt,
+                        @JsonProperty("updatedAt") LocalDateTime updatedAt,
+                        @JsonProperty("version") long version) {
+        this.skuId = skuId;
+        this.skuCode = skuCode;
+        this.name = name;
+        this.description = description;
+        this.productId = productId;
+        this.priceMinor = priceMinor;
+        this.currency = currency;
+        this.active = active;
+        this.trackInventory = trackInventory;
+        this.minOrderQuantity = minOrderQuantity;
+        this.maxOrderQuantity = maxOrderQuantity;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+        this.version = version;
+    }
+    
+    // The product must already be loaded (fetch-joined or in the session)
+    public static SkuSnapshot from(Sku sku) {
+        return new SkuSnapshot(
+                sku.getSkuId().getValue(),
+                sku.getSkuCode(),
+                sku.getName(),
+                sku.getDescription(),
+                sku.getProduct() != null ? sku.getProduct().getProductId().getValue() : null,
+                sku.getPrice().toMinorUnits(),
+                sku.getPrice().getCurrency(),
+                sku.isActive(),
+                sku.isTrackInventory(),
+                sku.getMinOrderQuantity(),
+                sku.getMaxOrderQuantity(),
+                sku.getCreatedAt(),
+                sku.getUpdatedAt(),
+                sku.getVersion() != null ? sku.getVersion() : 0
+        );
+    }
+    
+    public String getSkuId() {
+        return skuId;
+    }
+    
+    public String getSkuCode() {
+        return skuCode;
+    }
+    
+    public String getName() {
+        return name;
+    }
+    
+    public String getDescription() {
+        return description;
+    }
+    
+    public String getProductId() {
+        return productId;
+    }
+    
+    public Money getPrice() {
+        return Money.ofMinor(priceMinor, currency);
+    }
+    
+    public boolean isActive() {
+        return active;
+    }
+    
+    public boolean isTrackInventory() {
+        return trackInventory;
+    }
+    
+    public int getMinOrderQuantity() {
+        return minOrderQuantity;
+    }
+    
+    public int getMaxOrderQuantity() {
+        return maxOrderQuantity;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,87 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.SkuStockChangedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Per-SKU stock levels, kept apart from the SKU snapshots so reservations do not evict the long-lived
+// catalog caches. Levels are read with a two-column query and held on-heap for a short time. Stock writes
+// on this node replace the entry with the committed levels (never with an older version); bulk UPDATEs
+// drop it. Other nodes pick up a change when their entry expires.
+@Component
+public class SkuStockLevels {
+    
+    private static final String SELECT_LEVEL =
+            "SELECT stock_quantity, reserved_quantity, version FROM skus WHERE sku_id = ?";
+    
+    private static final String SELECT_LEVELS =
+            "SELECT sku_id, stock_quantity, reserved_quantity, version FROM skus WHERE sku_id IN (%s)";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, StockLevel> levels;
+    
+    public SkuStockLevels(JdbcTemplate jdbcTemplate,
+                          @Value("${app.catalog.stock-levels.maximum-size:100000}") long maximumSize,
+                          @Value("${app.catalog.stock-levels.expire-after-write-ms:2000}") long expireAfterWriteMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.levels = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .build();
+    }
+    
+    // Null when the SKU does not exist
+    public StockLevel get(String skuId) {
+        return levels.get(skuId, this::load);
+    }
+    
+    // SKUs that do not exist are missing from the result
+    public Map<String, StockLevel> getAll(Collection<String> skuIds) {
+        if (skuIds.isEmpty()) {
+            return Map.of();
+        }
+        return levels.getAll(skuIds, this::loadAll);
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onStockChanged(SkuStockChangedEvent event) {
+        String skuId = event.getSkuId().getValue();
+        if (!event.hasLevels()) {
+            levels.invalidate(skuId);
+            return;
+        }
+        StockLevel committed = new StockLevel(event.getStockQuantity(), event.getReservedQuantity(), event.getVersion());
+        // Events of concurrent writers can arrive out of order; keep whichever level is newer
+        levels.asMap().compute(skuId, (key, current) ->
+                current != null && current.getVersion() >= committed.getVersion() ? current : committed);
+    }
+    
+    private StockLevel load(String skuId) {
+        List<StockLevel> rows = jdbcTemplate.query(SELECT_LEVEL, (rs, rowNum) -> new StockLevel(
+                rs.getInt("stock_quantity"), rs.getInt("reserved_quantity"), rs.getLong("version")), skuId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+    
+    private Map<String, StockLevel> loadAll(Set<? extends String> skuIds) {
+        String placeholders = String.join(", ", Collections.nCopies(skuIds.size(), "?"));
+        Map<String, StockLevel> loaded = new HashMap<>();
+        jdbcTemplate.query(String.format(SELECT_LEVELS, placeholders), rs -> {
+            loaded.put(rs.getString("sku_id"), new StockLevel(
+                    rs.getInt("stock_quantity"), rs.getInt("reserved_quantity"), rs.getLong("version")));
+        }, skuIds.toArray());
+        return loaded;
+    }
+}
@@ -0,0 +1,31 @@
+package com.ecommerce.catalog.application;
+
+// Stock and reserved quantity of one SKU as of the given row version
+public final class StockLevel {
+    
+    private final int stockQuantity;
+    private final int reservedQuantity;
+    private final long version;
+    
+    public StockLevel(int stockQuantity, int reservedQuantity, long version) {
+        this.stockQuantity = stockQuantity;
+        this.reservedQuantity = reservedQuantity;
+        this.version = version;
+    }
+    
+    public int getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    public int getReservedQuantity() {
+        return reservedQuantity;
+    }
+    
+    public int getAvailableQuantity() {
+        return stockQuantity - reservedQuantity;
+    }
+    
+    public long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,10 @@
+package com.ecommerce.catalog.application;
+
+public enum StockReservationMode {
+    // Load the SKU row, mutate the entity and write it back
+    ENTITY,
+    // Single conditional UPDATE per SKU; the database row lock serialises concurrent reservations
+    ATOMIC,
+    // In-memory InventoryLedger counters, written behind to the skus table in periodic batches
+    LEDGER
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.catalog.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+public class CategoryChangedEvent {
+    
+    private final EntityId categoryId;
+    private final Long version;
+    
+    public CategoryChangedEvent(EntityId categoryId) {
+        this(categoryId, null);
+    }
+    
+    // version is the one the category row was written at, or null when it is not known
+    public CategoryChangedEvent(EntityId categoryId, Long version) {
+        this.categoryId = categoryId;
+        this.version = version;
+    }
+    
+    public EntityId getCategoryId() {
+        return categoryId;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -0,0 +1,27 @@
+package com.ecommerce.catalog.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+public class ProductChangedEvent {
+    
+    private final EntityId productId;
+    private final Long version;
+    
+    public ProductChangedEvent(EntityId productId) {
+        this(productId, null);
+    }
+    
+    // version is the one the product row was written at, or null when it is not known
+    public ProductChangedEvent(EntityId productId, Long version) {
+        this.productId = productId;
+        this.version = version;
+    }
+    
+    public EntityId getProductId() {
+        return productId;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+}
@@ -3,11 +3,13 @@ package com.ecommerce.catalog.domain;
 import com.ecommerce.shared.domain.EntityId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,11 +21,44 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
     @Query("SELECT p FROM Product p WHERE p.active = true AND p.categoryId = :categoryId")
     Page<Product> findByCategoryIdAndActiveTrue(@Param("categoryId") EntityId categoryId, Pageable pageable);
     
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.categoryId.value IN :categoryIdValues")
+    Page<Product> findByCategoryIdInAndActiveTrue(@Param("categoryIdValues") Collection<String> categoryIdValues,
+                                                  Pageable pageable);
+    
+    // Slice variants of the listings above: same rows, no count query
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.categoryId = :categoryId")
+    Slice<Product> findSliceByCategoryIdAndActiveTrue(@Param("categoryId") EntityId categoryId, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.categoryId.value IN :categoryIdValues")
+    Slice<Product> findSliceByCategoryIdInAndActiveTrue(@Param("categoryIdValues") Collection<String> categoryIdValues,
+                                                        Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.active = true AND " +
+           "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
+           "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+    Slice<Product> findSliceByKeywordAndActiveTrue(@Param("keyword") String keyword, Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.active = true")
+    Slice<Product> findActiveProductsSlice(Pageable pageable);
+    
+    // Keyset variants: Slice skips the count query and the id predicate replaces OFFSET
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.categoryId = :categoryId AND p.id > :afterId " +
+           "ORDER BY p.id")
+    Slice<Product> findByCategoryIdAndActiveTrueAfter(@Param("categoryId") EntityId categoryId,
+                                                      @Param("afterId") long afterId,
+                                                      Pageable pageable);
+    
+    @Query("SELECT p FROM Product p WHERE p.active = true AND p.id > :afterId ORDER BY p.id")
+    Slice<Product> findActiveProductsAfter(@Param("afterId") long afterId, Pageable pageable);
+    
     @Query("SELECT p FROM Product p WHERE p.active = true AND " +
            "(LOWER(p.name) LIKE LOWER(CONCAT('%', :keyword, '%')) OR " +
            "LOWER(p.description) LIKE LOWER(CONCAT('%', :keyword, '%')))")
     Page<Product> findByKeywordAndActiveTrue(@Param("keyword") String keyword, Pageable pageable);
     
+    @Query("SELECT p FROM Product p WHERE p.productId.value IN :productIdValues")
+    List<Product> findAllByProductIdIn(@Param("productIdValues") Collection<String> productIdValues);
+    
     @Query("SELECT p FROM Product p WHERE p.active = true")
     Page<Product> findActiveProducts(Pageable pageable);
     
@@ -7,9 +7,12 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Size;
+import org.hibernate.annotations.DynamicUpdate;
 
+// Only changed columns are written, so an edit never overwrites counters the inventory ledger changed meanwhile
 @Entity
 @Table(name = "skus")
+@DynamicUpdate
 public class Sku extends BaseEntity {
     
     @Embedded
@@ -0,0 +1,24 @@
+package com.ecommerce.catalog.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+// A write to a SKU's descriptive data (name, price, ...); stock changes are SkuStockChangedEvent
+public class SkuChangedEvent {
+    
+    private final EntityId skuId;
+    private final Long version;
+    
+    // version is the one the SKU row was written at, or null when it is not known (bulk UPDATE statements)
+    public SkuChangedEvent(EntityId skuId, Long version) {
+        this.skuId = skuId;
+        this.version = version;
+    }
+    
+    public EntityId getSkuId() {
+        return skuId;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+}
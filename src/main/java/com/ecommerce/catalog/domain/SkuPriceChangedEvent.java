@@ -0,0 +1,23 @@
+package com.ecommerce.catalog.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+
+public class SkuPriceChangedEvent {
+    
+    private final EntityId skuId;
+    private final Money price;
+    
+    public SkuPriceChangedEvent(EntityId skuId, Money price) {
+        this.skuId = skuId;
+        this.price = price;
+    }
+    
+    public EntityId getSkuId() {
+        return skuId;
+    }
+    
+    public Money getPrice() {
+        return price;
+    }
+}
@@ -3,11 +3,13 @@ package com.ecommerce.catalog.domain;
 import com.ecommerce.shared.domain.EntityId;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import jakarta.persistence.LockModeType;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +24,38 @@ public interface SkuRepository extends JpaRepository<Sku, Long> {
     @Query("SELECT s FROM Sku s WHERE s.skuId = :skuId AND s.active = true")
     Optional<Sku> findBySkuIdWithLock(@Param("skuId") EntityId skuId);
     
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Sku s WHERE s.skuId.value IN :skuIdValues ORDER BY s.id")
+    List<Sku> findAllBySkuIdInWithLock(@Param("skuIdValues") Collection<String> skuIdValues);
+    
+    @Query("SELECT s FROM Sku s WHERE s.skuId.value IN :skuIdValues")
+    List<Sku> findAllBySkuIdIn(@Param("skuIdValues") Collection<String> skuIdValues);
+    
+    // Snapshot reads record the product id; fetching the product here saves one query per SKU
+    @Query("SELECT s FROM Sku s JOIN FETCH s.product WHERE s.skuId = :skuId")
+    Optional<Sku> findBySkuIdWithProduct(@Param("skuId") EntityId skuId);
+    
+    @Query("SELECT s FROM Sku s JOIN FETCH s.product WHERE s.skuId.value IN :skuIdValues")
+    List<Sku> findAllBySkuIdInWithProduct(@Param("skuIdValues") Collection<String> skuIdValues);
+    
+    // The conditional UPDATEs bypass the persistence context; clearing it makes later reads in the same
+    // transaction load the updated rows instead of returning entities with the old quantities and version
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Sku s SET s.reservedQuantity = s.reservedQuantity + :quantity, s.version = s.version + 1 " +
+           "WHERE s.skuId = :skuId AND s.active = true AND s.stockQuantity - s.reservedQuantity >= :quantity")
+    int reserveStockAtomically(@Param("skuId") EntityId skuId, @Param("quantity") int quantity);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Sku s SET s.reservedQuantity = s.reservedQuantity - :quantity, s.version = s.version + 1 " +
+           "WHERE s.skuId = :skuId AND s.active = true AND s.reservedQuantity >= :quantity")
+    int releaseReservedStockAtomically(@Param("skuId") EntityId skuId, @Param("quantity") int quantity);
+    
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("UPDATE Sku s SET s.reservedQuantity = s.reservedQuantity - :quantity, " +
+           "s.stockQuantity = s.stockQuantity - :quantity, s.version = s.version + 1 " +
+           "WHERE s.skuId = :skuId AND s.active = true AND s.reservedQuantity >= :quantity")
+    int consumeReservedStockAtomically(@Param("skuId") EntityId skuId, @Param("quantity") int quantity);
+    
     @Query("SELECT s FROM Sku s WHERE s.product.productId = :productId AND s.active = true")
     List<Sku> findByProductIdAndActiveTrue(@Param("productId") EntityId productId);
     
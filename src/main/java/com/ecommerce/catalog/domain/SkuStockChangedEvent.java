@@ -0,0 +1,49 @@
+package com.ecommerce.catalog.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+// A write to a SKU's stock or reserved quantity. The committed levels travel with the event when the entity
+// was updated; bulk UPDATE statements only name the SKU (levels and version null).
+public class SkuStockChangedEvent {
+    
+    private final EntityId skuId;
+    private final Integer stockQuantity;
+    private final Integer reservedQuantity;
+    private final Long version;
+    
+    public SkuStockChangedEvent(EntityId skuId) {
+        this(skuId, null, null, null);
+    }
+    
+    public SkuStockChangedEvent(EntityId skuId, Integer stockQuantity, Integer reservedQuantity, Long version) {
+        this.skuId = skuId;
+        this.stockQuantity = stockQuantity;
+        this.reservedQuantity = reservedQuantity;
+        this.version = version;
+    }
+    
+    public static SkuStockChangedEvent of(Sku sku) {
+        return new SkuStockChangedEvent(sku.getSkuId(), sku.getStockQuantity(), sku.getReservedQuantity(),
+                sku.getVersion());
+    }
+    
+    public EntityId getSkuId() {
+        return skuId;
+    }
+    
+    public Integer getStockQuantity() {
+        return stockQuantity;
+    }
+    
+    public Integer getReservedQuantity() {
+        return reservedQuantity;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public boolean hasLevels() {
+        return stockQuantity != null && reservedQuantity != null && version != null;
+    }
+}
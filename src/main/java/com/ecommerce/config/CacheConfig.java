@@ -0,0 +1,104 @@
+package com.ecommerce.config;
+
+import com.ecommerce.catalog.application.CategorySnapshot;
+import com.ecommerce.catalog.application.ProductSnapshot;
+import com.ecommerce.catalog.application.SkuSnapshot;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.type.TypeFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.cache.CacheProperties;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Replaces the auto-configured Redis cache manager when spring.cache.type is redis; the "local" profile
+// keeps the simple in-memory cache.
+@Configuration
+@ConditionalOnProperty(name = "spring.cache.type", havingValue = "redis")
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+    
+    @Bean
+    public TwoLevelCacheManager cacheManager(RedisConnectionFactory connectionFactory, CacheProperties cacheProperties,
+                                             StringRedisTemplate redisTemplate, MeterRegistry meterRegistry,
+                                             @Value("${app.cache.near.cache-names:}") Set<String> nearCacheNames,
+                                             @Value("${app.cache.near.maximum-size:10000}") long nearMaximumSize,
+                                             @Value("${app.cache.near.expire-after-write-ms:60000}") long nearExpireAfterWriteMs,
+                                             @Value("${app.cache.near.invalidation-channel:cache:near-invalidation}") String invalidationChannel) {
+        RedisCacheConfiguration defaults = redisCacheConfiguration(cacheProperties.getRedis());
+        ObjectMapper snapshotMapper = SnapshotCodec.newObjectMapper();
+        Map<String, RedisCacheConfiguration> snapshotCaches = new HashMap<>();
+        snapshotTypes(snapshotMapper.getTypeFactory()).forEach((name, type) -> snapshotCaches.put(name,
+                defaults.serializeValuesWith(RedisSerializationContext.SerializationPair.fromSerializer(
+                        new Jackson2JsonRedisSerializer<>(snapshotMapper, type)))));
+        
+        RedisCacheManager remoteCacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(defaults)
+                .withInitialCacheConfigurations(snapshotCaches)
+                .build();
+        remoteCacheManager.afterPropertiesSet();
+        return new TwoLevelCacheManager(remoteCacheManager, redisTemplate, meterRegistry, nearCacheNames,
+                nearMaximumSize, Duration.ofMillis(nearExpireAfterWriteMs), invalidationChannel);
+    }
+    
+    @Bean
+    public RedisMessageListenerContainer nearCacheInvalidationListener(
+            RedisConnectionFactory connectionFactory, TwoLevelCacheManager cacheManager,
+            @Value("${app.cache.near.invalidation-channel:cache:near-invalidation}") String invalidationChannel) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(
+                (message, pattern) -> cacheManager.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(invalidationChannel));
+        return container;
+    }
+    
+    // Caches holding read-model snapshots, each encoded with SnapshotCodec as one fixed type; any other cache
+    // falls back to JDK serialization
+    private static Map<String, JavaType> snapshotTypes(TypeFactory types) {
+        JavaType categoryList = types.constructCollectionType(List.class, CategorySnapshot.class);
+        return Map.of(
+                "categories", types.constructType(CategorySnapshot.class),
+                "rootCategories", categoryList,
+                "childCategories", categoryList,
+                "products", types.constructType(ProductSnapshot.class),
+                "productsWithSkus", types.constructParametricType(CachedValue.class, ProductSnapshot.class),
+                "skus", types.constructType(SkuSnapshot.class));
+    }
+    
+    // Same spring.cache.redis.* handling as the auto-configuration this replaces
+    private static RedisCacheConfiguration redisCacheConfiguration(CacheProperties.Redis redis) {
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig();
+        if (redis.getTimeToLive() != null) {
+            config = config.entryTtl(redis.getTimeToLive());
+        }
+        if (redis.getKeyPrefix() != null) {
+            config = config.prefixCacheNameWith(redis.getKeyPrefix());
+        }
+        if (!redis.isCacheNullValues()) {
+            config = config.disableCachingNullValues();
+        }
+        if (!redis.isUseKeyPrefix()) {
+            config = config.disableKeyPrefix();
+        }
+        return config;
+    }
+}
@@ -0,0 +1,126 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.CacheLoader;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Generation numbers for cache entries that must never be overwritten by an older load, and for caches whose
+// entries cannot be evicted key by key, such as lists keyed by query. Callers put the generation into every
+// key, so advancing it orphans the entries written under the old one and they simply expire with the TTL; no
+// KEYS/SCAN over Redis. With the Redis cache the counter lives in Redis and each node re-reads it at most once
+// per refresh interval (the node that advances it sees the new value at once); with the in-memory cache it is
+// a local counter. A generation nobody advanced (or whose counter expired) is 0.
+@Component
+public class CacheGenerations {
+    
+    private static final String KEY_PREFIX = "cache:generation:";
+    
+    // ARGV: seed, time to live. Returns the previous generation ('0' when there was no counter) and the new one.
+    // An idle counter expires, so a missing one restarts from the epoch millis rather than from 1: it never comes
+    // back to numbers that entries still in the cache, refreshed up to the last moment, were written under.
+    @SuppressWarnings("rawtypes")
+    private static final RedisScript<List> ADVANCE = new DefaultRedisScript<>(
+            "local previous = redis.call('GET', KEYS[1]) " +
+            "local advanced " +
+            "if previous then advanced = tostring(redis.call('INCR', KEYS[1])) " +
+            "else " +
+            "  redis.call('SET', KEYS[1], ARGV[1]) " +
+            "  advanced = ARGV[1] " +
+            "end " +
+            "redis.call('PEXPIRE', KEYS[1], ARGV[2]) " +
+            "return {previous or '0', advanced}", List.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final LoadingCache<String, Long> sharedGenerations;
+    private final Map<String, AtomicLong> localGenerations = new ConcurrentHashMap<>();
+    private final long timeToLiveMs;
+    
+    public CacheGenerations(ObjectProvider<StringRedisTemplate> redisTemplate,
+                            @Value("${spring.cache.type:simple}") String cacheType,
+                            @Value("${app.cache.generations.refresh-interval-ms:1000}") long refreshIntervalMs,
+                            @Value("${app.cache.generations.maximum-size:100000}") long maximumSize,
+                            @Value("${app.cache.generations.time-to-live-ms:43200000}") long timeToLiveMs) {
+        this.redisTemplate = "redis".equalsIgnoreCase(cacheType) ? redisTemplate.getIfAvailable() : null;
+        this.timeToLiveMs = timeToLiveMs;
+        this.sharedGenerations = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(refreshIntervalMs))
+                .build(new CacheLoader<>() {
+                    @Override
+                    public Long load(String name) {
+                        return readShared(List.of(name)).get(name);
+                    }
+                    
+                    @Override
+                    public Map<String, Long> loadAll(Set<? extends String> names) {
+                        return readShared(names);
+                    }
+                });
+    }
+    
+    public long current(String name) {
+        if (redisTemplate == null) {
+            AtomicLong generation = localGenerations.get(name);
+            return generation != null ? generation.get() : 0L;
+        }
+        return sharedGenerations.get(name);
+    }
+    
+    // Generations not known on this node are read from Redis in one round trip
+    public Map<String, Long> current(Collection<String> names) {
+        if (redisTemplate == null) {
+            Map<String, Long> generations = new HashMap<>();
+            for (String name : names) {
+                generations.put(name, current(name));
+            }
+            return generations;
+        }
+        return sharedGenerations.getAll(names);
+    }
+    
+    // Returns the generation readers used before this advance, so its entries can be dropped. The shared counter
+    // expires time-to-live-ms after its last advance; readers then see 0 until the next advance seeds it again.
+    public long advance(String name) {
+        if (redisTemplate == null) {
+            return localGenerations.computeIfAbsent(name, key -> new AtomicLong()).getAndIncrement();
+        }
+        List<?> reply = redisTemplate.execute(ADVANCE, List.of(KEY_PREFIX + name),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(timeToLiveMs));
+        if (reply == null || reply.size() != 2) {
+            throw new IllegalStateException("Failed to advance cache generation " + name);
+        }
+        sharedGenerations.put(name, Long.parseLong(String.valueOf(reply.get(1))));
+        return Long.parseLong(String.valueOf(reply.get(0)));
+    }
+    
+    private Map<String, Long> readShared(Collection<? extends String> names) {
+        List<String> ordered = new ArrayList<>(names);
+        List<String> keys = new ArrayList<>(ordered.size());
+        for (String name : ordered) {
+            keys.add(KEY_PREFIX + name);
+        }
+        List<String> values = redisTemplate.opsForValue().multiGet(keys);
+        Map<String, Long> generations = new HashMap<>();
+        for (int i = 0; i < ordered.size(); i++) {
+            String value = values != null ? values.get(i) : null;
+            generations.put(ordered.get(i), value != null ? Long.parseLong(value) : 0L);
+        }
+        return generations;
+    }
+}
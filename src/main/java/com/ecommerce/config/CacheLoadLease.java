@@ -0,0 +1,57 @@
+package com.ecommerce.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+// Short Redis lease (SET NX PX) that lets one node at a time load a cache key. It expires on its own if the
+// holder dies, and is released only by the node that took it. Without Redis (redisTemplate null) every
+// acquire succeeds; if Redis fails the node loads anyway rather than failing the read.
+public class CacheLoadLease {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheLoadLease.class);
+    
+    private static final String KEY_PREFIX = "cache:lease:";
+    
+    private static final RedisScript<Long> RELEASE = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    
+    private final StringRedisTemplate redisTemplate;
+    private final Duration leaseTime;
+    private final String nodeId = UUID.randomUUID().toString();
+    
+    public CacheLoadLease(StringRedisTemplate redisTemplate, Duration leaseTime) {
+        this.redisTemplate = redisTemplate;
+        this.leaseTime = leaseTime;
+    }
+    
+    public boolean tryAcquire(String name) {
+        if (redisTemplate == null) {
+            return true;
+        }
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + name, nodeId, leaseTime));
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to take cache load lease {}", name, ex);
+            return true;
+        }
+    }
+    
+    public void release(String name) {
+        if (redisTemplate == null) {
+            return;
+        }
+        try {
+            redisTemplate.execute(RELEASE, List.of(KEY_PREFIX + name), nodeId);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to release cache load lease {}; it expires in {}", name, leaseTime, ex);
+        }
+    }
+}
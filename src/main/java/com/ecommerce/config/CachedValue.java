@@ -0,0 +1,39 @@
+package com.ecommerce.config;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+// Entry written by SingleFlightCache: the value (null caches "not found") with the time it stays fresh and
+// how long loading it took, which scales the early refresh
+public final class CachedValue<V> {
+    
+    private final V value;
+    private final long freshUntil;
+    private final long loadMillis;
+    
+    @JsonCreator
+    public CachedValue(@JsonProperty("value") V value,
+                       @JsonProperty("freshUntil") long freshUntil,
+                       @JsonProperty("loadMillis") long loadMillis) {
+        this.value = value;
+        this.freshUntil = freshUntil;
+        this.loadMillis = loadMillis;
+    }
+    
+    // Unwraps entries of caches read through SingleFlightCache; anything else is returned as is
+    public static Object unwrap(Object cached) {
+        return cached instanceof CachedValue<?> entry ? entry.getValue() : cached;
+    }
+    
+    public V getValue() {
+        return value;
+    }
+    
+    public long getFreshUntil() {
+        return freshUntil;
+    }
+    
+    public long getLoadMillis() {
+        return loadMillis;
+    }
+}
@@ -0,0 +1,213 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+
+// Read-through access to a cache of CachedValue entries that keeps a hot key from stampeding the database:
+// - concurrent misses for a key on this node share one load; across nodes the load runs under a
+//   CacheLoadLease and the nodes that lose wait up to lease-wait for the winner's entry
+// - a fresh entry is refreshed in the background a little before fresh-for runs out, with a probability
+//   that rises towards expiry and with the load time (probabilistic early expiration)
+// - an entry past fresh-for is still served for up to stale-for while one background refresh replaces it
+public class SingleFlightCache<V> {
+    
+    private static final Logger logger = LoggerFactory.getLogger(SingleFlightCache.class);
+    
+    private static final long LEASE_POLL_MS = 20;
+    
+    private final Cache cache;
+    private final CacheLoadLease lease;
+    private final Executor refreshExecutor;
+    private final Duration freshFor;
+    private final Duration staleFor;
+    private final Duration leaseWait;
+    private final double earlyRefreshBeta;
+    private final ConcurrentMap<String, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Counter loads;
+    private final Counter coalesced;
+    private final Counter leaseWaits;
+    private final Counter staleRefreshes;
+    private final Counter earlyRefreshes;
+    
+    public SingleFlightCache(Cache cache, CacheLoadLease lease, Executor refreshExecutor, Duration freshFor,
+                             Duration staleFor, Duration leaseWait, double earlyRefreshBeta,
+                             MeterRegistry meterRegistry) {
+        this.cache = cache;
+        this.lease = lease;
+        this.refreshExecutor = refreshExecutor;
+        this.freshFor = freshFor;
+        this.staleFor = staleFor;
+        this.leaseWait = leaseWait;
+        this.earlyRefreshBeta = earlyRefreshBeta;
+        this.loads = counter(meterRegistry, "cache.single-flight.loads", "result", "loaded");
+        this.coalesced = counter(meterRegistry, "cache.single-flight.loads", "result", "coalesced");
+        this.leaseWaits = counter(meterRegistry, "cache.single-flight.loads", "result", "lease-wait");
+        this.staleRefreshes = counter(meterRegistry, "cache.single-flight.refreshes", "trigger", "stale");
+        this.earlyRefreshes = counter(meterRegistry, "cache.single-flight.refreshes", "trigger", "early");
+    }
+    
+    // The loader returns null for "not found", which is cached like any other value
+    public V get(String key, Supplier<V> loader) {
+        CachedValue<V> cached = read(key);
+        long now = System.currentTimeMillis();
+        if (cached != null && now < cached.getFreshUntil() + staleFor.toMillis()) {
+            if (now >= cached.getFreshUntil()) {
+                staleRefreshes.increment();
+                refreshInBackground(key, loader, cached.getValue());
+            } else if (refreshEarly(cached, now)) {
+                earlyRefreshes.increment();
+                refreshInBackground(key, loader, cached.getValue());
+            }
+            return cached.getValue();
+        }
+        return load(key, loader);
+    }
+    
+    private V load(String key, Supplier<V> loader) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            coalesced.increment();
+            return join(running);
+        }
+        try {
+            // A load that finished between our miss and putIfAbsent has already stored the entry
+            CachedValue<V> cached = read(key);
+            if (cached != null && System.currentTimeMillis() < cached.getFreshUntil() + staleFor.toMillis()) {
+                coalesced.increment();
+                mine.complete(cached.getValue());
+                return cached.getValue();
+            }
+            V value = loadAcrossNodes(key, loader);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException ex) {
+            mine.completeExceptionally(ex);
+            throw ex;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    private V loadAcrossNodes(String key, Supplier<V> loader) {
+        String leaseName = cache.getName() + ":" + key;
+        if (lease.tryAcquire(leaseName)) {
+            try {
+                return loadAndStore(key, loader);
+            } finally {
+                lease.release(leaseName);
+            }
+        }
+        
+        // Another node is loading this key: wait for its entry instead of running the same query
+        long deadline = System.currentTimeMillis() + leaseWait.toMillis();
+        while (System.currentTimeMillis() < deadline) {
+            try {
+                Thread.sleep(LEASE_POLL_MS);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            CachedValue<V> cached = read(key);
+            if (cached != null) {
+                leaseWaits.increment();
+                return cached.getValue();
+            }
+        }
+        // The holder is slow or gone; load here rather than fail the read
+        return loadAndStore(key, loader);
+    }
+    
+    // Readers are never held up by a refresh, and a refresh another node is running is not repeated here
+    private void refreshInBackground(String key, Supplier<V> loader, V current) {
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, mine) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                String leaseName = cache.getName() + ":" + key;
+                try {
+                    if (!lease.tryAcquire(leaseName)) {
+                        mine.complete(current);
+                        return;
+                    }
+                    try {
+                        mine.complete(loadAndStore(key, loader));
+                    } finally {
+                        lease.release(leaseName);
+                    }
+                } catch (RuntimeException ex) {
+                    logger.warn("Background refresh of {} in cache {} failed", key, cache.getName(), ex);
+                    mine.complete(current);
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            mine.complete(current);
+            inFlight.remove(key, mine);
+        }
+    }
+    
+    private V loadAndStore(String key, Supplier<V> loader) {
+        long start = System.currentTimeMillis();
+        V value = loader.get();
+        long end = System.currentTimeMillis();
+        loads.increment();
+        try {
+            cache.put(key, new CachedValue<>(value, end + freshFor.toMillis(), end - start));
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to store {} in cache {}", key, cache.getName(), ex);
+        }
+        return value;
+    }
+    
+    // now - loadMillis * beta * ln(u) >= freshUntil, u uniform in (0, 1]: rare while the entry is young, certain
+    // at expiry, and earlier for values that are slow to load
+    private boolean refreshEarly(CachedValue<V> cached, long now) {
+        double u = 1.0 - ThreadLocalRandom.current().nextDouble();
+        return now - cached.getLoadMillis() * earlyRefreshBeta * Math.log(u) >= cached.getFreshUntil();
+    }
+    
+    @SuppressWarnings("unchecked")
+    private CachedValue<V> read(String key) {
+        try {
+            return cache.get(key, CachedValue.class);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to read {} from cache {}", key, cache.getName(), ex);
+            return null;
+        }
+    }
+    
+    private static <V> V join(CompletableFuture<V> future) {
+        try {
+            return future.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw ex;
+        }
+    }
+    
+    private Counter counter(MeterRegistry meterRegistry, String name, String tag, String value) {
+        return Counter.builder(name)
+                .tag("cache", cache.getName())
+                .tag(tag, value)
+                .register(meterRegistry);
+    }
+}
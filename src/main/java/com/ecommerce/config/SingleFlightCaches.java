@@ -0,0 +1,69 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+// Creates SingleFlightCache views over the configured caches; they share the Redis lease and a small
+// refresh pool whose queue is bounded, so a burst of refreshes is dropped (readers keep the stale value)
+// rather than piling up.
+@Component
+public class SingleFlightCaches {
+    
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+    private final CacheLoadLease lease;
+    private final Duration freshFor;
+    private final Duration staleFor;
+    private final Duration leaseWait;
+    private final double earlyRefreshBeta;
+    private final ExecutorService refreshExecutor = new ThreadPoolExecutor(2, 2, 0, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(1_000), runnable -> {
+                Thread thread = new Thread(runnable, "cache-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+    
+    public SingleFlightCaches(CacheManager cacheManager, MeterRegistry meterRegistry,
+                              ObjectProvider<StringRedisTemplate> redisTemplate,
+                              @Value("${spring.cache.type:simple}") String cacheType,
+                              @Value("${app.cache.single-flight.fresh-for-ms:600000}") long freshForMs,
+                              @Value("${app.cache.single-flight.stale-for-ms:60000}") long staleForMs,
+                              @Value("${app.cache.single-flight.early-refresh-beta:1.0}") double earlyRefreshBeta,
+                              @Value("${app.cache.single-flight.lease-time-ms:5000}") long leaseTimeMs,
+                              @Value("${app.cache.single-flight.lease-wait-ms:2000}") long leaseWaitMs) {
+        this.cacheManager = cacheManager;
+        this.meterRegistry = meterRegistry;
+        this.lease = new CacheLoadLease("redis".equalsIgnoreCase(cacheType) ? redisTemplate.getIfAvailable() : null,
+                Duration.ofMillis(leaseTimeMs));
+        this.freshFor = Duration.ofMillis(freshForMs);
+        this.staleFor = Duration.ofMillis(staleForMs);
+        this.leaseWait = Duration.ofMillis(leaseWaitMs);
+        this.earlyRefreshBeta = earlyRefreshBeta;
+    }
+    
+    public <V> SingleFlightCache<V> forCache(String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            throw new IllegalStateException("Cache not found: " + name);
+        }
+        return new SingleFlightCache<>(cache, lease, refreshExecutor, freshFor, staleFor, leaseWait,
+                earlyRefreshBeta, meterRegistry);
+    }
+    
+    @PreDestroy
+    public void shutdown() {
+        refreshExecutor.shutdownNow();
+    }
+}
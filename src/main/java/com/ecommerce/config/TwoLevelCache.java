@@ -0,0 +1,193 @@
+package com.ecommerce.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+// A bounded on-heap near cache in front of a shared Redis cache. Reads try the near tier first and fill it
+// from Redis on a hit there; every write goes to Redis, updates this node's near tier and is broadcast so
+// the other nodes drop their near copy. A node that misses a broadcast serves its copy until it expires.
+public class TwoLevelCache implements Cache {
+    
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> near;
+    private final Cache remote;
+    // Reads many keys from Redis in one round trip; a null element means no entry
+    private final Function<List<String>, List<ValueWrapper>> remoteMultiGet;
+    // Receives the changed key, or null when the whole cache was cleared
+    private final Consumer<String> invalidationPublisher;
+    private final Counter remoteHits;
+    private final Counter remoteMisses;
+    
+    public TwoLevelCache(String name, com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> near,
+                         Cache remote, Function<List<String>, List<ValueWrapper>> remoteMultiGet,
+                         Consumer<String> invalidationPublisher, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.near = near;
+        this.remote = remote;
+        this.remoteMultiGet = remoteMultiGet;
+        this.invalidationPublisher = invalidationPublisher;
+        this.remoteHits = Counter.builder("cache.gets")
+                .tag("cache", name).tag("tier", "remote").tag("result", "hit")
+                .register(meterRegistry);
+        this.remoteMisses = Counter.builder("cache.gets")
+                .tag("cache", name).tag("tier", "remote").tag("result", "miss")
+                .register(meterRegistry);
+    }
+    
+    @Override
+    public String getName() {
+        return name;
+    }
+    
+    @Override
+    public Object getNativeCache() {
+        return this;
+    }
+    
+    @Override
+    public ValueWrapper get(Object key) {
+        String nearKey = nearKey(key);
+        ValueWrapper cached = near.getIfPresent(nearKey);
+        if (cached != null) {
+            return cached;
+        }
+        
+        ValueWrapper loaded = remote.get(key);
+        if (loaded == null) {
+            remoteMisses.increment();
+            return null;
+        }
+        remoteHits.increment();
+        // Keep our own wrapper; a cached null (empty Optional) is a hit like any other value
+        ValueWrapper wrapper = new SimpleValueWrapper(loaded.get());
+        near.put(nearKey, wrapper);
+        return wrapper;
+    }
+    
+    // Near hits first, then one Redis round trip for the rest. Keys without an entry are left out of the
+    // result; a cached null is returned as a null value.
+    public Map<String, Object> getAll(Collection<String> keys) {
+        Map<String, Object> found = new HashMap<>();
+        List<String> remoteKeys = new ArrayList<>();
+        for (String key : keys) {
+            ValueWrapper cached = near.getIfPresent(key);
+            if (cached != null) {
+                found.put(key, cached.get());
+            } else {
+                remoteKeys.add(key);
+            }
+        }
+        if (remoteKeys.isEmpty()) {
+            return found;
+        }
+        
+        List<ValueWrapper> loaded = remoteMultiGet.apply(remoteKeys);
+        for (int i = 0; i < remoteKeys.size(); i++) {
+            ValueWrapper value = loaded.get(i);
+            if (value == null) {
+                remoteMisses.increment();
+                continue;
+            }
+            remoteHits.increment();
+            ValueWrapper wrapper = new SimpleValueWrapper(value.get());
+            near.put(remoteKeys.get(i), wrapper);
+            found.put(remoteKeys.get(i), wrapper.get());
+        }
+        return found;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper wrapper = get(key);
+        Object value = wrapper != null ? wrapper.get() : null;
+        if (value != null && type != null && !type.isInstance(value)) {
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        }
+        return (T) value;
+    }
+    
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper wrapper = get(key);
+        if (wrapper != null) {
+            return (T) wrapper.get();
+        }
+        T value = remote.get(key, valueLoader);
+        near.put(nearKey(key), new SimpleValueWrapper(value));
+        return value;
+    }
+    
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        near.put(nearKey(key), new SimpleValueWrapper(value));
+        invalidationPublisher.accept(nearKey(key));
+    }
+    
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing = remote.putIfAbsent(key, value);
+        if (existing == null) {
+            near.put(nearKey(key), new SimpleValueWrapper(value));
+            invalidationPublisher.accept(nearKey(key));
+        }
+        return existing;
+    }
+    
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        near.invalidate(nearKey(key));
+        invalidationPublisher.accept(nearKey(key));
+    }
+    
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean present = remote.evictIfPresent(key);
+        near.invalidate(nearKey(key));
+        invalidationPublisher.accept(nearKey(key));
+        return present;
+    }
+    
+    @Override
+    public void clear() {
+        remote.clear();
+        near.invalidateAll();
+        invalidationPublisher.accept(null);
+    }
+    
+    @Override
+    public boolean invalidate() {
+        boolean present = remote.invalidate();
+        near.invalidateAll();
+        invalidationPublisher.accept(null);
+        return present;
+    }
+    
+    // Called for another node's write; Redis already holds the new state
+    void invalidateNear(String nearKey) {
+        if (nearKey == null) {
+            near.invalidateAll();
+        } else {
+            near.invalidate(nearKey);
+        }
+    }
+    
+    // Keys travel between nodes as strings; cache keys here are id strings or SimpleKey for no-arg methods
+    static String nearKey(Object key) {
+        return key instanceof String value ? value : String.valueOf(key);
+    }
+}
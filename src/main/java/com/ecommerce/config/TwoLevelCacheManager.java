@@ -0,0 +1,148 @@
+package com.ecommerce.config;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.support.NullValue;
+import org.springframework.cache.support.SimpleValueWrapper;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.util.ByteUtils;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+// Serves the configured caches through a TwoLevelCache (Caffeine near tier + Redis) and every other cache
+// straight from Redis. Writes are broadcast on a Redis pub/sub channel as "<node>\n<cache>\n<key>" (an empty
+// key clears the cache); each node drops its near copy unless it sent the message itself.
+public class TwoLevelCacheManager implements CacheManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(TwoLevelCacheManager.class);
+    
+    // What RedisCache stores for a cached null
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+    
+    private final CacheManager remoteCacheManager;
+    private final StringRedisTemplate redisTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Set<String> nearCacheNames;
+    private final long nearMaximumSize;
+    private final Duration nearExpireAfterWrite;
+    private final String invalidationChannel;
+    private final String nodeId = UUID.randomUUID().toString();
+    private final ConcurrentMap<String, Cache> caches = new ConcurrentHashMap<>();
+    
+    public TwoLevelCacheManager(CacheManager remoteCacheManager, StringRedisTemplate redisTemplate,
+                                MeterRegistry meterRegistry, Set<String> nearCacheNames, long nearMaximumSize,
+                                Duration nearExpireAfterWrite, String invalidationChannel) {
+        this.remoteCacheManager = remoteCacheManager;
+        this.redisTemplate = redisTemplate;
+        this.meterRegistry = meterRegistry;
+        this.nearCacheNames = nearCacheNames;
+        this.nearMaximumSize = nearMaximumSize;
+        this.nearExpireAfterWrite = nearExpireAfterWrite;
+        this.invalidationChannel = invalidationChannel;
+    }
+    
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = caches.get(name);
+        if (cache != null) {
+            return cache;
+        }
+        Cache remote = remoteCacheManager.getCache(name);
+        if (remote == null) {
+            return null;
+        }
+        return caches.computeIfAbsent(name, n -> nearCacheNames.contains(n) ? createTwoLevelCache(n, remote) : remote);
+    }
+    
+    @Override
+    public Collection<String> getCacheNames() {
+        Set<String> names = new LinkedHashSet<>(remoteCacheManager.getCacheNames());
+        names.addAll(caches.keySet());
+        return names;
+    }
+    
+    public void onInvalidation(String message) {
+        String[] parts = message.split("\n", 3);
+        if (parts.length != 3 || parts[0].equals(nodeId)) {
+            return;
+        }
+        if (caches.get(parts[1]) instanceof TwoLevelCache cache) {
+            cache.invalidateNear(parts[2].isEmpty() ? null : parts[2]);
+            Counter.builder("cache.near.invalidations")
+                    .tag("cache", parts[1])
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+    
+    private TwoLevelCache createTwoLevelCache(String name, Cache remote) {
+        com.github.benmanes.caffeine.cache.Cache<String, Cache.ValueWrapper> near = Caffeine.newBuilder()
+                .maximumSize(nearMaximumSize)
+                .expireAfterWrite(nearExpireAfterWrite)
+                .recordStats()
+                .build();
+        // cache.gets{tier=near}, cache.evictions and cache.size come from the Caffeine statistics
+        CaffeineCacheMetrics.monitor(meterRegistry, near, name, Tags.of("tier", "near"));
+        return new TwoLevelCache(name, near, remote, keys -> multiGet(remote, keys),
+                key -> publishInvalidation(name, key), meterRegistry);
+    }
+    
+    // One MGET, with keys and values encoded the way RedisCache encodes them for get/put
+    private List<Cache.ValueWrapper> multiGet(Cache remote, List<String> keys) {
+        if (!(remote instanceof RedisCache redisCache)) {
+            return keys.stream().map(remote::get).toList();
+        }
+        RedisCacheConfiguration config = redisCache.getCacheConfiguration();
+        byte[][] rawKeys = new byte[keys.size()][];
+        for (int i = 0; i < keys.size(); i++) {
+            String cacheKey = config.usePrefix() ? config.getKeyPrefixFor(redisCache.getName()) + keys.get(i) : keys.get(i);
+            rawKeys[i] = ByteUtils.getBytes(config.getKeySerializationPair().write(cacheKey));
+        }
+        List<byte[]> rawValues = redisTemplate.execute(
+                (RedisCallback<List<byte[]>>) connection -> connection.stringCommands().mGet(rawKeys));
+        
+        List<Cache.ValueWrapper> values = new ArrayList<>(keys.size());
+        for (int i = 0; i < keys.size(); i++) {
+            byte[] rawValue = rawValues != null ? rawValues.get(i) : null;
+            if (rawValue == null) {
+                values.add(null);
+            } else if (Arrays.equals(rawValue, BINARY_NULL_VALUE)) {
+                values.add(new SimpleValueWrapper(null));
+            } else {
+                values.add(new SimpleValueWrapper(config.getValueSerializationPair().read(ByteBuffer.wrap(rawValue))));
+            }
+        }
+        return values;
+    }
+    
+    private void publishInvalidation(String cacheName, String key) {
+        try {
+            redisTemplate.convertAndSend(invalidationChannel,
+                    String.join("\n", nodeId, cacheName, key != null ? key : ""));
+        } catch (RuntimeException e) {
+            // The write itself reached Redis; other nodes fall back to the near-cache expiry
+            logger.warn("Failed to publish near-cache invalidation for {} in {}", key, cacheName, e);
+        }
+    }
+}
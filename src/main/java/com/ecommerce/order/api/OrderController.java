@@ -4,6 +4,9 @@ import com.ecommerce.order.application.OrderService;
 import com.ecommerce.order.domain.Order;
 import com.ecommerce.order.domain.OrderStatus;
 import com.ecommerce.shared.api.ApiResponse;
+import com.ecommerce.shared.api.CursorPage;
+import com.ecommerce.shared.api.KeysetCursor;
+import com.ecommerce.shared.application.CountMode;
 import com.ecommerce.shared.domain.EntityId;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -11,10 +14,15 @@ import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+
 @RestController
 @RequestMapping("/orders")
 @Tag(name = "Order", description = "주문 관리 API")
@@ -38,16 +46,45 @@ public class OrderController {
     
     @GetMapping("/customer/{customerId}")
     @Operation(summary = "고객 주문 목록 조회", description = "특정 고객의 주문 목록을 조회합니다.")
-    public ResponseEntity<ApiResponse<Page<OrderDto>>> getOrdersByCustomer(
+    public ResponseEntity<ApiResponse<Slice<OrderDto>>> getOrdersByCustomer(
             @Parameter(description = "고객 ID") @PathVariable String customerId,
+            @Parameter(description = "전체 개수 계산 방식 (EXACT: COUNT 쿼리, NONE: 다음 페이지 여부만, APPROXIMATE: 캐시된 근사치)")
+            @RequestParam(defaultValue = "EXACT") CountMode countMode,
             @PageableDefault(size = 20) Pageable pageable) {
         
-        Page<Order> orders = orderService.getOrdersByCustomer(EntityId.of(customerId), pageable);
-        Page<OrderDto> orderDtos = orders.map(OrderDto::from);
+        Slice<Order> orders = orderService.getOrdersByCustomer(EntityId.of(customerId), pageable, countMode);
+        Slice<OrderDto> orderDtos = orders.map(OrderDto::from);
         
         return ResponseEntity.ok(ApiResponse.success(orderDtos));
     }
     
+    @GetMapping("/customer/{customerId}/scroll")
+    @Operation(summary = "고객 주문 목록 커서 조회", description = "전체 개수 없이 커서 기반으로 최신 주문부터 조회합니다. 응답의 nextCursor를 다음 요청의 cursor로 전달합니다.")
+    public ResponseEntity<ApiResponse<CursorPage<OrderDto>>> scrollOrdersByCustomer(
+            @Parameter(description = "고객 ID") @PathVariable String customerId,
+            @Parameter(description = "이전 응답의 nextCursor") @RequestParam(required = false) String cursor,
+            @Parameter(description = "페이지 크기") @RequestParam(defaultValue = "20") int size) {
+        
+        LocalDateTime beforeOrderDate = null;
+        Long beforeId = null;
+        if (cursor != null) {
+            List<String> sortKeys = KeysetCursor.decode(cursor, 2);
+            try {
+                beforeOrderDate = LocalDateTime.parse(sortKeys.get(0));
+                beforeId = Long.parseLong(sortKeys.get(1));
+            } catch (DateTimeParseException | NumberFormatException e) {
+                throw new IllegalArgumentException("Invalid cursor", e);
+            }
+        }
+        
+        CursorPage<OrderDto> orders = CursorPage.of(
+                orderService.getOrdersByCustomer(EntityId.of(customerId), beforeOrderDate, beforeId, size),
+                OrderDto::from,
+                order -> KeysetCursor.encode(order.getOrderDate(), order.getId()));
+        
+        return ResponseEntity.ok(ApiResponse.success(orders));
+    }
+    
     @GetMapping("/customer/{customerId}/status/{status}")
     @Operation(summary = "고객 주문 상태별 조회", description = "특정 고객의 특정 상태 주문 목록을 조회합니다.")
     public ResponseEntity<ApiResponse<Page<OrderDto>>> getOrdersByCustomerAndStatus(
@@ -0,0 +1,47 @@
+package com.ecommerce.order.application;
+
+import com.ecommerce.order.domain.OrderPlacedEvent;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+
+// Approximate order count per customer for history pages. Counted once per customer, then incremented
+// as orders commit; orders are never deleted, so the count only drifts for writes on other instances
+// until the entry expires.
+@Component
+public class CustomerOrderCounter {
+    
+    private static final String SELECT_ORDER_COUNT =
+            "SELECT COUNT(*) FROM orders WHERE customer_id = ?";
+    
+    private final JdbcTemplate jdbcTemplate;
+    private final Cache<String, Long> orderCounts;
+    
+    public CustomerOrderCounter(JdbcTemplate jdbcTemplate,
+                                @Value("${app.order.customer-order-counts.maximum-size:100000}") long maximumSize,
+                                @Value("${app.order.customer-order-counts.expire-after-write-ms:600000}") long expireAfterWriteMs) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.orderCounts = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(Duration.ofMillis(expireAfterWriteMs))
+                .build();
+    }
+    
+    public long ordersOf(String customerId) {
+        return orderCounts.get(customerId, key -> {
+            Long count = jdbcTemplate.queryForObject(SELECT_ORDER_COUNT, Long.class, customerId);
+            return count != null ? count : 0L;
+        });
+    }
+    
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        orderCounts.asMap().computeIfPresent(event.getCustomerId().getValue(), (customerId, count) -> count + 1);
+    }
+}
@@ -6,41 +6,61 @@ import com.ecommerce.cart.domain.CartItem;
 import com.ecommerce.catalog.application.CatalogService;
 import com.ecommerce.catalog.domain.Sku;
 import com.ecommerce.order.domain.*;
+import com.ecommerce.shared.application.CountMode;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
+import com.ecommerce.shared.domain.MoneyAccumulator;
+import com.ecommerce.shared.domain.UuidStringConverter;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 @Service
 @Transactional
 public class OrderService {
     
+    private static final int MAX_SCROLL_SIZE = 100;
+    
     private final OrderRepository orderRepository;
     private final CartService cartService;
     private final CatalogService catalogService;
+    private final CustomerOrderCounter customerOrderCounter;
+    private final ApplicationEventPublisher eventPublisher;
     
     public OrderService(OrderRepository orderRepository, 
                        CartService cartService, 
-                       CatalogService catalogService) {
+                       CatalogService catalogService,
+                       CustomerOrderCounter customerOrderCounter,
+                       ApplicationEventPublisher eventPublisher) {
         this.orderRepository = orderRepository;
         this.cartService = cartService;
         this.catalogService = catalogService;
+        this.customerOrderCounter = customerOrderCounter;
+        this.eventPublisher = eventPublisher;
     }
     
     @Transactional(readOnly = true)
     public Optional<Order> getOrder(EntityId orderId) {
-        return orderRepository.findByOrderId(orderId);
+        return findOrder(orderId);
     }
     
     @Transactional(readOnly = true)
     public Optional<Order> getOrderWithItems(EntityId orderId) {
+        if (!UuidStringConverter.isUuid(orderId.getValue())) {
+            return Optional.empty();
+        }
         return orderRepository.findByOrderIdWithItems(orderId);
     }
     
@@ -49,6 +69,31 @@ public class OrderService {
         return orderRepository.findByCustomerIdOrderByOrderDateDesc(customerId, pageable);
     }
     
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersByCustomer(EntityId customerId, Pageable pageable, CountMode countMode) {
+        if (countMode == CountMode.EXACT) {
+            return getOrdersByCustomer(customerId, pageable);
+        }
+        Slice<Order> orders = orderRepository.findSliceByCustomerIdOrderByOrderDateDesc(customerId, pageable);
+        if (countMode == CountMode.APPROXIMATE) {
+            return CountMode.withApproximateTotal(orders, customerOrderCounter.ordersOf(customerId.getValue()));
+        }
+        return orders;
+    }
+    
+    // Keyset page of the customer's history, newest first; a null beforeOrderDate starts from the newest order
+    @Transactional(readOnly = true)
+    public Slice<Order> getOrdersByCustomer(EntityId customerId, LocalDateTime beforeOrderDate, Long beforeId, int size) {
+        if (size <= 0 || size > MAX_SCROLL_SIZE) {
+            throw new IllegalArgumentException("Size must be between 1 and " + MAX_SCROLL_SIZE);
+        }
+        PageRequest firstRows = PageRequest.of(0, size);
+        if (beforeOrderDate == null) {
+            return orderRepository.findSliceByCustomerIdOrderByOrderDateDesc(customerId, firstRows);
+        }
+        return orderRepository.findByCustomerIdBeforeOrderByOrderDateDesc(customerId, beforeOrderDate, beforeId, firstRows);
+    }
+    
     @Transactional(readOnly = true)
     public Page<Order> getOrdersByCustomerAndStatus(EntityId customerId, OrderStatus status, Pageable pageable) {
         return orderRepository.findByCustomerIdAndStatusOrderByOrderDateDesc(customerId, status, pageable);
@@ -64,24 +109,19 @@ public class OrderService {
             throw new IllegalArgumentException("Cannot create order from empty cart");
         }
         
-        // Validate all items and reserve stock
+        // Validate all items and reserve stock in a single locked batch
+        Map<EntityId, Integer> quantities = new LinkedHashMap<>();
+        for (CartItem cartItem : cart.getItems()) {
+            quantities.merge(cartItem.getSkuId(), cartItem.getQuantity(), Integer::sum);
+        }
+        
+        Map<EntityId, Sku> reservedSkus = catalogService.reserveStock(quantities);
+        
         List<OrderItem> orderItems = new ArrayList<>();
-        Money subtotal = Money.zero();
+        MoneyAccumulator subtotalAccumulator = new MoneyAccumulator();
         
-        for (CartItem cartItem : cart.getItems()) {
-            Sku sku = catalogService.getSku(cartItem.getSkuId())
-                    .orElseThrow(() -> new IllegalArgumentException("SKU not found: " + cartItem.getSkuId()));
-            
-            if (!sku.isActive()) {
-                throw new IllegalArgumentException("SKU is not active: " + sku.getSkuCode());
-            }
-            
-            if (!sku.canFulfillQuantity(cartItem.getQuantity())) {
-                throw new IllegalArgumentException("Insufficient stock for SKU: " + sku.getSkuCode());
-            }
-            
-            // Reserve stock
-            catalogService.reserveStock(sku.getSkuId(), cartItem.getQuantity());
+        for (Map.Entry<EntityId, Integer> entry : quantities.entrySet()) {
+            Sku sku = reservedSkus.get(entry.getKey());
             
             // Create order item
             OrderItem orderItem = new OrderItem(
@@ -89,13 +129,14 @@ public class OrderService {
                     sku.getSkuCode(),
                     sku.getProduct().getName(),
                     sku.getName(),
-                    cartItem.getQuantity(),
+                    entry.getValue(),
                     sku.getPrice()
             );
             
             orderItems.add(orderItem);
-            subtotal = subtotal.add(orderItem.getTotalPrice());
+            subtotalAccumulator.addLine(sku.getPrice(), entry.getValue());
         }
+        Money subtotal = subtotalAccumulator.toMoney();
         
         // Calculate tax and shipping (simplified)
         Money taxAmount = calculateTax(subtotal);
@@ -114,15 +155,16 @@ public class OrderService {
         );
         
         Order savedOrder = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderPlacedEvent(savedOrder.getOrderId(), customerId));
         
-        // Deactivate cart after successful order creation
-        cartService.deactivateCart(customerId);
+        // Deactivate the cart the order was built from; lines changed meanwhile fail the checkout
+        cartService.deactivateCart(cart);
         
         return savedOrder;
     }
     
     public Order confirmOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.confirm();
@@ -131,7 +173,7 @@ public class OrderService {
     }
     
     public Order processOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.process();
@@ -140,7 +182,7 @@ public class OrderService {
     }
     
     public Order shipOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.ship();
@@ -149,7 +191,7 @@ public class OrderService {
     }
     
     public Order deliverOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.deliver();
@@ -158,7 +200,7 @@ public class OrderService {
     }
     
     public Order cancelOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         if (!order.canBeCancelled()) {
@@ -176,7 +218,7 @@ public class OrderService {
     }
     
     public Order refundOrder(EntityId orderId) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.refund();
@@ -185,7 +227,7 @@ public class OrderService {
     }
     
     public Order updateOrderShippingAddress(EntityId orderId, String shippingAddress) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.updateShippingAddress(shippingAddress);
@@ -194,7 +236,7 @@ public class OrderService {
     }
     
     public Order updateOrderNotes(EntityId orderId, String notes) {
-        Order order = orderRepository.findByOrderId(orderId)
+        Order order = findOrder(orderId)
                 .orElseThrow(() -> new IllegalArgumentException("Order not found"));
         
         order.updateNotes(notes);
@@ -202,6 +244,13 @@ public class OrderService {
         return orderRepository.save(order);
     }
     
+    private Optional<Order> findOrder(EntityId orderId) {
+        if (!UuidStringConverter.isUuid(orderId.getValue())) {
+            return Optional.empty();
+        }
+        return orderRepository.findByOrderId(orderId);
+    }
+    
     private Money calculateTax(Money subtotal) {
         // Simplified tax calculation - 10% tax rate
         return subtotal.multiply(BigDecimal.valueOf(0.10));
@@ -3,6 +3,7 @@ package com.ecommerce.order.domain;
 import com.ecommerce.shared.domain.BaseEntity;
 import com.ecommerce.shared.domain.EntityId;
 import com.ecommerce.shared.domain.Money;
+import com.ecommerce.shared.domain.UuidStringConverter;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 
@@ -17,6 +18,7 @@ public class Order extends BaseEntity {
     
     @Embedded
     @AttributeOverride(name = "value", column = @Column(name = "order_id", unique = true, nullable = false))
+    @Convert(converter = UuidStringConverter.class, attributeName = "value")
     private EntityId orderId;
     
     @Embedded
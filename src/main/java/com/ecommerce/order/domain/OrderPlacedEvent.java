@@ -0,0 +1,22 @@
+package com.ecommerce.order.domain;
+
+import com.ecommerce.shared.domain.EntityId;
+
+public class OrderPlacedEvent {
+    
+    private final EntityId orderId;
+    private final EntityId customerId;
+    
+    public OrderPlacedEvent(EntityId orderId, EntityId customerId) {
+        this.orderId = orderId;
+        this.customerId = customerId;
+    }
+    
+    public EntityId getOrderId() {
+        return orderId;
+    }
+    
+    public EntityId getCustomerId() {
+        return customerId;
+    }
+}
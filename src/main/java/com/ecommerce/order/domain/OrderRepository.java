@@ -3,6 +3,7 @@ package com.ecommerce.order.domain;
 import com.ecommerce.shared.domain.EntityId;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -23,6 +24,20 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
     @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.orderDate DESC")
     Page<Order> findByCustomerIdOrderByOrderDateDesc(@Param("customerId") EntityId customerId, Pageable pageable);
     
+    // Slice (no count query) and keyset variants ordered by (orderDate, id), so rows sharing a timestamp
+    // are neither skipped nor repeated
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId ORDER BY o.orderDate DESC, o.id DESC")
+    Slice<Order> findSliceByCustomerIdOrderByOrderDateDesc(@Param("customerId") EntityId customerId,
+                                                           Pageable pageable);
+    
+    @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND " +
+           "(o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) " +
+           "ORDER BY o.orderDate DESC, o.id DESC")
+    Slice<Order> findByCustomerIdBeforeOrderByOrderDateDesc(@Param("customerId") EntityId customerId,
+                                                            @Param("orderDate") LocalDateTime orderDate,
+                                                            @Param("id") long id,
+                                                            Pageable pageable);
+    
     @Query("SELECT o FROM Order o WHERE o.customerId = :customerId AND o.status = :status ORDER BY o.orderDate DESC")
     Page<Order> findByCustomerIdAndStatusOrderByOrderDateDesc(@Param("customerId") EntityId customerId, 
                                                               @Param("status") OrderStatus status, 
@@ -15,16 +15,18 @@ import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
+    private static final List<SimpleGrantedAuthority> DEFAULT_AUTHORITIES =
+            List.of(new SimpleGrantedAuthority("ROLE_USER"));
+    
     private final JwtTokenProvider tokenProvider;
+    private final WebAuthenticationDetailsSource authenticationDetailsSource = new WebAuthenticationDetailsSource();
     
     public JwtAuthenticationFilter(JwtTokenProvider tokenProvider) {
         this.tokenProvider = tokenProvider;
@@ -37,20 +39,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
             
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                String username = tokenProvider.getUsernameFromToken(jwt);
-                
-                // For simplicity, we'll create a basic authentication with default authorities
-                // In a real application, you would load user details from a database
-                List<SimpleGrantedAuthority> authorities = Arrays.asList(
-                        new SimpleGrantedAuthority("ROLE_USER")
-                );
-                
-                UsernamePasswordAuthenticationToken authentication = 
-                        new UsernamePasswordAuthenticationToken(username, null, authorities);
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+            if (StringUtils.hasText(jwt)) {
+                // One verification per token; repeat requests with the same token hit the provider's cache
+                tokenProvider.getVerifiedClaims(jwt).ifPresent(claims -> {
+                    // For simplicity, we'll create a basic authentication with default authorities
+                    // In a real application, you would load user details from a database
+                    UsernamePasswordAuthenticationToken authentication = 
+                            new UsernamePasswordAuthenticationToken(claims.getSubject(), null, DEFAULT_AUTHORITIES);
+                    authentication.setDetails(authenticationDetailsSource.buildDetails(request));
+                    
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                });
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -1,7 +1,11 @@
 package com.ecommerce.security;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SecurityException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -11,7 +15,13 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 @Component
@@ -19,14 +29,57 @@ public class JwtTokenProvider {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtTokenProvider.class);
     
-    @Value("${app.jwt.secret:mySecretKey}")
-    private String jwtSecret;
+    private final String jwtSecret;
+    private final int jwtExpirationInMs;
     
-    @Value("${app.jwt.expiration:86400}")
-    private int jwtExpirationInMs;
+    // Verified claims keyed by SHA-256 of the token; each entry expires at the token's own exp
+    private final Cache<String, Claims> verifiedTokens;
+    
+    // Built on first use: the key is derived from configuration that may not be valid until a token is needed
+    private volatile SecretKey signingKey;
+    private volatile JwtParser parser;
+    
+    public JwtTokenProvider(@Value("${app.jwt.secret:mySecretKey}") String jwtSecret,
+                           @Value("${app.jwt.expiration:86400}") int jwtExpirationInMs,
+                           @Value("${app.jwt.verified-token-cache.maximum-size:10000}") long verifiedTokenCacheSize) {
+        this.jwtSecret = jwtSecret;
+        this.jwtExpirationInMs = jwtExpirationInMs;
+        this.verifiedTokens = verifiedTokenCacheSize > 0
+                ? Caffeine.newBuilder()
+                        .maximumSize(verifiedTokenCacheSize)
+                        .expireAfter(new TokenExpiry(jwtExpirationInMs))
+                        .build()
+                : null;
+    }
     
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtSecret.getBytes());
+        SecretKey key = signingKey;
+        if (key == null) {
+            synchronized (this) {
+                key = signingKey;
+                if (key == null) {
+                    key = Keys.hmacShaKeyFor(jwtSecret.getBytes());
+                    signingKey = key;
+                }
+            }
+        }
+        return key;
+    }
+    
+    private JwtParser getParser() {
+        JwtParser jwtParser = parser;
+        if (jwtParser == null) {
+            synchronized (this) {
+                jwtParser = parser;
+                if (jwtParser == null) {
+                    jwtParser = Jwts.parserBuilder()
+                            .setSigningKey(getSigningKey())
+                            .build();
+                    parser = jwtParser;
+                }
+            }
+        }
+        return jwtParser;
     }
     
     public String generateToken(Authentication authentication) {
@@ -57,21 +110,39 @@ public class JwtTokenProvider {
                 .compact();
     }
     
-    public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .parseClaimsJws(token)
-                .getBody();
+    // Parses and verifies the token once; repeat calls with the same token are served from the cache
+    public Optional<Claims> getVerifiedClaims(String token) {
+        if (token == null || token.isEmpty()) {
+            return Optional.empty();
+        }
+        if (verifiedTokens == null) {
+            return Optional.ofNullable(parseAndVerify(token));
+        }
         
-        return claims.getSubject();
+        String tokenHash = hash(token);
+        Claims claims = verifiedTokens.getIfPresent(tokenHash);
+        if (claims == null) {
+            claims = parseAndVerify(token);
+            if (claims != null) {
+                verifiedTokens.put(tokenHash, claims);
+            }
+        }
+        return Optional.ofNullable(claims);
+    }
+    
+    public String getUsernameFromToken(String token) {
+        return getVerifiedClaims(token)
+                .map(Claims::getSubject)
+                .orElseThrow(() -> new IllegalArgumentException("Invalid JWT token"));
     }
     
     public boolean validateToken(String authToken) {
+        return getVerifiedClaims(authToken).isPresent();
+    }
+    
+    private Claims parseAndVerify(String token) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .parseClaimsJws(authToken);
-            return true;
+            return getParser().parseClaimsJws(token).getBody();
         } catch (SecurityException ex) {
             logger.error("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -82,10 +153,47 @@ public class JwtTokenProvider {
             logger.error("Unsupported JWT token");
         } catch (IllegalArgumentException ex) {
             logger.error("JWT claims string is empty");
+        } catch (JwtException ex) {
+            logger.error("Invalid JWT token");
+        }
+        return null;
+    }
+    
+    private static String hash(String token) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+    
+    private static class TokenExpiry implements Expiry<String, Claims> {
+        
+        private final long fallbackNanos;
+        
+        private TokenExpiry(int expirationSeconds) {
+            this.fallbackNanos = TimeUnit.SECONDS.toNanos(expirationSeconds);
+        }
+        
+        @Override
+        public long expireAfterCreate(String key, Claims claims, long currentTime) {
+            Date expiration = claims.getExpiration();
+            if (expiration == null) {
+                return fallbackNanos;
+            }
+            long remainingMillis = expiration.getTime() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0));
+        }
+        
+        @Override
+        public long expireAfterUpdate(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+        
+        @Override
+        public long expireAfterRead(String key, Claims claims, long currentTime, long currentDuration) {
+            return currentDuration;
         }
-        return false;
     }
 }
-
-
-
@@ -0,0 +1,54 @@
+package com.ecommerce.shared.api;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+// Page of a keyset-paginated listing. There is no total: fetching one extra row answers hasNext
+// without the COUNT query that offset pages need.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CursorPage<T> {
+    
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+    
+    protected CursorPage() {
+        // JSON deserialization
+    }
+    
+    public CursorPage(List<T> content, int size, boolean hasNext, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.hasNext = hasNext;
+        this.nextCursor = nextCursor;
+    }
+    
+    // cursorOf builds the cursor from the last element; it is only called when there is a next page
+    public static <S, T> CursorPage<T> of(Slice<S> slice, Function<S, T> mapper, Function<S, String> cursorOf) {
+        List<S> rows = slice.getContent();
+        String nextCursor = slice.hasNext() && !rows.isEmpty() ? cursorOf.apply(rows.get(rows.size() - 1)) : null;
+        List<T> content = rows.stream().map(mapper).collect(Collectors.toList());
+        return new CursorPage<>(content, slice.getSize(), slice.hasNext(), nextCursor);
+    }
+    
+    public List<T> getContent() {
+        return content;
+    }
+    
+    public int getSize() {
+        return size;
+    }
+    
+    public boolean isHasNext() {
+        return hasNext;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,38 @@
+package com.ecommerce.shared.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+import java.util.stream.Collectors;
+
+// Opaque pagination cursor: the sort key values of the last row served, URL-safe Base64 encoded.
+// Clients pass it back unchanged; its layout is private to the endpoint that issued it.
+public final class KeysetCursor {
+    
+    private static final String SEPARATOR = "|";
+    
+    private KeysetCursor() {
+    }
+    
+    public static String encode(Object... sortKeys) {
+        String joined = Arrays.stream(sortKeys)
+                .map(String::valueOf)
+                .collect(Collectors.joining(SEPARATOR));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(joined.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    public static List<String> decode(String cursor, int expectedKeys) {
+        String joined;
+        try {
+            joined = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+        List<String> sortKeys = Arrays.asList(joined.split("\\" + SEPARATOR, -1));
+        if (sortKeys.size() != expectedKeys) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return sortKeys;
+    }
+}
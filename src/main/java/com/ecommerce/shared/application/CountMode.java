@@ -0,0 +1,22 @@
+package com.ecommerce.shared.application;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Slice;
+
+// How a paged listing reports its total.
+// EXACT: Page with a COUNT query per request / NONE: Slice, hasNext only (one extra row, no count)
+// APPROXIMATE: Page whose total comes from counters maintained on writes; may lag recent changes
+public enum CountMode {
+    EXACT,
+    NONE,
+    APPROXIMATE;
+    
+    public static <T> Page<T> withApproximateTotal(Slice<T> slice, long approximateTotal) {
+        // Never report fewer rows than the slice has already proven to exist
+        long seen = slice.getPageable().isPaged()
+                ? slice.getPageable().getOffset() + slice.getNumberOfElements() + (slice.hasNext() ? 1 : 0)
+                : slice.getNumberOfElements();
+        return new PageImpl<>(slice.getContent(), slice.getPageable(), Math.max(approximateTotal, seen));
+    }
+}
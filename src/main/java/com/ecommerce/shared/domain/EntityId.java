@@ -2,12 +2,15 @@ package com.ecommerce.shared.domain;
 
 import jakarta.persistence.Embeddable;
 import jakarta.validation.constraints.NotNull;
+import java.security.SecureRandom;
 import java.util.Objects;
 import java.util.UUID;
 
 @Embeddable
 public class EntityId {
     
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
     @NotNull
     private String value;
     
@@ -20,7 +23,16 @@ public class EntityId {
     }
     
     public static EntityId generate() {
-        return new EntityId(UUID.randomUUID().toString());
+        return new EntityId(timeOrderedUuid().toString());
+    }
+    
+    // UUIDv7 layout: 48-bit Unix millis, version, 12 random bits, variant, 62 random bits.
+    // New keys land on the right edge of B-tree indexes instead of random pages.
+    static UUID timeOrderedUuid() {
+        long timestamp = System.currentTimeMillis();
+        long mostSigBits = (timestamp << 16) | 0x7000L | RANDOM.nextInt(1 << 12);
+        long leastSigBits = (RANDOM.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(mostSigBits, leastSigBits);
     }
     
     public static EntityId of(String value) {
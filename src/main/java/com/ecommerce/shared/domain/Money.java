@@ -18,6 +18,9 @@ public class Money {
     @NotNull
     private String currency;
     
+    // Amount in minor units, derived lazily; -1 until first use since amounts are never negative
+    private transient long minorUnits = -1;
+    
     protected Money() {
         // JPA
     }
@@ -42,6 +45,10 @@ public class Money {
         return of(amount, "USD");
     }
     
+    public static Money ofMinor(long minorUnits, String currency) {
+        return of(BigDecimal.valueOf(minorUnits, 2), currency);
+    }
+    
     public static Money zero(String currency) {
         return of(BigDecimal.ZERO, currency);
     }
@@ -72,6 +79,16 @@ public class Money {
         return multiply(BigDecimal.valueOf(quantity));
     }
     
+    public long toMinorUnits() {
+        long minor = minorUnits;
+        if (minor < 0) {
+            // Amounts loaded through JPA may not carry scale 2, so normalize the same way the constructor does
+            minor = amount.setScale(2, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+            minorUnits = minor;
+        }
+        return minor;
+    }
+    
     public boolean isGreaterThan(Money other) {
         validateSameCurrency(other);
         return this.amount.compareTo(other.amount) > 0;
@@ -0,0 +1,55 @@
+package com.ecommerce.shared.domain;
+
+// Sums money in long minor units without allocating per line. Amounts are always held at scale 2,
+// so line totals (unit price x quantity) and sums are exact and match Money.add/multiply results.
+public final class MoneyAccumulator {
+    
+    private final String currency;
+    private long minorUnits;
+    
+    public MoneyAccumulator(String currency) {
+        if (currency == null) {
+            throw new IllegalArgumentException("Currency cannot be null");
+        }
+        this.currency = currency;
+    }
+    
+    public MoneyAccumulator() {
+        this("USD");
+    }
+    
+    public MoneyAccumulator add(Money money) {
+        validateSameCurrency(money);
+        minorUnits = Math.addExact(minorUnits, money.toMinorUnits());
+        return this;
+    }
+    
+    public MoneyAccumulator addLine(Money unitPrice, int quantity) {
+        validateSameCurrency(unitPrice);
+        minorUnits = Math.addExact(minorUnits, Math.multiplyExact(unitPrice.toMinorUnits(), (long) quantity));
+        return this;
+    }
+    
+    public MoneyAccumulator reset() {
+        minorUnits = 0;
+        return this;
+    }
+    
+    public long getMinorUnits() {
+        return minorUnits;
+    }
+    
+    public String getCurrency() {
+        return currency;
+    }
+    
+    public Money toMoney() {
+        return Money.ofMinor(minorUnits, currency);
+    }
+    
+    private void validateSameCurrency(Money money) {
+        if (!currency.equals(money.getCurrency())) {
+            throw new IllegalArgumentException("Cannot operate on different currencies");
+        }
+    }
+}
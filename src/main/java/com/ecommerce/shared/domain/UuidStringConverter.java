@@ -0,0 +1,39 @@
+package com.ecommerce.shared.domain;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+// Stores generated EntityId values in native 16-byte UUID columns instead of VARCHAR(255).
+// Opt-in per attribute: only ids that are always produced by EntityId.generate() can use it.
+@Converter
+public class UuidStringConverter implements AttributeConverter<String, UUID> {
+    
+    private static final Pattern CANONICAL_UUID =
+            Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+    
+    // Lookups by an id stored with this converter check this first: any other value cannot match a row, and
+    // binding it fails inside the repository call instead of coming back as not found
+    public static boolean isUuid(String value) {
+        return value != null && CANONICAL_UUID.matcher(value).matches();
+    }
+    
+    @Override
+    public UUID convertToDatabaseColumn(String attribute) {
+        if (attribute == null) {
+            return null;
+        }
+        try {
+            return UUID.fromString(attribute);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid identifier: " + attribute, e);
+        }
+    }
+    
+    @Override
+    public String convertToEntityAttribute(UUID dbData) {
+        return dbData != null ? dbData.toString() : null;
+    }
+}
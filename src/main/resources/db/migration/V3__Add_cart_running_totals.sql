@@ -0,0 +1,7 @@
+-- Running totals kept on the cart row so reads don't walk every line item
+ALTER TABLE carts ADD COLUMN subtotal DECIMAL(19,2) NOT NULL DEFAULT 0;
+ALTER TABLE carts ADD COLUMN currency VARCHAR(3) NOT NULL DEFAULT 'USD';
+ALTER TABLE carts ADD COLUMN total_item_count INTEGER NOT NULL DEFAULT 0;
+
+-- Existing carts start stale so their totals are rebuilt on first access
+ALTER TABLE carts ADD COLUMN prices_stale BOOLEAN NOT NULL DEFAULT true;
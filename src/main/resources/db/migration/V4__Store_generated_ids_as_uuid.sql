@@ -0,0 +1,4 @@
+-- Order and cart ids are always generated as UUIDs, so store them in 16-byte uuid columns.
+-- Catalog ids (category/product/sku) and customer ids stay VARCHAR: seeded and external values are not UUIDs.
+ALTER TABLE orders ALTER COLUMN order_id TYPE UUID USING order_id::uuid;
+ALTER TABLE carts ALTER COLUMN cart_id TYPE UUID USING cart_id::uuid;
@@ -0,0 +1,9 @@
+-- Composite indexes matching the keyset (cursor) listings, so each page is an index range scan
+-- that starts right after the previous page's last row instead of skipping OFFSET rows
+CREATE INDEX idx_products_active_id ON products(active, id);
+CREATE INDEX idx_products_category_active_id ON products(category_id, active, id);
+CREATE INDEX idx_orders_customer_order_date_id ON orders(customer_id, order_date DESC, id DESC);
+
+-- Superseded by the composite indexes above, which serve the same leading-column lookups
+DROP INDEX idx_products_category_id;
+DROP INDEX idx_orders_customer_id;
@@ -0,0 +1,29 @@
+-- Indexes matched to the repository queries. Low-selectivity boolean indexes and indexes duplicated by
+-- unique constraints or by composite indexes with the same leading column are dropped.
+
+-- orders: customer history filtered by status (list + count), and the status work queue in date order
+CREATE INDEX idx_orders_customer_status_order_date ON orders(customer_id, status, order_date DESC);
+CREATE INDEX idx_orders_status_order_date ON orders(status, order_date);
+DROP INDEX idx_orders_status;
+
+-- carts: every lookup is "the active cart of a customer"
+CREATE INDEX idx_carts_customer_active ON carts(customer_id) WHERE active = true;
+DROP INDEX idx_carts_customer_id;
+DROP INDEX idx_carts_active;
+
+-- cart_items: carts holding a SKU (re-pricing on price change) is answered from the index alone
+CREATE INDEX idx_cart_items_sku_cart ON cart_items(sku_id, cart_id);
+DROP INDEX idx_cart_items_sku_id;
+
+-- skus: in-stock / low-stock scans only ever look at active, tracked SKUs
+CREATE INDEX idx_skus_tracked_stock ON skus(stock_quantity) WHERE active = true AND track_inventory = true;
+DROP INDEX idx_skus_sku_code;
+DROP INDEX idx_skus_active;
+
+-- products: (active, id) and (category_id, active, id) from V5 cover the active listings
+DROP INDEX idx_products_active;
+
+-- categories: root and child menus in sort order
+CREATE INDEX idx_categories_parent_sort ON categories(parent_category_id, sort_order) WHERE active = true;
+CREATE INDEX idx_categories_root_sort ON categories(sort_order) WHERE active = true AND parent_category_id IS NULL;
+DROP INDEX idx_categories_active;
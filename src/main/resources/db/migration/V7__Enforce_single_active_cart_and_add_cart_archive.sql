@@ -0,0 +1,38 @@
+-- At most one active cart per customer. Duplicates left by the old find-then-save race keep only the newest
+UPDATE carts c SET active = false, updated_at = CURRENT_TIMESTAMP
+WHERE c.active = true
+  AND EXISTS (SELECT 1 FROM carts newer
+              WHERE newer.customer_id = c.customer_id AND newer.active = true AND newer.id > c.id);
+
+CREATE UNIQUE INDEX uq_carts_customer_active ON carts(customer_id) WHERE active = true;
+DROP INDEX idx_carts_customer_active;
+
+-- Deactivated carts are moved here by the archival job so the hot table only holds live carts
+CREATE TABLE carts_archive (
+    id BIGINT PRIMARY KEY,
+    cart_id UUID UNIQUE NOT NULL,
+    customer_id VARCHAR(255) NOT NULL,
+    subtotal DECIMAL(19,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    total_item_count INTEGER NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    deactivated_at TIMESTAMP NOT NULL,
+    archived_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE TABLE cart_items_archive (
+    id BIGINT PRIMARY KEY,
+    cart_id BIGINT NOT NULL,
+    sku_id VARCHAR(255) NOT NULL,
+    quantity INTEGER NOT NULL,
+    unit_price DECIMAL(19,2) NOT NULL,
+    currency VARCHAR(3) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (cart_id) REFERENCES carts_archive(id)
+);
+
+CREATE INDEX idx_carts_archive_customer_id ON carts_archive(customer_id);
+CREATE INDEX idx_cart_items_archive_cart_id ON cart_items_archive(cart_id);
+
+-- Archival candidates: deactivated carts past the retention window, oldest first
+CREATE INDEX idx_carts_inactive_updated_at ON carts(updated_at) WHERE active = false;
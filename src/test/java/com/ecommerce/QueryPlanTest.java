@@ -0,0 +1,198 @@
+package com.ecommerce;
+
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+// Migrates a PostgreSQL container with the application's Flyway migrations, seeds it with enough rows that
+// the planner prefers indexes where they exist, and runs EXPLAIN on the SQL behind each selective repository
+// query. A query planned as a sequential scan fails the build.
+// Listings that legitimately read most of a table (all active products, LIKE '%keyword%' search,
+// in-stock SKUs) are not checked.
+@Testcontainers
+class QueryPlanTest {
+    
+    private static final Pattern SEQ_SCAN = Pattern.compile("Seq Scan on (\\w+)");
+    
+    private static final String[] SEED = {
+        "INSERT INTO categories (category_id, name, parent_category_id, sort_order) " +
+            "SELECT 'qp-cat-' || g, 'Category ' || g, CASE WHEN g > 20 THEN 'qp-cat-' || (g % 20 + 1) END, g " +
+            "FROM generate_series(1, 5000) g",
+        "INSERT INTO products (product_id, name, description, category_id, base_price, active, digital) " +
+            "SELECT 'qp-prod-' || g, 'Product ' || g, 'Description ' || g, 'qp-cat-' || (g % 5000 + 1), " +
+            "(g % 1000) + 0.99, g % 20 <> 0, g % 10 = 0 FROM generate_series(1, 100000) g",
+        "INSERT INTO skus (sku_id, sku_code, name, product_id, price, stock_quantity, active, track_inventory) " +
+            "SELECT 'qp-sku-' || g, 'QP-' || g, 'Sku ' || g, p.id, 9.99, g % 500, g % 25 <> 0, g % 10 <> 0 " +
+            "FROM generate_series(1, 300000) g JOIN products p ON p.product_id = 'qp-prod-' || (g % 100000 + 1)",
+        "INSERT INTO carts (cart_id, customer_id, active) " +
+            "SELECT md5('cart' || g)::uuid, 'qp-customer-' || (g % 50000), g <= 50000 FROM generate_series(1, 150000) g",
+        "INSERT INTO cart_items (cart_id, sku_id, quantity, unit_price) " +
+            "SELECT c.id, 'qp-sku-' || ((c.id * 7 + i) % 300000 + 1), 1, 9.99 " +
+            "FROM carts c CROSS JOIN generate_series(1, 3) i",
+        // Mostly delivered history; open work (PENDING) is a small fraction, as in production
+        "INSERT INTO orders (order_id, customer_id, status, subtotal, total_amount, order_date) " +
+            "SELECT md5('order' || g)::uuid, 'qp-customer-' || (g % 50000), " +
+            "CASE WHEN g % 50 = 0 THEN 'PENDING' WHEN g % 50 = 1 THEN 'CANCELLED' ELSE 'DELIVERED' END, " +
+            "10, 10, TIMESTAMP '2024-01-01' + g * INTERVAL '1 minute' FROM generate_series(1, 300000) g",
+        "INSERT INTO order_items (order_id, sku_id, sku_code, product_name, quantity, unit_price, total_price) " +
+            "SELECT o.id, 'qp-sku-' || (o.id % 300000 + 1), 'QP-' || (o.id % 300000 + 1), 'Product', 1, 10, 10 " +
+            "FROM orders o",
+        "ANALYZE"
+    };
+    
+    @Container
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15-alpine");
+    
+    private static Connection connection;
+    
+    @BeforeAll
+    static void migrateAndSeed() throws SQLException {
+        Flyway.configure()
+                .dataSource(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword())
+                .locations("classpath:db/migration")
+                .load()
+                .migrate();
+        
+        connection = DriverManager.getConnection(postgres.getJdbcUrl(), postgres.getUsername(), postgres.getPassword());
+        try (Statement statement = connection.createStatement()) {
+            for (String seed : SEED) {
+                statement.execute(seed);
+            }
+        }
+    }
+    
+    @AfterAll
+    static void closeConnection() throws SQLException {
+        if (connection != null) {
+            connection.close();
+        }
+    }
+    
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    void plansWithoutSequentialScan(String query, String sql) throws SQLException {
+        String plan = explain(sql);
+        Matcher seqScan = SEQ_SCAN.matcher(plan);
+        if (seqScan.find()) {
+            fail(query + " plans " + seqScan.group() + System.lineSeparator() + plan);
+        }
+    }
+    
+    private static String explain(String sql) throws SQLException {
+        StringBuilder plan = new StringBuilder();
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                plan.append(rs.getString(1)).append(System.lineSeparator());
+            }
+        }
+        return plan.toString();
+    }
+    
+    // SQL equivalent of each repository query, with representative arguments
+    static Stream<Arguments> queries() {
+        Map<String, String> queries = new LinkedHashMap<>();
+        
+        queries.put("ProductRepository.findByProductId",
+                "SELECT * FROM products WHERE product_id = 'qp-prod-42'");
+        queries.put("ProductRepository.findByCategoryIdAndActiveTrue",
+                "SELECT * FROM products WHERE active = true AND category_id = 'qp-cat-7' LIMIT 20 OFFSET 0");
+        queries.put("ProductRepository.findByCategoryIdAndActiveTrue (count)",
+                "SELECT COUNT(*) FROM products WHERE active = true AND category_id = 'qp-cat-7'");
+        queries.put("ProductRepository.findByCategoryIdInAndActiveTrue",
+                "SELECT * FROM products WHERE active = true AND category_id IN ('qp-cat-7', 'qp-cat-27', 'qp-cat-47') LIMIT 20");
+        queries.put("ProductRepository.findByCategoryIdAndActiveTrueAfter",
+                "SELECT * FROM products WHERE active = true AND category_id = 'qp-cat-7' AND id > 1000 ORDER BY id LIMIT 21");
+        queries.put("ProductRepository.findActiveProductsAfter",
+                "SELECT * FROM products WHERE active = true AND id > 50000 ORDER BY id LIMIT 21");
+        queries.put("ProductRepository.findAllByProductIdIn",
+                "SELECT * FROM products WHERE product_id IN ('qp-prod-1', 'qp-prod-2', 'qp-prod-3')");
+        queries.put("ProductRepository.findByProductIdWithSkus",
+                "SELECT * FROM products p JOIN skus s ON s.product_id = p.id WHERE p.product_id = 'qp-prod-42' AND p.active = true");
+        
+        queries.put("SkuRepository.findBySkuId",
+                "SELECT * FROM skus WHERE sku_id = 'qp-sku-42'");
+        queries.put("SkuRepository.findBySkuCode",
+                "SELECT * FROM skus WHERE sku_code = 'QP-42'");
+        queries.put("SkuRepository.findAllBySkuIdInWithLock",
+                "SELECT * FROM skus WHERE sku_id IN ('qp-sku-1', 'qp-sku-2') ORDER BY id FOR UPDATE");
+        queries.put("SkuRepository.findBySkuIdWithProduct",
+                "SELECT * FROM skus s JOIN products p ON p.id = s.product_id WHERE s.sku_id = 'qp-sku-42'");
+        queries.put("SkuRepository.findAllBySkuIdInWithProduct",
+                "SELECT * FROM skus s JOIN products p ON p.id = s.product_id WHERE s.sku_id IN ('qp-sku-1', 'qp-sku-2')");
+        queries.put("SkuRepository.reserveStockAtomically",
+                "UPDATE skus SET reserved_quantity = reserved_quantity + 1, version = version + 1 " +
+                "WHERE sku_id = 'qp-sku-42' AND active = true AND stock_quantity - reserved_quantity >= 1");
+        queries.put("SkuRepository.findByProductIdAndActiveTrue",
+                "SELECT s.* FROM skus s JOIN products p ON p.id = s.product_id WHERE p.product_id = 'qp-prod-42' AND s.active = true");
+        queries.put("SkuRepository.findLowStockSkus",
+                "SELECT * FROM skus WHERE active = true AND track_inventory = true AND stock_quantity <= 2");
+        
+        queries.put("CategoryRepository.findByCategoryId",
+                "SELECT * FROM categories WHERE category_id = 'qp-cat-7'");
+        queries.put("CategoryRepository.findByParentCategoryIdIsNullAndActiveTrueOrderBySortOrder",
+                "SELECT * FROM categories WHERE parent_category_id IS NULL AND active = true ORDER BY sort_order");
+        queries.put("CategoryRepository.findByParentCategoryIdAndActiveTrueOrderBySortOrder",
+                "SELECT * FROM categories WHERE parent_category_id = 'qp-cat-7' AND active = true ORDER BY sort_order");
+        queries.put("CategoryRepository.existsByParentCategoryId",
+                "SELECT 1 FROM categories WHERE parent_category_id = 'qp-cat-7' LIMIT 1");
+        
+        queries.put("CartRepository.findByCartId",
+                "SELECT * FROM carts WHERE cart_id = md5('cart42')::uuid");
+        queries.put("CartRepository.findByCustomerIdAndActiveTrue",
+                "SELECT * FROM carts WHERE customer_id = 'qp-customer-42' AND active = true");
+        queries.put("CartRepository.findByCustomerIdWithItems",
+                "SELECT * FROM carts c LEFT JOIN cart_items ci ON ci.cart_id = c.id " +
+                "WHERE c.customer_id = 'qp-customer-42' AND c.active = true");
+        queries.put("CartRepository.findActiveRevisionsBySkuId",
+                "SELECT c.customer_id, c.cart_id, c.version FROM carts c WHERE c.active = true AND c.id IN " +
+                "(SELECT ci.cart_id FROM cart_items ci WHERE ci.sku_id = 'qp-sku-42')");
+        queries.put("CartRepository.markPricesStaleBySkuId",
+                "UPDATE carts SET prices_stale = true WHERE active = true AND id IN " +
+                "(SELECT ci.cart_id FROM cart_items ci WHERE ci.sku_id = 'qp-sku-42')");
+        queries.put("CartArchiver.selectArchivableCarts",
+                "SELECT id FROM carts WHERE active = false AND updated_at < TIMESTAMP '2024-01-01' " +
+                "ORDER BY updated_at LIMIT 500 FOR UPDATE SKIP LOCKED");
+        
+        queries.put("OrderRepository.findByOrderIdWithItems",
+                "SELECT * FROM orders o LEFT JOIN order_items oi ON oi.order_id = o.id WHERE o.order_id = md5('order42')::uuid");
+        queries.put("OrderRepository.findByCustomerIdOrderByOrderDateDesc",
+                "SELECT * FROM orders WHERE customer_id = 'qp-customer-42' ORDER BY order_date DESC LIMIT 20");
+        queries.put("OrderRepository.findByCustomerIdOrderByOrderDateDesc (count)",
+                "SELECT COUNT(*) FROM orders WHERE customer_id = 'qp-customer-42'");
+        queries.put("OrderRepository.findByCustomerIdBeforeOrderByOrderDateDesc",
+                "SELECT * FROM orders WHERE customer_id = 'qp-customer-42' AND (order_date < TIMESTAMP '2024-03-01' " +
+                "OR (order_date = TIMESTAMP '2024-03-01' AND id < 1000)) ORDER BY order_date DESC, id DESC LIMIT 21");
+        queries.put("OrderRepository.findByCustomerIdAndStatusOrderByOrderDateDesc",
+                "SELECT * FROM orders WHERE customer_id = 'qp-customer-42' AND status = 'DELIVERED' " +
+                "ORDER BY order_date DESC LIMIT 20");
+        queries.put("OrderRepository.countByCustomerIdAndStatus",
+                "SELECT COUNT(*) FROM orders WHERE customer_id = 'qp-customer-42' AND status = 'PENDING'");
+        queries.put("OrderRepository.findByStatusOrderByOrderDateAsc",
+                "SELECT * FROM orders WHERE status = 'PENDING' ORDER BY order_date ASC");
+        queries.put("OrderRepository.findByOrderDateBetween",
+                "SELECT * FROM orders WHERE order_date BETWEEN TIMESTAMP '2024-02-01' AND TIMESTAMP '2024-02-02' " +
+                "ORDER BY order_date DESC LIMIT 20");
+        
+        return queries.entrySet().stream().map(query -> Arguments.of(query.getKey(), query.getValue()));
+    }
+}
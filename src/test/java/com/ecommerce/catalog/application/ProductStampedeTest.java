@@ -0,0 +1,125 @@
+package com.ecommerce.catalog.application;
+
+import com.ecommerce.catalog.domain.Category;
+import com.ecommerce.catalog.domain.Product;
+import com.ecommerce.shared.domain.EntityId;
+import com.ecommerce.shared.domain.Money;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+// Fires READERS concurrent getProductWithSkus calls at one product, right after its entry was evicted (cold
+// miss) and right after it went past fresh-for (stale), and counts the JPQL queries Hibernate executed per
+// round: every round must run exactly one. The local profile uses the in-memory cache, so this covers the
+// in-process coalescing; the Redis lease is not exercised.
+@SpringBootTest(properties = {
+        "spring.jpa.show-sql=false",
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "app.cache.single-flight.fresh-for-ms=" + ProductStampedeTest.FRESH_FOR_MS
+})
+@ActiveProfiles("local")
+class ProductStampedeTest {
+    
+    static final long FRESH_FOR_MS = 500;
+    
+    private static final int READERS = 200;
+    private static final int ROUNDS = 5;
+    private static final int SKUS = 20;
+    
+    @Autowired
+    private CatalogService catalogService;
+    
+    @Autowired
+    private CatalogCacheInvalidator catalogCacheInvalidator;
+    
+    @Autowired
+    private CacheManager cacheManager;
+    
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    
+    private ExecutorService pool;
+    private Statistics statistics;
+    private EntityId productId;
+    
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(READERS);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        productId = seed();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+    
+    @Test
+    void coldMissRunsOneQuery() throws Exception {
+        Cache cache = cacheManager.getCache("productsWithSkus");
+        for (int round = 1; round <= ROUNDS; round++) {
+            cache.evict(catalogCacheInvalidator.entryKey("productsWithSkus", productId.getValue()));
+            assertEquals(1, stampede(), "queries in cold round " + round);
+        }
+    }
+    
+    @Test
+    void staleEntryRefreshesOnce() throws Exception {
+        catalogService.getProductWithSkus(productId);
+        for (int round = 1; round <= ROUNDS; round++) {
+            Thread.sleep(FRESH_FOR_MS + 50);
+            assertEquals(1, stampede(), "queries in stale round " + round);
+        }
+    }
+    
+    private long stampede() throws Exception {
+        long before = statistics.getQueryExecutionCount();
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Optional<ProductSnapshot>>> results = new ArrayList<>();
+        for (int reader = 0; reader < READERS; reader++) {
+            results.add(pool.submit(() -> {
+                start.await();
+                return catalogService.getProductWithSkus(productId);
+            }));
+        }
+        start.countDown();
+        for (Future<Optional<ProductSnapshot>> result : results) {
+            assertTrue(result.get().isPresent(), "reader got no product");
+        }
+        // A stale round answers from the old entry and refreshes in the background; give the refresh time to land
+        Thread.sleep(200);
+        return statistics.getQueryExecutionCount() - before;
+    }
+    
+    private EntityId seed() {
+        Category category = catalogService.createRootCategory("Stampede category", "Seeded by ProductStampedeTest");
+        Money price = Money.of(new BigDecimal("9.99"));
+        Product product = catalogService.createProduct("Stampede product", "Seeded by ProductStampedeTest",
+                category.getCategoryId(), price);
+        for (int s = 0; s < SKUS; s++) {
+            catalogService.createSku("STAMPEDE-" + product.getProductId().getValue() + "-" + s, "Variant " + s,
+                    "Seeded by ProductStampedeTest", product.getProductId(), price);
+        }
+        return product.getProductId();
+    }
+}